@@ -1,5 +1,6 @@
 import { BacktraceClient } from '@backtrace/react-native';
 import { Alert, Platform } from 'react-native';
+import { formatResults, runNativeCallBenchmark } from '../benchmark/nativeCallBenchmark';
 import { actions as androidActions } from './android/action';
 
 export interface DemoAction {
@@ -125,6 +126,14 @@ export function generateActions(client: BacktraceClient) {
                 client.addAttribute({ time: value });
             },
         },
+        {
+            name: 'Measure native call latency',
+            platform,
+            action: async () => {
+                const results = formatResults(await runNativeCallBenchmark());
+                notify(results);
+            },
+        },
         ...Platform.select({
             android: androidActions,
             default: [],
@@ -0,0 +1,117 @@
+import { TurboModuleRegistry, type TurboModule } from 'react-native';
+
+interface FileSystemModule extends TurboModule {
+    existsSync(path: string): boolean;
+    exists(path: string): Promise<boolean>;
+    writeFileSync(path: string, content: string): boolean;
+    readFileSync(path: string): string;
+}
+
+interface DirectoryModule extends TurboModule {
+    applicationDirectory(): string;
+}
+
+interface AttributeModule extends TurboModule {
+    get(): object;
+}
+
+export interface BenchmarkResult {
+    readonly name: string;
+    readonly iterations: number;
+    /**
+     * Times in microseconds.
+     */
+    readonly mean: number;
+    readonly p50: number;
+    readonly p95: number;
+}
+
+const WARMUP_ITERATIONS = 50;
+const ITERATIONS = 1000;
+
+/**
+ * Returns `JSI` if native modules are TurboModules called through JSI, or `bridge` if they are called
+ * through the legacy bridge.
+ */
+export function getArchitecture(): 'JSI' | 'bridge' {
+    return (global as { __turboModuleProxy?: unknown }).__turboModuleProxy ? 'JSI' : 'bridge';
+}
+
+/**
+ * Measures the latency of native calls used by the SDK. Modules are resolved the same way the SDK
+ * resolves them, so the results show the cost of the architecture the app is built for.
+ * Build the app with `newArchEnabled=false` and `newArchEnabled=true` to compare the bridge with JSI.
+ */
+export async function runNativeCallBenchmark(): Promise<BenchmarkResult[]> {
+    const fileSystem = TurboModuleRegistry.get<FileSystemModule>('BacktraceFileSystemProvider');
+    const directory = TurboModuleRegistry.get<DirectoryModule>('BacktraceDirectoryProvider');
+    const attributes = TurboModuleRegistry.get<AttributeModule>('ProcessAttributeProvider');
+    if (!fileSystem || !directory) {
+        throw new Error('Backtrace native modules are not available.');
+    }
+
+    const path = `${directory.applicationDirectory()}/backtrace-benchmark.txt`;
+    fileSystem.writeFileSync(path, 'benchmark');
+
+    const results = [
+        measure('existsSync', () => fileSystem.existsSync(path)),
+        measure('readFileSync (9 B)', () => fileSystem.readFileSync(path)),
+        await measureAsync('exists (promise)', () => fileSystem.exists(path)),
+    ];
+    if (attributes) {
+        results.push(measure('ProcessAttributeProvider.get', () => attributes.get()));
+    }
+    return results;
+}
+
+export function formatResults(results: BenchmarkResult[]): string {
+    return [
+        `Architecture: ${getArchitecture()}`,
+        ...results.map(
+            (result) =>
+                `${result.name}: mean ${result.mean.toFixed(1)} us, ` +
+                `p50 ${result.p50.toFixed(1)} us, p95 ${result.p95.toFixed(1)} us`,
+        ),
+    ].join('\n');
+}
+
+function measure(name: string, call: () => unknown): BenchmarkResult {
+    for (let i = 0; i < WARMUP_ITERATIONS; i++) {
+        call();
+    }
+
+    const times: number[] = [];
+    for (let i = 0; i < ITERATIONS; i++) {
+        const start = performance.now();
+        call();
+        times.push(performance.now() - start);
+    }
+    return summarize(name, times);
+}
+
+async function measureAsync(name: string, call: () => Promise<unknown>): Promise<BenchmarkResult> {
+    for (let i = 0; i < WARMUP_ITERATIONS; i++) {
+        await call();
+    }
+
+    const times: number[] = [];
+    for (let i = 0; i < ITERATIONS; i++) {
+        const start = performance.now();
+        await call();
+        times.push(performance.now() - start);
+    }
+    return summarize(name, times);
+}
+
+function summarize(name: string, times: number[]): BenchmarkResult {
+    const sorted = [...times].sort((a, b) => a - b);
+    const total = times.reduce((sum, time) => sum + time, 0);
+    const microseconds = (milliseconds: number) => milliseconds * 1000;
+    return {
+        name,
+        iterations: times.length,
+        mean: microseconds(total / times.length),
+        p50: microseconds(sorted[Math.floor(sorted.length * 0.5)]),
+        p95: microseconds(sorted[Math.floor(sorted.length * 0.95)]),
+    };
+}
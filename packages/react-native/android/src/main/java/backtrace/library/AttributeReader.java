@@ -2,42 +2,301 @@ package backtrace.library;
 
 import android.util.Log;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Reads "key: value" files, such as /proc/meminfo or /proc/self/status.
+ * Lines are parsed in place in a reusable byte buffer - only values of mapped keys are turned into strings,
+ * and reading stops as soon as all mapped keys are found.
+ */
 public class AttributeReader {
     private final static transient String LOG_TAG = AttributeReader.class.getSimpleName();
 
-    public static Map<String, String> readAttributesFromFile(String path, HashMap<String,String> attributeMapping) {
-        File file = new File(path);
-        Map<String, String> attributes = new HashMap<>();
+    private static final Charset ASCII = Charset.forName("US-ASCII");
 
+    /**
+     * Procfs files read by the SDK are smaller than a page. The buffer grows if a line doesn't fit.
+     */
+    private static final int BUFFER_SIZE = 4 * 1024;
+
+    private final byte[][] keys;
+    private final int[] keyHashes;
+    private final String[] attributeNames;
+    private final boolean[] found;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Target of {@link #readNumbers}. The consumer is kept in a field, so reading numbers doesn't allocate.
+     */
+    private long[] numbers;
+    private final ValueConsumer numberConsumer = new ValueConsumer() {
+        @Override
+        public void accept(int keyIndex, byte[] buffer, int start, int end) {
+            numbers[keyIndex] = parseLong(buffer, start, end);
+        }
+    };
+
+    /**
+     * @param attributeMapping file keys mapped to attribute names
+     */
+    public AttributeReader(Map<String, String> attributeMapping) {
+        int size = attributeMapping.size();
+        keys = new byte[size][];
+        keyHashes = new int[size];
+        attributeNames = new String[size];
+        found = new boolean[size];
+
+        int index = 0;
+        for (Map.Entry<String, String> entry : attributeMapping.entrySet()) {
+            keys[index] = entry.getKey().getBytes(ASCII);
+            keyHashes[index] = hash(keys[index], 0, keys[index].length);
+            attributeNames[index] = entry.getValue();
+            index++;
+        }
+    }
+
+    public static Map<String, String> readAttributesFromFile(String path, HashMap<String, String> attributeMapping) {
+        return new AttributeReader(attributeMapping).read(path);
+    }
+
+    /**
+     * Returns values of mapped keys, stored under attribute names. The "kB" unit is removed from values.
+     */
+    public synchronized Map<String, String> read(String path) {
+        final Map<String, String> attributes = new HashMap<>();
+        RandomAccessFile file = open(path);
+        if (file == null) {
+            return attributes;
+        }
+        try {
+            parse(file, new ValueConsumer() {
+                @Override
+                public void accept(int keyIndex, byte[] buffer, int start, int end) {
+                    attributes.put(attributeNames[keyIndex], new String(buffer, start, end - start, ASCII));
+                }
+            });
+        } finally {
+            close(file, path);
+        }
+        return attributes;
+    }
+
+    /**
+     * Parses values of mapped keys as numbers, without creating strings. Values are stored in the order
+     * of the mapping iteration - see {@link #getAttributeNames()}. Missing and non-numeric values are set to -1.
+     */
+    public synchronized void readNumbers(String path, long[] values) {
+        Arrays.fill(values, -1);
+        RandomAccessFile file = open(path);
+        if (file == null) {
+            return;
+        }
+        try {
+            readNumbers(file, values);
+        } finally {
+            close(file, path);
+        }
+    }
+
+    /**
+     * Reads numbers from the beginning of the already opened file. Procfs files can be read again
+     * from the same descriptor to get current values, so periodic reads don't allocate.
+     */
+    public synchronized void readNumbers(RandomAccessFile file, long[] values) {
+        Arrays.fill(values, -1);
+        numbers = values;
+        try {
+            file.seek(0);
+            parse(file, numberConsumer);
+        } catch (IOException e) {
+            Log.d(LOG_TAG, "Cannot read process information. Reason:" + e.getMessage());
+        } finally {
+            numbers = null;
+        }
+    }
+
+    /**
+     * Returns attribute names in the order used by {@link #readNumbers(String, long[])}.
+     */
+    public String[] getAttributeNames() {
+        return attributeNames.clone();
+    }
+
+    /**
+     * Parses a non-negative decimal number. Returns -1 if the range is not a number.
+     */
+    public static long parseLong(byte[] buffer, int start, int end) {
+        if (start >= end) {
+            return -1;
+        }
+        long result = 0;
+        for (int index = start; index < end; index++) {
+            int digit = buffer[index] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private interface ValueConsumer {
+        void accept(int keyIndex, byte[] buffer, int start, int end);
+    }
+
+    private static RandomAccessFile open(String path) {
+        try {
+            return new RandomAccessFile(path, "r");
+        } catch (IOException e) {
+            Log.d(LOG_TAG, "Cannot read process information. Reason:" + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void close(RandomAccessFile file, String path) {
         try {
-            BufferedReader br = new BufferedReader(new FileReader(file));
-            String line;
-
-            while ((line = br.readLine()) != null) {
-                String[] entry = line.split(":", 2);
-                String key = entry[0].trim();
-                if(!attributeMapping.containsKey(key)){
-                    continue;
+            file.close();
+        } catch (IOException e) {
+            Log.d(LOG_TAG, "Cannot close " + path + ". Reason:" + e.getMessage());
+        }
+    }
+
+    private void parse(RandomAccessFile file, ValueConsumer consumer) {
+        Arrays.fill(found, false);
+        int remaining = keys.length;
+
+        try {
+            int length = 0;
+            boolean endOfFile = false;
+            while (remaining > 0) {
+                if (!endOfFile) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    int read = file.read(buffer, length, buffer.length - length);
+                    if (read < 0) {
+                        endOfFile = true;
+                    } else {
+                        length += read;
+                    }
                 }
-                key = attributeMapping.get(key);
-                String value = entry[1].trim();
-                if(value.endsWith("kB")){
-                    value = value.substring(0,value.lastIndexOf('k')).trim();
+
+                int lineStart = 0;
+                while (remaining > 0) {
+                    int lineEnd = indexOf(buffer, (byte) '\n', lineStart, length);
+                    if (lineEnd < 0) {
+                        // the last line may not end with a new line character
+                        if (!endOfFile || lineStart == length) {
+                            break;
+                        }
+                        lineEnd = length;
+                    }
+                    if (parseLine(lineStart, lineEnd, consumer)) {
+                        remaining--;
+                    }
+                    lineStart = lineEnd + 1;
+                }
+
+                if (endOfFile) {
+                    break;
+                }
+                // keep the incomplete line for the next read
+                if (lineStart < length) {
+                    System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+                    length -= lineStart;
+                } else {
+                    length = 0;
                 }
-                attributes.put(key, value);
             }
-            br.close();
         } catch (IOException e) {
             Log.d(LOG_TAG, "Cannot read process information. Reason:" + e.getMessage());
         }
+    }
 
-        return attributes;
+    /**
+     * Passes the value of the line to the consumer if the line key is mapped and wasn't seen yet.
+     * Returns true if the value was passed.
+     */
+    private boolean parseLine(int start, int end, ValueConsumer consumer) {
+        int separator = indexOf(buffer, (byte) ':', start, end);
+        if (separator < 0) {
+            return false;
+        }
+
+        int keyEnd = trimEnd(start, separator);
+        int keyStart = trimStart(start, keyEnd);
+        int keyIndex = findKey(keyStart, keyEnd);
+        if (keyIndex < 0 || found[keyIndex]) {
+            return false;
+        }
+
+        int valueEnd = trimEnd(separator + 1, end);
+        int valueStart = trimStart(separator + 1, valueEnd);
+        if (valueEnd - valueStart >= 2 && buffer[valueEnd - 2] == 'k' && buffer[valueEnd - 1] == 'B') {
+            valueEnd = trimEnd(valueStart, valueEnd - 2);
+        }
+
+        found[keyIndex] = true;
+        consumer.accept(keyIndex, buffer, valueStart, valueEnd);
+        return true;
+    }
+
+    private int findKey(int start, int end) {
+        int length = end - start;
+        int keyHash = hash(buffer, start, end);
+        for (int index = 0; index < keys.length; index++) {
+            if (keyHashes[index] != keyHash || keys[index].length != length) {
+                continue;
+            }
+            byte[] key = keys[index];
+            int position = 0;
+            while (position < length && key[position] == buffer[start + position]) {
+                position++;
+            }
+            if (position == length) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && isWhitespace(buffer[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\t' || value == '\r';
+    }
+
+    private static int indexOf(byte[] buffer, byte value, int start, int end) {
+        for (int index = start; index < end; index++) {
+            if (buffer[index] == value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(byte[] buffer, int start, int end) {
+        int result = 0;
+        for (int index = start; index < end; index++) {
+            result = 31 * result + buffer[index];
+        }
+        return result;
     }
 }
@@ -3,7 +3,6 @@ package backtraceio.library;
 import androidx.annotation.NonNull;
 
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
@@ -12,8 +11,16 @@ import android.util.Log;
 import android.content.pm.PackageManager;
 import android.content.Context;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import backtraceio.library.attributes.AttributeCache;
+import backtraceio.library.attributes.AttributeProvider;
+import backtraceio.library.attributes.AttributeSource;
+import backtraceio.library.attributes.Attributes;
+
 @ReactModule(name = BacktraceApplicationAttributeProvider.NAME)
-public class BacktraceApplicationAttributeProvider extends ReactContextBaseJavaModule {
+public class BacktraceApplicationAttributeProvider extends BacktraceApplicationAttributeProviderSpec implements AttributeProvider {
     private final static transient String LOG_TAG = BacktraceApplicationAttributeProvider.class.getSimpleName();
     public static final String NAME = "BacktraceApplicationAttributeProvider";
 
@@ -33,11 +40,26 @@ public class BacktraceApplicationAttributeProvider extends ReactContextBaseJavaM
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap get() {
         WritableMap map = new WritableNativeMap();
-        map.putString("application", this.readApplicationName());
-        map.putString("application.version", this.readApplicationVersion());
+        Attributes.putAll(map, getAttributes());
         return map;
     }
 
+    /**
+     * Application attributes don't change while the process is running - they're collected once.
+     */
+    @Override
+    public Map<String, Object> getAttributes() {
+        return AttributeCache.getInstance().getStatic(NAME, new AttributeSource() {
+            @Override
+            public Map<String, Object> collect() {
+                Map<String, Object> attributes = new HashMap<>();
+                attributes.put("application", readApplicationName());
+                attributes.put("application.version", readApplicationVersion());
+                return attributes;
+            }
+        });
+    }
+
     private String readApplicationName() {
         return this.context.getApplicationInfo()
                 .loadLabel(this.context
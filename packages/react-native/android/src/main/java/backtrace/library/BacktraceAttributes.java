@@ -0,0 +1,204 @@
+package backtraceio.library;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+import com.facebook.react.module.annotations.ReactModule;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import backtraceio.library.attributes.AttributeCache;
+import backtraceio.library.attributes.AttributeCollector;
+import backtraceio.library.attributes.AttributeProvider;
+import backtraceio.library.attributes.Attributes;
+import backtraceio.library.attributes.ProcessSampler;
+import backtraceio.library.memory.MemoryPressureMonitor;
+
+/**
+ * Settings shared by all native attribute providers and collection of all providers in one call.
+ */
+@ReactModule(name = BacktraceAttributes.NAME)
+public class BacktraceAttributes extends BacktraceAttributesSpec {
+    public static final String NAME = "BacktraceAttributes";
+
+    /**
+     * Attributes collected once, when the client is created.
+     */
+    public static final String SCOPED = "scoped";
+
+    /**
+     * Attributes collected for every report.
+     */
+    public static final String DYNAMIC = "dynamic";
+
+    public static final String MEMORY_PRESSURE_EVENT = "BacktraceMemoryPressure";
+
+    /**
+     * Process samples file in the application files directory. Attached to native crash reports.
+     */
+    private static final String SAMPLES_FILE = "backtrace-process-samples";
+
+    /**
+     * Tells JavaScript to release memory held by the SDK.
+     */
+    private final MemoryPressureMonitor.Listener _memoryPressureListener = new MemoryPressureMonitor.Listener() {
+        @Override
+        public void onMemoryPressure(int level, String name) {
+            emitMemoryPressure(level, name);
+        }
+    };
+
+    public BacktraceAttributes(ReactApplicationContext reactContext) {
+        super(reactContext);
+        MemoryPressureMonitor.getInstance().addListener(_memoryPressureListener);
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Sets up the attribute cache and the process sampler.
+     * Supported options:
+     * ttl (ms) - time after which memory and process attributes are collected again,
+     * sampleInterval (ms) - time between process samples, 0 stops sampling,
+     * sampleCount - number of stored process samples.
+     * Process samples are stored in a file as well, so native crash reports include them.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean configure(ReadableMap options) {
+        if (options.hasKey("ttl")) {
+            AttributeCache.getInstance().setTtl((long) options.getDouble("ttl"));
+        }
+        if (options.hasKey("sampleInterval")) {
+            long interval = (long) options.getDouble("sampleInterval");
+            int count = options.hasKey("sampleCount")
+                    ? (int) options.getDouble("sampleCount")
+                    : ProcessSampler.DEFAULT_CAPACITY;
+            if (interval > 0 && count > 0) {
+                String samplesPath = new File(getReactApplicationContext().getFilesDir(), SAMPLES_FILE).getPath();
+                ProcessSampler.getInstance().start(interval, count, samplesPath);
+            } else {
+                ProcessSampler.getInstance().stop();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns process samples collected by the sampler. The result contains "columns" - names of sample values,
+     * and "samples" - rows from the oldest to the newest. Every row starts with the sample time in milliseconds.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getSamples() {
+        ProcessSampler sampler = ProcessSampler.getInstance();
+
+        WritableArray columns = new WritableNativeArray();
+        columns.pushString("timestamp");
+        for (String column : sampler.getColumns()) {
+            columns.pushString(column);
+        }
+
+        WritableArray samples = new WritableNativeArray();
+        for (long[] sample : sampler.getSamples()) {
+            WritableArray row = new WritableNativeArray();
+            for (long value : sample) {
+                row.pushDouble(value);
+            }
+            samples.pushArray(row);
+        }
+
+        WritableMap map = new WritableNativeMap();
+        map.putArray("columns", columns);
+        map.putArray("samples", samples);
+        return map;
+    }
+
+    /**
+     * Collects attributes of all providers in the scopes in parallel, and returns them in one map.
+     * The result contains "attributes" and "timings" - collection time of every provider in milliseconds,
+     * or -1 if the provider failed or didn't finish in time.
+     * @param scopes "scoped" and/or "dynamic"
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap collectAll(ReadableArray scopes) {
+        Map<String, AttributeProvider> providers = new LinkedHashMap<>();
+        for (int index = 0; index < scopes.size(); index++) {
+            String scope = scopes.getString(index);
+            if (SCOPED.equals(scope)) {
+                addProvider(providers, BacktraceApplicationAttributeProvider.NAME, BacktraceApplicationAttributeProvider.class);
+                addProvider(providers, BacktraceDeviceAttributeProvider.NAME, BacktraceDeviceAttributeProvider.class);
+                addProvider(providers, BacktraceSystemAttributeProvider.NAME, BacktraceSystemAttributeProvider.class);
+            } else if (DYNAMIC.equals(scope)) {
+                addProvider(providers, MemoryInformationAttributeProvider.NAME, MemoryInformationAttributeProvider.class);
+                addProvider(providers, ProcessAttributeProvider.NAME, ProcessAttributeProvider.class);
+            }
+        }
+
+        AttributeCollector.Result result = AttributeCollector.getInstance().collect(providers, AttributeCollector.DEFAULT_TIMEOUT);
+
+        WritableMap attributes = new WritableNativeMap();
+        Attributes.putAll(attributes, result.attributes);
+        WritableMap timings = new WritableNativeMap();
+        for (Map.Entry<String, Double> timing : result.timings.entrySet()) {
+            timings.putDouble(timing.getKey(), timing.getValue());
+        }
+
+        WritableMap map = new WritableNativeMap();
+        map.putMap("attributes", attributes);
+        map.putMap("timings", timings);
+        return map;
+    }
+
+    /**
+     * Required by NativeEventEmitter.
+     */
+    @ReactMethod
+    public void addListener(String eventName) {
+    }
+
+    /**
+     * Required by NativeEventEmitter.
+     */
+    @ReactMethod
+    public void removeListeners(double count) {
+    }
+
+    @Override
+    public void invalidate() {
+        MemoryPressureMonitor.getInstance().removeListener(_memoryPressureListener);
+        super.invalidate();
+    }
+
+    private void emitMemoryPressure(int level, String name) {
+        ReactApplicationContext context = getReactApplicationContext();
+        if (!context.hasActiveReactInstance()) {
+            return;
+        }
+
+        WritableMap event = new WritableNativeMap();
+        event.putInt("level", level);
+        event.putString("name", name);
+        context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(MEMORY_PRESSURE_EVENT, event);
+    }
+
+    private <T extends NativeModule & AttributeProvider> void addProvider(Map<String, AttributeProvider> providers, String name, Class<T> providerClass) {
+        T provider = getReactApplicationContext().getNativeModule(providerClass);
+        if (provider != null) {
+            providers.put(name, provider);
+        }
+    }
+}
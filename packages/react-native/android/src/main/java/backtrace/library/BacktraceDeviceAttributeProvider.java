@@ -3,7 +3,6 @@ package backtraceio.library;
 import androidx.annotation.NonNull;
 
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
@@ -12,10 +11,17 @@ import com.facebook.react.module.annotations.ReactModule;
 import android.content.Context;
 import android.os.Build;
 
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+
+import backtraceio.library.attributes.AttributeCache;
+import backtraceio.library.attributes.AttributeProvider;
+import backtraceio.library.attributes.AttributeSource;
+import backtraceio.library.attributes.Attributes;
 
 @ReactModule(name = BacktraceDeviceAttributeProvider.NAME)
-public class BacktraceDeviceAttributeProvider extends ReactContextBaseJavaModule {
+public class BacktraceDeviceAttributeProvider extends BacktraceDeviceAttributeProviderSpec implements AttributeProvider {
     public static final String NAME = "BacktraceDeviceAttributeProvider";
 
     private final Context context;
@@ -34,17 +40,34 @@ public class BacktraceDeviceAttributeProvider extends ReactContextBaseJavaModule
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap get() {
         WritableMap map = new WritableNativeMap();
-        map.putString("culture", this.readCulture());
-        map.putString("device.model", this.getDeviceModel());
-        map.putString("device.brand", this.getDeviceBrand());
-        map.putString("device.product", this.getDeviceProduct());
-        map.putString("device.sdk", this.getDeviceSdk());
-        map.putString("device.manufacturer", this.getDeviceManufacturer());
-        map.putString("cpu.boottime", String.valueOf(java.lang.System.currentTimeMillis() - android.os.SystemClock
-                .elapsedRealtime()));
+        Attributes.putAll(map, getAttributes());
         return map;
     }
 
+    /**
+     * Device attributes are collected once per process. The culture can be changed by the user
+     * while the application is running, so it's read on every call.
+     */
+    @Override
+    public Map<String, Object> getAttributes() {
+        Map<String, Object> attributes = new HashMap<>(AttributeCache.getInstance().getStatic(NAME, new AttributeSource() {
+            @Override
+            public Map<String, Object> collect() {
+                Map<String, Object> attributes = new HashMap<>();
+                attributes.put("device.model", getDeviceModel());
+                attributes.put("device.brand", getDeviceBrand());
+                attributes.put("device.product", getDeviceProduct());
+                attributes.put("device.sdk", getDeviceSdk());
+                attributes.put("device.manufacturer", getDeviceManufacturer());
+                attributes.put("cpu.boottime", String.valueOf(java.lang.System.currentTimeMillis() - android.os.SystemClock
+                        .elapsedRealtime()));
+                return attributes;
+            }
+        }));
+        attributes.put("culture", readCulture());
+        return attributes;
+    }
+
 
     private String readCulture() {
         return Locale.getDefault().getDisplayLanguage();
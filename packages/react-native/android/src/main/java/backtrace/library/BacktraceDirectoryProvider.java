@@ -1,26 +1,34 @@
 package backtrace.library;
 
 import android.content.Context;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableNativeArray;
 import com.facebook.react.module.annotations.ReactModule;
 
 import java.io.File;
+import java.util.List;
 import java.util.stream.Stream;
 
+import backtraceio.library.io.DirectoryCleaner;
+import backtraceio.library.io.DirectoryEntry;
+import backtraceio.library.io.DirectoryReader;
+import backtraceio.library.io.IoExecutor;
+
 
 @ReactModule(name = BacktraceDirectoryProvider.NAME)
-public class BacktraceDirectoryProvider extends ReactContextBaseJavaModule {
+public class BacktraceDirectoryProvider extends BacktraceDirectoryProviderSpec {
     public static final String NAME = "BacktraceDirectoryProvider";
+    private static final transient String LOG_TAG = BacktraceDirectoryProvider.class.getSimpleName();
 
     private final Context context;
+    private final IoExecutor _io = IoExecutor.getInstance();
 
     public BacktraceDirectoryProvider(ReactApplicationContext reactContext) {
         super(reactContext);
@@ -35,26 +43,97 @@ public class BacktraceDirectoryProvider extends ReactContextBaseJavaModule {
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableArray readDirSync(String path) {
-        File file = new File(path);
+        return listFileNames(path);
+    }
 
-        WritableArray array = new WritableNativeArray();
-        for (File directoryFile : file.listFiles()) {
-            array.pushString(directoryFile.getName());
-        }
+    @ReactMethod
+    public void readDir(final String path, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                promise.resolve(listFileNames(path));
+            }
+        });
+    }
 
-        return array;
+    /**
+     * Returns name, size, mtime and isDirectory of every entry in the directory which name matches the glob.
+     * @param glob file name pattern, for example "*.json". Empty or null matches all entries
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableArray readDirStatsSync(String path, String glob) {
+        try {
+            return toWritableArray(DirectoryReader.readStats(path, glob));
+        } catch (Exception e) {
+            Log.d(LOG_TAG, "Cannot read the directory. Reason: " + e.getMessage());
+            return new WritableNativeArray();
+        }
     }
 
+    /**
+     * Returns name, size, mtime and isDirectory of every entry in the directory which name matches the glob.
+     * @param glob file name pattern, for example "*.json". Empty or null matches all entries
+     */
     @ReactMethod
-    public void readDir(String path, Promise promise) {
-        File file = new File(path);
+    public void readDirStats(final String path, final String glob, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.resolve(toWritableArray(DirectoryReader.readStats(path, glob)));
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, "Cannot read the directory. Reason: " + e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
 
-        WritableArray array = new WritableNativeArray();
-        for (File directoryFile : file.listFiles()) {
-            array.pushString(directoryFile.getName());
-        }
+    /**
+     * Deletes files in the directory which names match the glob and which were last modified more than
+     * maxAge milliseconds ago. Subdirectories are not scanned.
+     * Resolves with the number and size of deleted and remaining matching files.
+     * @param glob file name pattern, for example "*.dmp"
+     */
+    @ReactMethod
+    public void deleteOlderThan(final String path, final String glob, final double maxAge, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.resolve(DirectoryCleaner.deleteOlderThan(path, glob, (long) maxAge).toWritableMap());
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, "Cannot clean the directory. Reason: " + e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
 
-        promise.resolve(array);
+    /**
+     * Deletes the oldest files in the directory which names match the glob until they take at most
+     * maxBytes bytes in at most maxFiles files. All files are evicted in one pass. Subdirectories and
+     * files which don't match the glob are not touched.
+     * Resolves with the number and size of deleted and remaining matching files.
+     * @param glob file name pattern, for example "*.dmp"
+     * @param maxBytes size limit. 0 - no limit
+     * @param maxFiles file limit. 0 - no limit
+     */
+    @ReactMethod
+    public void enforceQuota(final String path, final String glob, final double maxBytes, final double maxFiles,
+                             final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.resolve(DirectoryCleaner.enforceQuota(path, glob, (long) maxBytes, (int) maxFiles)
+                            .toWritableMap());
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, "Cannot clean the directory. Reason: " + e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
@@ -68,18 +147,47 @@ public class BacktraceDirectoryProvider extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void createDir(String path, Promise promise) {
-        File directory = new File(path);
-
-        if (directory.exists()) {
-            promise.resolve(true);
-            return;
-        }
-        promise.resolve(directory.mkdirs());
+    public void createDir(final String path, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                File directory = new File(path);
+
+                if (directory.exists()) {
+                    promise.resolve(true);
+                    return;
+                }
+                promise.resolve(directory.mkdirs());
+            }
+        });
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public String applicationDirectory() {
         return context.getFilesDir().getAbsolutePath();
     }
+
+    /**
+     * Returns names of the directory entries, or an empty array if the directory can't be read.
+     */
+    private WritableArray listFileNames(String path) {
+        WritableArray array = new WritableNativeArray();
+        File[] files = new File(path).listFiles();
+        if (files == null) {
+            return array;
+        }
+
+        for (File directoryFile : files) {
+            array.pushString(directoryFile.getName());
+        }
+        return array;
+    }
+
+    private WritableArray toWritableArray(List<DirectoryEntry> entries) {
+        WritableArray array = new WritableNativeArray();
+        for (DirectoryEntry entry : entries) {
+            array.pushMap(entry.toWritableMap());
+        }
+        return array;
+    }
 }
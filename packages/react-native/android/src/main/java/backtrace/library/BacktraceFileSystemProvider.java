@@ -1,30 +1,51 @@
 package backtrace.library;
 
 import android.os.FileUtils;
+import android.util.Base64;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
 import com.facebook.react.module.annotations.ReactModule;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.List;
+
+import backtraceio.library.io.Compression;
+import backtraceio.library.io.DirectoryCleaner;
+import backtraceio.library.io.IoExecutor;
 
 @ReactModule(name = BacktraceFileSystemProvider.NAME)
-public class BacktraceFileSystemProvider extends ReactContextBaseJavaModule {
+public class BacktraceFileSystemProvider extends BacktraceFileSystemProviderSpec {
     public static final String NAME = "BacktraceFileSystemProvider";
+    public static final String COPY_PROGRESS_EVENT = "BacktraceFileCopyProgress";
     private static final transient String LOG_TAG = BacktraceFileSystemProvider.class.getSimpleName();
 
+    /**
+     * Maximum number of bytes transferred at once. Copies of bigger files report progress after every chunk.
+     */
+    private static final long COPY_CHUNK_SIZE = 1024 * 1024;
+
+    private final IoExecutor _io = IoExecutor.getInstance();
+
     public BacktraceFileSystemProvider(ReactApplicationContext reactContext) {
         super(reactContext);
     }
@@ -35,6 +56,20 @@ public class BacktraceFileSystemProvider extends ReactContextBaseJavaModule {
         return NAME;
     }
 
+    /**
+     * Required by NativeEventEmitter.
+     */
+    @ReactMethod
+    public void addListener(String eventName) {
+    }
+
+    /**
+     * Required by NativeEventEmitter.
+     */
+    @ReactMethod
+    public void removeListeners(double count) {
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public String readFileSync(String path) {
         File file = new File(path);
@@ -42,14 +77,8 @@ public class BacktraceFileSystemProvider extends ReactContextBaseJavaModule {
             return null;
         }
 
-        try (Scanner scanner = new Scanner(file)) {
-            StringBuilder sb = new StringBuilder();
-
-            while (scanner.hasNext()) {
-                sb.append(scanner.nextLine());
-            }
-
-            return sb.toString();
+        try {
+            return read(file, 0, Long.MAX_VALUE);
         } catch (Exception e) {
             Log.d(LOG_TAG, e.getMessage());
             return null;
@@ -57,25 +86,70 @@ public class BacktraceFileSystemProvider extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void readFile(String path, Promise promise) {
-        File file = new File(path);
-        if (!file.exists()) {
-            promise.reject(new FileNotFoundException(path));
-            return;
-        }
-        try (Scanner scanner = new Scanner(file)) {
-            StringBuilder sb = new StringBuilder();
+    public void readFile(final String path, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                File file = new File(path);
+                if (!file.exists()) {
+                    _io.reject(promise, new FileNotFoundException(path));
+                    return;
+                }
+                try {
+                    promise.resolve(read(file, 0, Long.MAX_VALUE));
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
 
-            while (scanner.hasNext()) {
-                sb.append(scanner.nextLine());
+    /**
+     * Reads up to length bytes of the file, starting at the offset.
+     */
+    @ReactMethod
+    public void readFileRange(final String path, final double offset, final double length, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                File file = new File(path);
+                if (!file.exists()) {
+                    _io.reject(promise, new FileNotFoundException(path));
+                    return;
+                }
+                try {
+                    promise.resolve(read(file, (long) offset, (long) length));
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, e.getMessage());
+                    _io.reject(promise, e);
+                }
             }
+        });
+    }
 
-            scanner.close();
-            promise.resolve(sb.toString());
-        } catch (Exception e) {
-            Log.d(LOG_TAG, e.getMessage());
-            promise.reject(e);
-        }
+    /**
+     * Reads up to the last bytes of the file.
+     */
+    @ReactMethod
+    public void readFileTail(final String path, final double bytes, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                File file = new File(path);
+                if (!file.exists()) {
+                    _io.reject(promise, new FileNotFoundException(path));
+                    return;
+                }
+                try {
+                    long length = (long) bytes;
+                    promise.resolve(read(file, Math.max(0, file.length() - length), length));
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
@@ -90,16 +164,95 @@ public class BacktraceFileSystemProvider extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void writeFile(String path, String content, Promise promise) {
-        try (FileOutputStream out = new FileOutputStream(path, false)) {
-            out.write(content.getBytes(StandardCharsets.UTF_8));
-            promise.resolve(true);
+    public void writeFile(final String path, final String content, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                try (FileOutputStream out = new FileOutputStream(path, false)) {
+                    out.write(content.getBytes(StandardCharsets.UTF_8));
+                    promise.resolve(true);
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the file as base64 encoded bytes, without decoding it as text.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public String readFileBase64Sync(String path) {
+        File file = new File(path);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try {
+            return readBase64(file);
         } catch (Exception e) {
             Log.d(LOG_TAG, e.getMessage());
-            promise.reject(e);
+            return null;
         }
     }
 
+    /**
+     * Reads the file as base64 encoded bytes, without decoding it as text.
+     */
+    @ReactMethod
+    public void readFileBase64(final String path, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                File file = new File(path);
+                if (!file.exists()) {
+                    _io.reject(promise, new FileNotFoundException(path));
+                    return;
+                }
+                try {
+                    promise.resolve(readBase64(file));
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes base64 encoded bytes to the file.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean writeFileBase64Sync(String path, String content) {
+        try {
+            writeBase64(path, content);
+            return true;
+        } catch (Exception e) {
+            Log.d(LOG_TAG, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes base64 encoded bytes to the file.
+     */
+    @ReactMethod
+    public void writeFileBase64(final String path, final String content, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    writeBase64(path, content);
+                    promise.resolve(true);
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public boolean unlinkSync(String path) {
         File file = new File(path);
@@ -111,14 +264,42 @@ public class BacktraceFileSystemProvider extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void unlink(String filePath, Promise promise) {
-        File file = new File(filePath);
-        if (!file.exists()) {
-            promise.resolve(true);
+    public void unlink(final String filePath, final Promise promise) {
+        _io.execute(filePath, new Runnable() {
+            @Override
+            public void run() {
+                File file = new File(filePath);
+                if (!file.exists()) {
+                    promise.resolve(true);
+                    return;
+                }
+                Boolean result = file.delete();
+                promise.resolve(result);
+            }
+        });
+    }
+
+    /**
+     * Deletes all files in one call. Resolves with the number of paths which don't exist anymore.
+     * The operation is ordered with other operations on every path.
+     */
+    @ReactMethod
+    public void unlinkMany(final ReadableArray paths, final Promise promise) {
+        final List<String> files = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            files.add(paths.getString(i));
+        }
+        if (files.isEmpty()) {
+            promise.resolve(0);
             return;
         }
-        Boolean result = file.delete();
-        promise.resolve(result);
+
+        _io.execute(files.toArray(new String[0]), new Runnable() {
+            @Override
+            public void run() {
+                promise.resolve(DirectoryCleaner.unlinkMany(files));
+            }
+        });
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
@@ -128,32 +309,171 @@ public class BacktraceFileSystemProvider extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void exists(String path, Promise promise) {
-        File file = new File(path);
-        promise.resolve(file.exists());
+    public void exists(final String path, final Promise promise) {
+        _io.execute(path, new Runnable() {
+            @Override
+            public void run() {
+                File file = new File(path);
+                promise.resolve(file.exists());
+            }
+        });
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public boolean copySync(String sourcePath, String destinationPath) {
-        return copy(sourcePath, destinationPath);
+        return copy(sourcePath, destinationPath, false);
+    }
+
+    /**
+     * Copies the file on the I/O executor, so big attachments don't block other native module calls.
+     * The copy is ordered with other operations on the source and destination paths.
+     * Emits COPY_PROGRESS_EVENT after every chunk of files bigger than COPY_CHUNK_SIZE.
+     */
+    @ReactMethod
+    public void copy(final String sourcePath, final String destinationPath, final Promise promise) {
+        _io.execute(new String[]{sourcePath, destinationPath}, new Runnable() {
+            @Override
+            public void run() {
+                promise.resolve(copy(sourcePath, destinationPath, true));
+            }
+        });
     }
 
+    /**
+     * Compresses the source file into the destination file and resolves with the size of the compressed file.
+     * The operation is ordered with other operations on the source and destination paths.
+     * @param format "gzip" or "deflate" (zlib)
+     * @param level compression level from 0 to 9, or -1 for the default level
+     */
     @ReactMethod
-    public void copy(String sourcePath, String destinationPath, Promise promise) {
-        promise.resolve(copy(sourcePath, destinationPath));
+    public void compressFile(final String sourcePath, final String destinationPath, final String format,
+                             final double level, final Promise promise) {
+        _io.execute(new String[]{sourcePath, destinationPath}, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.resolve((double) Compression.compressFile(
+                            sourcePath, destinationPath, Compression.Format.fromString(format), (int) level));
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the number of I/O threads used by asynchronous file system operations.
+     * Operations on the same path always run on the same thread, in the order they were called.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean configure(ReadableMap options) {
+        if (options.hasKey("ioThreads")) {
+            _io.configure((int) options.getDouble("ioThreads"));
+        }
+        return true;
+    }
+
+    /**
+     * Returns queue depth and latency statistics of asynchronous file system operations.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getIoMetrics() {
+        return _io.getMetrics().toWritableMap();
+    }
+
+    /**
+     * Reads up to length bytes of the file starting at the offset and decodes them as UTF-8.
+     * A multi-byte character cut by the range is replaced.
+     */
+    private String read(File file, long offset, long length) throws IOException {
+        ByteBuffer buffer = readBytes(file, offset, length);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
     }
 
-    private boolean copy(String sourcePath, String destinationPath) {
+    /**
+     * Reads up to length bytes of the file starting at the offset with one bulk channel read.
+     * The buffer is sized from the file length. The position of the returned buffer is the number of read bytes.
+     */
+    private ByteBuffer readBytes(File file, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Offset and length must not be negative");
+        }
+
+        try (FileInputStream inputStream = new FileInputStream(file);
+             FileChannel channel = inputStream.getChannel()) {
+            long available = Math.max(0, channel.size() - offset);
+            long size = Math.min(available, length);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large: " + file.getPath());
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+
+            return buffer;
+        }
+    }
+
+    private String readBase64(File file) throws IOException {
+        ByteBuffer buffer = readBytes(file, 0, Long.MAX_VALUE);
+        return Base64.encodeToString(buffer.array(), 0, buffer.position(), Base64.NO_WRAP);
+    }
+
+    private void writeBase64(String path, String content) throws IOException {
+        byte[] bytes = Base64.decode(content, Base64.DEFAULT);
+        try (FileOutputStream out = new FileOutputStream(path, false)) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Copies the file with FileChannel.transferTo, which lets the kernel move the data without
+     * copying it through the Java heap.
+     */
+    private boolean copy(String sourcePath, String destinationPath, boolean reportProgress) {
         try (FileInputStream inputStream = new FileInputStream(sourcePath);
-             FileOutputStream outputStream = new FileOutputStream(destinationPath, false)) {
-            byte[] buf = new byte[1024];
-            int len;
-            while ((len = inputStream.read(buf)) > 0) {
-                outputStream.write(buf, 0, len);
+             FileOutputStream outputStream = new FileOutputStream(destinationPath, false);
+             FileChannel source = inputStream.getChannel();
+             FileChannel destination = outputStream.getChannel()) {
+            long size = source.size();
+            boolean emitProgress = reportProgress && size > COPY_CHUNK_SIZE;
+            long position = 0;
+            while (position < size) {
+                long transferred = source.transferTo(position, Math.min(COPY_CHUNK_SIZE, size - position), destination);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                if (emitProgress) {
+                    emitCopyProgress(sourcePath, destinationPath, position, size);
+                }
             }
-            return true;
+            return position == size;
         } catch (Exception e) {
+            Log.d(LOG_TAG, e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private void emitCopyProgress(String sourcePath, String destinationPath, long copied, long total) {
+        ReactApplicationContext context = getReactApplicationContext();
+        if (!context.hasActiveReactInstance()) {
+            return;
+        }
+
+        WritableMap progress = new WritableNativeMap();
+        progress.putString("source", sourcePath);
+        progress.putString("destination", destinationPath);
+        progress.putDouble("copied", copied);
+        progress.putDouble("total", total);
+        context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(COPY_PROGRESS_EVENT, progress);
+    }
+}
@@ -2,6 +2,7 @@ package backtraceio.library;
 
 import androidx.annotation.NonNull;
 
+import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
@@ -14,25 +15,32 @@ import android.util.Log;
 import android.content.Context;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
+import backtraceio.library.attributes.AttributeStore;
+import backtraceio.library.attributes.ProcessSampler;
+import backtraceio.library.io.IoExecutor;
 import backtraceio.library.nativeCalls.*;
 import backtraceio.library.models.nativeHandler.CrashHandlerConfiguration;
+import backtraceio.library.models.nativeHandler.CrashHandlerEnvironmentCache;
 import backtraceio.library.base.BacktraceBase;
 
 
 @ReactModule(name = BacktraceReactNative.NAME)
 public class BacktraceReactNative extends ReactContextBaseJavaModule {
-    static {
-        System.loadLibrary("backtrace-native");
-    }
-
     public static final String NAME = "BacktraceReactNative";
 
     public native void Crash();
 
     private final Context context;
 
+    /**
+     * Attributes known to the native crash handler.
+     */
+    private final AttributeStore _attributes = new AttributeStore(new BacktraceDatabaseWrapper());
+
     public BacktraceReactNative(ReactApplicationContext reactContext) {
         super(reactContext);
         this.context = reactContext.getApplicationContext();
@@ -47,17 +55,54 @@ public class BacktraceReactNative extends ReactContextBaseJavaModule {
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public Boolean initialize(String minidumpSubmissionUrl, String databasePath, ReadableMap readableAttributes, ReadableArray attachmentPaths) {
+        return initializeCrashHandler(minidumpSubmissionUrl, databasePath, readableAttributes.toHashMap(), attachmentPaths.toArrayList());
+    }
+
+    /**
+     * Initializes the native crash reporter off the JavaScript thread.
+     * Resolves with true if the crash handler is initialized.
+     */
+    @ReactMethod
+    public void initializeAsync(final String minidumpSubmissionUrl, final String databasePath, ReadableMap readableAttributes,
+                                ReadableArray attachmentPaths, final Promise promise) {
+        final HashMap<String, Object> attributes = readableAttributes.toHashMap();
+        final ArrayList<Object> attachments = attachmentPaths.toArrayList();
+        IoExecutor.getInstance().execute(databasePath, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.resolve(initializeCrashHandler(minidumpSubmissionUrl, databasePath, attributes, attachments));
+                } catch (Throwable e) {
+                    Log.d(NAME, "Cannot initialize native crash reporter. Reason: " + e.getMessage());
+                    promise.resolve(false);
+                }
+            }
+        });
+    }
+
+    private synchronized boolean initializeCrashHandler(String minidumpSubmissionUrl, String databasePath, HashMap<String, Object> attributes, List<Object> attachmentPaths) {
         Log.d(this.NAME, "Initializing native crash reporter");
         CrashHandlerConfiguration crashHandlerConfiguration = new backtraceio.library.models.nativeHandler.CrashHandlerConfiguration();
         if (!crashHandlerConfiguration.isSupportedAbi()) {
             Log.d(this.NAME, "Unsupported ABI detected.");
             return false;
         }
- 
-        HashMap<String, Object> attributes = readableAttributes.toHashMap();
+        NativeLibrary.load();
+
         String[] keys = attributes.keySet().toArray(new String[0]);
         String[] values = attributes.values().toArray(new String[0]);
 
+        // breadcrumbs and process samples stored in ring buffers are available to native crash reports as well
+        List<String> attachments = new ArrayList<>();
+        for (Object attachmentPath : attachmentPaths) {
+            attachments.add((String) attachmentPath);
+        }
+        attachments.addAll(MappedRingBufferWriter.getAttachmentPaths());
+        String samplesPath = ProcessSampler.getInstance().getExportPath();
+        if (samplesPath != null) {
+            attachments.add(samplesPath);
+        }
+
         BacktraceCrashHandlerWrapper nativeCommunication = new BacktraceCrashHandlerWrapper();
         Boolean result = nativeCommunication.initializeJavaCrashHandler(
                 minidumpSubmissionUrl,
@@ -65,28 +110,53 @@ public class BacktraceReactNative extends ReactContextBaseJavaModule {
                 crashHandlerConfiguration.getClassPath(),
                 keys,
                 values,
-                attachmentPaths.toArrayList().toArray(new String[0]),
-                crashHandlerConfiguration.getCrashHandlerEnvironmentVariables(this.context.getApplicationInfo()).toArray(new String[0])
+                attachments.toArray(new String[0]),
+                getEnvironmentVariables(crashHandlerConfiguration).toArray(new String[0])
                 );        
 
+        if (result) {
+            _attributes.reset(attributes);
+        }
         return result;
     }
 
+    /**
+     * Copying the process environment and probing the native library path is done once per application build.
+     */
+    private List<String> getEnvironmentVariables(CrashHandlerConfiguration crashHandlerConfiguration) {
+        CrashHandlerEnvironmentCache cache = new CrashHandlerEnvironmentCache(this.context);
+        List<String> environmentVariables = cache.get();
+        if (environmentVariables == null) {
+            environmentVariables = crashHandlerConfiguration.getCrashHandlerEnvironmentVariables(this.context.getApplicationInfo());
+            cache.put(environmentVariables);
+        }
+        return environmentVariables;
+    }
+
 
     @ReactMethod()
     public void useAttributes(ReadableMap readableAttributes) {
-        HashMap<String, Object> attributes = readableAttributes.toHashMap();
+        NativeLibrary.load();
+        _attributes.update(readableAttributes.toHashMap(), AttributeStore.UNKNOWN_VERSION);
+    }
 
-        String[] keys = attributes.keySet().toArray(new String[0]);
-        String[] values = attributes.values().toArray(new String[0]);
-        for (int attributeIndex = 0; attributeIndex < attributes.size(); attributeIndex++) {
-            BacktraceDatabase.addAttribute(keys[attributeIndex], values[attributeIndex]);
-        }
+    /**
+     * Passes attributes changed since the base version to the native crash handler.
+     * Returns the new version of the attributes, or -1 if the base version is outdated
+     * and all attributes should be sent with the -1 base version.
+     * @param changes attributes changed since the base version
+     * @param baseVersion version returned by the previous call, or -1
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public double updateAttributes(ReadableMap changes, double baseVersion) {
+        NativeLibrary.load();
+        return _attributes.update(changes.toHashMap(), (long) baseVersion);
     }
 
 
     @ReactMethod()
     public void crash() {
+        NativeLibrary.load();
         BacktraceBase.crash();
     }
 }
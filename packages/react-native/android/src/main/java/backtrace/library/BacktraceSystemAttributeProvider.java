@@ -3,7 +3,6 @@ package backtraceio.library;
 import androidx.annotation.NonNull;
 
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
@@ -13,12 +12,19 @@ import android.os.Build;
 import android.text.TextUtils;
 import android.provider.Settings;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import android.content.Context;
 
+import backtraceio.library.attributes.AttributeCache;
+import backtraceio.library.attributes.AttributeProvider;
+import backtraceio.library.attributes.AttributeSource;
+import backtraceio.library.attributes.Attributes;
+
 @ReactModule(name = BacktraceSystemAttributeProvider.NAME)
-public class BacktraceSystemAttributeProvider extends ReactContextBaseJavaModule {
+public class BacktraceSystemAttributeProvider extends BacktraceSystemAttributeProviderSpec implements AttributeProvider {
     public static final String NAME = "BacktraceSystemAttributeProvider";
 
     private final Context context;
@@ -38,14 +44,29 @@ public class BacktraceSystemAttributeProvider extends ReactContextBaseJavaModule
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap get() {
         WritableMap map = new WritableNativeMap();
-        map.putString("guid", this.readMachineId());
-        map.putString("uname.machine", this.readSystemArchitecture());
-        map.putString("uname.sysname", "Android");
-        map.putString("uname.version", this.readSystemVersion());
-        map.putString("uname.release", this.readSystemRelease());
+        Attributes.putAll(map, getAttributes());
         return map;
     }
 
+    /**
+     * The machine id and the system version are collected once per process.
+     */
+    @Override
+    public Map<String, Object> getAttributes() {
+        return AttributeCache.getInstance().getStatic(NAME, new AttributeSource() {
+            @Override
+            public Map<String, Object> collect() {
+                Map<String, Object> attributes = new HashMap<>();
+                attributes.put("guid", readMachineId());
+                attributes.put("uname.machine", readSystemArchitecture());
+                attributes.put("uname.sysname", "Android");
+                attributes.put("uname.version", readSystemVersion());
+                attributes.put("uname.release", readSystemRelease());
+                return attributes;
+            }
+        });
+    }
+
     private String readMachineId() {
         String androidId = Settings.Secure.getString(this.context.getContentResolver(),
                 Settings.Secure.ANDROID_ID);
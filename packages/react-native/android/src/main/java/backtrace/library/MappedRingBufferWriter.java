@@ -0,0 +1,185 @@
+package backtraceio.library;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.module.annotations.ReactModule;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import backtraceio.library.streams.MappedRingBuffer;
+import backtraceio.library.streams.RingBufferExport;
+import backtraceio.library.streams.StreamRegistry;
+
+/**
+ * Stores breadcrumbs in fixed-size memory-mapped ring buffers. Data written to the buffer
+ * survives Java and native crashes without any write system calls.
+ * <p>
+ * The ring buffer file is binary. Buffers opened with an export path keep a plain text copy
+ * of their records in that file - the copy is attached to reports and to native crash reports.
+ */
+@ReactModule(name = backtraceio.library.MappedRingBufferWriter.NAME)
+public class MappedRingBufferWriter extends ReactContextBaseJavaModule {
+    public static final String NAME = "MappedRingBufferWriter";
+
+    private static final transient String LOG_TAG = MappedRingBufferWriter.class.getSimpleName();
+
+    /**
+     * Paths to plain text copies of all open buffers. Passed to the native crash handler as attachments.
+     */
+    private static final Set<String> _attachmentPaths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final StreamRegistry<MappedRingBuffer> _buffers = new StreamRegistry<>();
+
+    /**
+     * Plain text copies of buffers, by buffer key.
+     */
+    private final Map<String, RingBufferExport> _exports = new ConcurrentHashMap<>();
+
+    @Override
+    @NonNull
+    public String getName() {
+        return NAME;
+    }
+
+    public static List<String> getAttachmentPaths() {
+        return new ArrayList<>(_attachmentPaths);
+    }
+
+    /**
+     * Opens a ring buffer. Records already stored in the file are kept, if the capacity did not change.
+     * @param filePath path to the buffer file
+     * @param capacity size of the buffer in bytes
+     * @param exportPath path to the plain text copy of the buffer, or null if the buffer is not exported
+     * @param maxRecords maximum number of exported records, 0 - all records
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public String open(String filePath, double capacity, @Nullable String exportPath, double maxRecords) {
+        MappedRingBuffer buffer;
+        try {
+            buffer = new MappedRingBuffer(filePath, (int) capacity);
+        } catch (Exception e) {
+            Log.d(LOG_TAG, "Cannot open a ring buffer. Reason: " + e.getMessage());
+            return null;
+        }
+
+        String key = _buffers.add(buffer);
+        if (exportPath != null) {
+            RingBufferExport export = new RingBufferExport(buffer, exportPath, (int) maxRecords);
+            export.export();
+            _exports.put(key, export);
+            _attachmentPaths.add(exportPath);
+        }
+        return key;
+    }
+
+    @ReactMethod
+    public void append(String key, String content, Promise promise) {
+        MappedRingBuffer buffer = _buffers.get(key);
+        if (buffer == null) {
+            Log.d(LOG_TAG, "Ring buffer with key: " + key + " is not available.");
+            promise.resolve(false);
+            return;
+        }
+
+        boolean result = buffer.append(content.getBytes(StandardCharsets.UTF_8));
+        scheduleExport(key);
+        promise.resolve(result);
+    }
+
+    @ReactMethod
+    public void appendBatch(String key, ReadableArray lines, Promise promise) {
+        MappedRingBuffer buffer = _buffers.get(key);
+        if (buffer == null) {
+            Log.d(LOG_TAG, "Ring buffer with key: " + key + " is not available.");
+            promise.resolve(false);
+            return;
+        }
+
+        boolean result = true;
+        for (int index = 0; index < lines.size(); index++) {
+            result &= buffer.append(lines.getString(index).getBytes(StandardCharsets.UTF_8));
+        }
+        scheduleExport(key);
+        promise.resolve(result);
+    }
+
+    /**
+     * Returns records stored in the buffer, from the oldest to the newest.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableArray read(String key) {
+        MappedRingBuffer buffer = _buffers.get(key);
+        if (buffer == null) {
+            return new WritableNativeArray();
+        }
+        return toArray(buffer.read());
+    }
+
+    /**
+     * Writes records stored in the buffer to its plain text copy, without passing them to JavaScript.
+     * @return false if the buffer is not exported or the copy cannot be written
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean export(String key) {
+        RingBufferExport export = _exports.get(key);
+        return export != null && export.export();
+    }
+
+    /**
+     * Returns records stored in the buffer file, for example from the previous application session.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableArray readFile(String filePath) {
+        try {
+            return toArray(MappedRingBuffer.read(filePath));
+        } catch (Exception e) {
+            Log.d(LOG_TAG, "Cannot read a ring buffer. Reason: " + e.getMessage());
+            return new WritableNativeArray();
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean close(String key) {
+        MappedRingBuffer buffer = _buffers.remove(key);
+        if (buffer == null) {
+            return true;
+        }
+        RingBufferExport export = _exports.remove(key);
+        if (export != null) {
+            _attachmentPaths.remove(export.getPath());
+            export.export();
+        }
+        buffer.force();
+        return true;
+    }
+
+    private void scheduleExport(String key) {
+        RingBufferExport export = _exports.get(key);
+        if (export != null) {
+            export.schedule();
+        }
+    }
+
+    private static WritableArray toArray(List<String> records) {
+        WritableArray result = new WritableNativeArray();
+        for (String record : records) {
+            result.pushString(record);
+        }
+        return result;
+    }
+}
@@ -2,7 +2,6 @@ package backtraceio.library;
 
 import androidx.annotation.NonNull;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
@@ -11,10 +10,16 @@ import android.content.Context;
 import java.util.HashMap;
 import java.util.Map;
 
+import backtraceio.library.attributes.AttributeCache;
+import backtraceio.library.attributes.AttributeProvider;
+import backtraceio.library.attributes.AttributeSource;
+import backtraceio.library.attributes.Attributes;
+import backtraceio.library.memory.MemoryPressureMonitor;
+
 import backtrace.library.AttributeReader;
 
 @ReactModule(name = MemoryInformationAttributeProvider.NAME)
-public class MemoryInformationAttributeProvider extends ReactContextBaseJavaModule {
+public class MemoryInformationAttributeProvider extends MemoryInformationAttributeProviderSpec implements AttributeProvider {
     public static final String NAME = "MemoryInformationAttributeProvider";
 
     private final Context context;
@@ -22,29 +27,6 @@ public class MemoryInformationAttributeProvider extends ReactContextBaseJavaModu
 
     private static HashMap<String, String> _attributeMapping = new HashMap<String, String>();
     static {
-        _attributeMapping.put("FDSize", "descriptor.count");
-        _attributeMapping.put("VmPeak", "vm.vma.peak");
-        _attributeMapping.put("VmSize", "vm.vma.size");
-        _attributeMapping.put("VmLck", "vm.locked.size");
-        _attributeMapping.put("VmHWM", "vm.rss.peak");
-        _attributeMapping.put("VmRSS", "vm.rss.size");
-        _attributeMapping.put("VmStk", "vm.stack.size");
-        _attributeMapping.put("VmData", "vm.data");
-        _attributeMapping.put("VmExe", "vm.exe");
-        _attributeMapping.put("VmLib", "vm.shared.size");
-        _attributeMapping.put("VmPTE", "vm.pte.size");
-        _attributeMapping.put("VmSwap", "vm.swap.size");
-
-        _attributeMapping.put("State", "state");
-
-
-        _attributeMapping.put("voluntary_ctxt_switches", "sched.cs.voluntary");
-        _attributeMapping.put("nonvoluntary_ctxt_switches", "sched.cs.involuntary");
-
-        _attributeMapping.put("SigPnd", "vm.sigpnd");
-        _attributeMapping.put("ShdPnd", "vm.shdpnd");
-        _attributeMapping.put("Threads", "vm.threads");
-
         _attributeMapping.put("MemTotal", "system.memory.total");
         _attributeMapping.put("MemFree", "system.memory.free");
         _attributeMapping.put("Buffers", "system.memory.buffers");
@@ -62,6 +44,11 @@ public class MemoryInformationAttributeProvider extends ReactContextBaseJavaModu
         _attributeMapping.put("VmallocChunk", "system.memory.vmalloc.chunk");
     }
 
+    /**
+     * Stops reading the file once all mapped keys are found.
+     */
+    private static final AttributeReader _reader = new AttributeReader(_attributeMapping);
+
     public MemoryInformationAttributeProvider(ReactApplicationContext reactContext) {
         super(reactContext);
         this.context = reactContext.getApplicationContext();
@@ -76,11 +63,24 @@ public class MemoryInformationAttributeProvider extends ReactContextBaseJavaModu
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap get() {
         WritableMap map = new WritableNativeMap();
-        Map<String,String> memoryAttributes = AttributeReader.readAttributesFromFile(attributePath, _attributeMapping);
-        for (Map.Entry<String, String> entry : memoryAttributes.entrySet()) {
-            map.putString(entry.getKey(), entry.getValue());
-        }
+        Attributes.putAll(map, getAttributes());
         return map;
     }
 
+    /**
+     * Memory information is sampled again once the cached sample is older than the cache TTL.
+     * Every trim callback clears the cached sample, so the pressure level is always up to date.
+     */
+    @Override
+    public Map<String, Object> getAttributes() {
+        return AttributeCache.getInstance().getSampled(NAME, new AttributeSource() {
+            @Override
+            public Map<String, Object> collect() {
+                Map<String, Object> attributes = new HashMap<String, Object>(_reader.read(attributePath));
+                attributes.putAll(MemoryPressureMonitor.getInstance().getAttributes());
+                return attributes;
+            }
+        });
+    }
+
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package backtraceio.library;
 import androidx.annotation.NonNull;
 
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
@@ -15,10 +14,16 @@ import android.util.Log;
 import java.util.HashMap;
 import java.util.Map;
 
+import backtraceio.library.attributes.AttributeCache;
+import backtraceio.library.attributes.AttributeProvider;
+import backtraceio.library.attributes.AttributeSource;
+import backtraceio.library.attributes.Attributes;
+import backtraceio.library.attributes.ProcessStatisticsReader;
+
 import backtrace.library.AttributeReader;
 
 @ReactModule(name = ProcessAttributeProvider.NAME)
-public class ProcessAttributeProvider extends ReactContextBaseJavaModule {
+public class ProcessAttributeProvider extends ProcessAttributeProviderSpec implements AttributeProvider {
     public static final String NAME = "ProcessAttributeProvider";
     private final static transient String LOG_TAG = ProcessAttributeProvider.class.getSimpleName();
 
@@ -26,7 +31,8 @@ public class ProcessAttributeProvider extends ReactContextBaseJavaModule {
     private static HashMap<String, String> _attributeMapping = new HashMap<String, String>();
 
     static {
-        _attributeMapping.put("FDSize", "descriptor.count");
+        // descriptor.count is the number of entries in /proc/<pid>/fd, FDSize is the size of the descriptor table
+        _attributeMapping.put("FDSize", "descriptor.capacity");
         _attributeMapping.put("VmPeak", "vm.vma.peak");
         _attributeMapping.put("VmSize", "vm.vma.size");
         _attributeMapping.put("VmLck", "vm.locked.size");
@@ -50,6 +56,10 @@ public class ProcessAttributeProvider extends ReactContextBaseJavaModule {
         _attributeMapping.put("Threads", "vm.threads");
     }
 
+    private static final AttributeReader _reader = new AttributeReader(_attributeMapping);
+
+    private static final ProcessStatisticsReader _statisticsReader = new ProcessStatisticsReader();
+
     public ProcessAttributeProvider(ReactApplicationContext reactContext) {
         super(reactContext);
         this.context = reactContext.getApplicationContext();
@@ -64,18 +74,32 @@ public class ProcessAttributeProvider extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap get() {
         WritableMap map = new WritableNativeMap();
-        int processId = android.os.Process.myPid();
-        if (processId < 0) {
-            Log.d(LOG_TAG, "Failed to read process id");
-            return map;
-        }
-        map.putInt("process.id", processId);
-        String processAttributes = String.format("/proc/%d/status", processId);
-        Map<String, String> memoryAttributes = AttributeReader.readAttributesFromFile(processAttributes, _attributeMapping);
-        for (Map.Entry<String, String> entry : memoryAttributes.entrySet()) {
-            map.putString(entry.getKey(), entry.getValue());
-        }
+        Attributes.putAll(map, getAttributes());
         return map;
     }
 
+    /**
+     * Process status is sampled again once the cached sample is older than the cache TTL.
+     * Besides the status file, CPU time, open descriptors and the busiest threads are read.
+     */
+    @Override
+    public Map<String, Object> getAttributes() {
+        return AttributeCache.getInstance().getSampled(NAME, new AttributeSource() {
+            @Override
+            public Map<String, Object> collect() {
+                Map<String, Object> attributes = new HashMap<>();
+                int processId = android.os.Process.myPid();
+                if (processId < 0) {
+                    Log.d(LOG_TAG, "Failed to read process id");
+                    return attributes;
+                }
+                attributes.put("process.id", processId);
+                String processAttributes = String.format("/proc/%d/status", processId);
+                attributes.putAll(_reader.read(processAttributes));
+                attributes.putAll(_statisticsReader.read(processId));
+                return attributes;
+            }
+        });
+    }
+
 }
\ No newline at end of file
@@ -1,33 +1,92 @@
 package backtraceio.library;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import com.facebook.react.ReactPackage;
+import com.facebook.react.TurboReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
+import com.facebook.react.turbomodule.core.interfaces.TurboModule;
 import com.facebook.react.uimanager.ViewManager;
 
-import java.util.List;
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-public class ReactNativePackage implements ReactPackage {
-    @NonNull
+import backtraceio.library.memory.MemoryPressureMonitor;
+
+/**
+ * Creates native modules on first use. React Native asks for a module only when JavaScript
+ * accesses it, so modules not used by the application are never instantiated.
+ * On the new architecture, modules generated from the TypeScript specs are TurboModules.
+ */
+public class ReactNativePackage extends TurboReactPackage {
+    @Nullable
     @Override
-    public List<NativeModule> createNativeModules(@NonNull ReactApplicationContext reactContext) {
-        List<NativeModule> modules = new ArrayList<>();
-        modules.add(new backtraceio.library.BacktraceReactNative(reactContext));
-        modules.add(new backtraceio.library.BacktraceApplicationAttributeProvider(reactContext));
-        modules.add(new backtraceio.library.BacktraceSystemAttributeProvider(reactContext));
-        modules.add(new backtraceio.library.BacktraceDeviceAttributeProvider(reactContext));
-        modules.add(new backtraceio.library.MemoryInformationAttributeProvider(reactContext));
-        modules.add(new backtraceio.library.ProcessAttributeProvider(reactContext));
-        modules.add(new backtraceio.library.BacktraceAndroidBackgroundUnhandledExceptionHandler(reactContext));
-
-        modules.add(new backtrace.library.BacktraceFileSystemProvider(reactContext));
-        modules.add(new backtrace.library.BacktraceDirectoryProvider(reactContext));
-        modules.add(new backtraceio.library.StreamWriter());
-        return modules;
+    public NativeModule getModule(@NonNull String name, @NonNull ReactApplicationContext reactContext) {
+        MemoryPressureMonitor.getInstance().register(reactContext);
+        switch (name) {
+            case backtraceio.library.BacktraceReactNative.NAME:
+                return new backtraceio.library.BacktraceReactNative(reactContext);
+            case backtraceio.library.BacktraceAttributes.NAME:
+                return new backtraceio.library.BacktraceAttributes(reactContext);
+            case backtraceio.library.BacktraceApplicationAttributeProvider.NAME:
+                return new backtraceio.library.BacktraceApplicationAttributeProvider(reactContext);
+            case backtraceio.library.BacktraceSystemAttributeProvider.NAME:
+                return new backtraceio.library.BacktraceSystemAttributeProvider(reactContext);
+            case backtraceio.library.BacktraceDeviceAttributeProvider.NAME:
+                return new backtraceio.library.BacktraceDeviceAttributeProvider(reactContext);
+            case backtraceio.library.MemoryInformationAttributeProvider.NAME:
+                return new backtraceio.library.MemoryInformationAttributeProvider(reactContext);
+            case backtraceio.library.ProcessAttributeProvider.NAME:
+                return new backtraceio.library.ProcessAttributeProvider(reactContext);
+            case backtraceio.library.BacktraceAndroidBackgroundUnhandledExceptionHandler.NAME:
+                return new backtraceio.library.BacktraceAndroidBackgroundUnhandledExceptionHandler(reactContext);
+            case backtrace.library.BacktraceFileSystemProvider.NAME:
+                return new backtrace.library.BacktraceFileSystemProvider(reactContext);
+            case backtrace.library.BacktraceDirectoryProvider.NAME:
+                return new backtrace.library.BacktraceDirectoryProvider(reactContext);
+            case backtraceio.library.StreamWriter.NAME:
+                return new backtraceio.library.StreamWriter(reactContext);
+            case backtraceio.library.MappedRingBufferWriter.NAME:
+                return new backtraceio.library.MappedRingBufferWriter();
+            case backtraceio.library.ReportIndex.NAME:
+                return new backtraceio.library.ReportIndex();
+            case backtraceio.library.ReportUploaderModule.NAME:
+                return new backtraceio.library.ReportUploaderModule(reactContext);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        final Map<String, ReactModuleInfo> moduleInfos = new HashMap<>();
+        addModuleInfo(moduleInfos, backtraceio.library.BacktraceReactNative.NAME, backtraceio.library.BacktraceReactNative.class);
+        addModuleInfo(moduleInfos, backtraceio.library.BacktraceAttributes.NAME, backtraceio.library.BacktraceAttributes.class);
+        addModuleInfo(moduleInfos, backtraceio.library.BacktraceApplicationAttributeProvider.NAME, backtraceio.library.BacktraceApplicationAttributeProvider.class);
+        addModuleInfo(moduleInfos, backtraceio.library.BacktraceSystemAttributeProvider.NAME, backtraceio.library.BacktraceSystemAttributeProvider.class);
+        addModuleInfo(moduleInfos, backtraceio.library.BacktraceDeviceAttributeProvider.NAME, backtraceio.library.BacktraceDeviceAttributeProvider.class);
+        addModuleInfo(moduleInfos, backtraceio.library.MemoryInformationAttributeProvider.NAME, backtraceio.library.MemoryInformationAttributeProvider.class);
+        addModuleInfo(moduleInfos, backtraceio.library.ProcessAttributeProvider.NAME, backtraceio.library.ProcessAttributeProvider.class);
+        addModuleInfo(moduleInfos, backtraceio.library.BacktraceAndroidBackgroundUnhandledExceptionHandler.NAME, backtraceio.library.BacktraceAndroidBackgroundUnhandledExceptionHandler.class);
+
+        addModuleInfo(moduleInfos, backtrace.library.BacktraceFileSystemProvider.NAME, backtrace.library.BacktraceFileSystemProvider.class);
+        addModuleInfo(moduleInfos, backtrace.library.BacktraceDirectoryProvider.NAME, backtrace.library.BacktraceDirectoryProvider.class);
+        addModuleInfo(moduleInfos, backtraceio.library.StreamWriter.NAME, backtraceio.library.StreamWriter.class);
+        addModuleInfo(moduleInfos, backtraceio.library.MappedRingBufferWriter.NAME, backtraceio.library.MappedRingBufferWriter.class);
+        addModuleInfo(moduleInfos, backtraceio.library.ReportIndex.NAME, backtraceio.library.ReportIndex.class);
+        addModuleInfo(moduleInfos, backtraceio.library.ReportUploaderModule.NAME, backtraceio.library.ReportUploaderModule.class);
+
+        return new ReactModuleInfoProvider() {
+            @Override
+            public Map<String, ReactModuleInfo> getReactModuleInfos() {
+                return moduleInfos;
+            }
+        };
     }
 
     @NonNull
@@ -35,4 +94,16 @@ public class ReactNativePackage implements ReactPackage {
     public List<ViewManager> createViewManagers(@NonNull ReactApplicationContext reactContext) {
         return Collections.emptyList();
     }
+
+    private static void addModuleInfo(Map<String, ReactModuleInfo> moduleInfos, String name, Class<? extends NativeModule> moduleClass) {
+        moduleInfos.put(name, new ReactModuleInfo(
+                name,
+                moduleClass.getName(),
+                false, // canOverrideExistingModule
+                false, // needsEagerInit
+                false, // hasConstants
+                false, // isCxxModule
+                TurboModule.class.isAssignableFrom(moduleClass) // isTurboModule
+        ));
+    }
 }
@@ -0,0 +1,175 @@
+package backtraceio.library;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+import com.facebook.react.module.annotations.ReactModule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import backtraceio.library.database.ReportIndexEntry;
+import backtraceio.library.database.ReportIndexJournal;
+import backtraceio.library.io.IoExecutor;
+
+/**
+ * Compact index of stored reports. On startup the database reads the index instead of every stored report.
+ * Each index is a CRC32-checked append-only journal - see {@link ReportIndexJournal}.
+ * All operations on one index run in order on the I/O executor.
+ */
+@ReactModule(name = backtraceio.library.ReportIndex.NAME)
+public class ReportIndex extends ReactContextBaseJavaModule {
+    public static final String NAME = "BacktraceReportIndex";
+
+    private static final transient String LOG_TAG = ReportIndex.class.getSimpleName();
+
+    private final ConcurrentHashMap<String, ReportIndexJournal> _journals = new ConcurrentHashMap<>();
+    private final IoExecutor _io = IoExecutor.getInstance();
+
+    @Override
+    @NonNull
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Resolves with all reports in the index. Corrupt journal lines are skipped.
+     */
+    @ReactMethod
+    public void load(final String indexPath, final Promise promise) {
+        _io.execute(indexPath, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    WritableArray result = new WritableNativeArray();
+                    for (ReportIndexEntry entry : getJournal(indexPath).getEntries()) {
+                        result.pushMap(toWritableMap(entry));
+                    }
+                    promise.resolve(result);
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, "Cannot load the report index. Reason: " + e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds the report to the index or replaces it.
+     * @param entry object with id, timestamp, size, attachments and attempts
+     */
+    @ReactMethod
+    public void put(final String indexPath, final ReadableMap entry, final Promise promise) {
+        final ReportIndexEntry indexEntry;
+        try {
+            indexEntry = toEntry(entry);
+        } catch (Exception e) {
+            promise.reject(e);
+            return;
+        }
+
+        _io.execute(indexPath, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    getJournal(indexPath).put(indexEntry);
+                    promise.resolve(true);
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, "Cannot update the report index. Reason: " + e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Increments the number of send attempts of the report.
+     * Resolves with the new number of attempts, or -1 if the report is not in the index.
+     */
+    @ReactMethod
+    public void incrementAttempts(final String indexPath, final String id, final Promise promise) {
+        _io.execute(indexPath, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.resolve(getJournal(indexPath).incrementAttempts(id));
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, "Cannot update the report index. Reason: " + e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the report from the index. Resolves with true if the report was in the index.
+     */
+    @ReactMethod
+    public void remove(final String indexPath, final String id, final Promise promise) {
+        _io.execute(indexPath, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.resolve(getJournal(indexPath).remove(id));
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, "Cannot update the report index. Reason: " + e.getMessage());
+                    _io.reject(promise, e);
+                }
+            }
+        });
+    }
+
+    private ReportIndexJournal getJournal(String indexPath) {
+        ReportIndexJournal journal = _journals.get(indexPath);
+        if (journal != null) {
+            return journal;
+        }
+
+        ReportIndexJournal newJournal = new ReportIndexJournal(indexPath);
+        journal = _journals.putIfAbsent(indexPath, newJournal);
+        return journal == null ? newJournal : journal;
+    }
+
+    private static ReportIndexEntry toEntry(ReadableMap entry) {
+        List<String> attachments = new ArrayList<>();
+        if (entry.hasKey("attachments")) {
+            ReadableArray paths = entry.getArray("attachments");
+            for (int i = 0; i < paths.size(); i++) {
+                attachments.add(paths.getString(i));
+            }
+        }
+
+        return new ReportIndexEntry(
+                entry.getString("id"),
+                entry.hasKey("timestamp") ? (long) entry.getDouble("timestamp") : System.currentTimeMillis(),
+                entry.hasKey("size") ? (long) entry.getDouble("size") : 0,
+                attachments,
+                entry.hasKey("attempts") ? entry.getInt("attempts") : 0);
+    }
+
+    private static WritableMap toWritableMap(ReportIndexEntry entry) {
+        WritableArray attachments = new WritableNativeArray();
+        for (String attachment : entry.attachments) {
+            attachments.pushString(attachment);
+        }
+
+        WritableMap result = new WritableNativeMap();
+        result.putString("id", entry.id);
+        result.putDouble("timestamp", entry.timestamp);
+        result.putDouble("size", entry.size);
+        result.putArray("attachments", attachments);
+        result.putInt("attempts", entry.attempts);
+        return result;
+    }
+}
@@ -0,0 +1,221 @@
+package backtraceio.library;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+import com.facebook.react.module.annotations.ReactModule;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import backtraceio.library.upload.MultipartUploader;
+import backtraceio.library.upload.ReportUploader;
+import backtraceio.library.upload.UploadJobScheduler;
+import backtraceio.library.upload.UploadRequest;
+import backtraceio.library.upload.UploadResult;
+
+/**
+ * Uploads stored reports from native code. Report JSON and attachments are streamed from disk,
+ * so they are never loaded into the JavaScript heap. Queued reports are persisted and retried
+ * with exponential backoff. A background job sends reports left in the queue once the network
+ * is available, also when the application is not running.
+ */
+@ReactModule(name = backtraceio.library.ReportUploaderModule.NAME)
+public class ReportUploaderModule extends ReactContextBaseJavaModule {
+    public static final String NAME = "BacktraceReportUploader";
+    public static final String UPLOAD_ATTEMPT_EVENT = "BacktraceUploadAttempt";
+
+    private static final transient String LOG_TAG = ReportUploaderModule.class.getSimpleName();
+    private static final String DEFAULT_QUEUE_DIRECTORY = "backtrace/uploads";
+
+    private volatile String _queueDirectory;
+    private volatile String _databaseDirectory;
+    private volatile String _submissionUrl;
+
+    private final ReportUploader.Listener _listener = new ReportUploader.Listener() {
+        @Override
+        public void onUploadAttempt(UploadRequest request, UploadResult result, boolean willRetry) {
+            emitUploadAttempt(request, result, willRetry);
+        }
+    };
+
+    public ReportUploaderModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Sets up the uploader. Has to be called before the first upload.
+     * @param options queueDirectory, maxConcurrency, maxAttempts, baseDelay, maxDelay, timeout, and
+     *                databaseDirectory with submissionUrl of the JavaScript report database. The background
+     *                job sends reports left in the database after the JavaScript client stops
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean configure(ReadableMap options) {
+        if (options.hasKey("queueDirectory")) {
+            _queueDirectory = options.getString("queueDirectory");
+        }
+        if (options.hasKey("databaseDirectory") && options.hasKey("submissionUrl")) {
+            _databaseDirectory = options.getString("databaseDirectory");
+            _submissionUrl = options.getString("submissionUrl");
+            uploader().setClientDatabaseDirectory(_databaseDirectory);
+            scheduleJob();
+        }
+
+        uploader().configure(
+                options.hasKey("maxConcurrency")
+                        ? (int) options.getDouble("maxConcurrency")
+                        : ReportUploader.DEFAULT_MAX_CONCURRENCY,
+                options.hasKey("maxAttempts")
+                        ? (int) options.getDouble("maxAttempts")
+                        : ReportUploader.DEFAULT_MAX_ATTEMPTS,
+                options.hasKey("baseDelay") ? (long) options.getDouble("baseDelay") : ReportUploader.DEFAULT_BASE_DELAY,
+                options.hasKey("maxDelay") ? (long) options.getDouble("maxDelay") : ReportUploader.DEFAULT_MAX_DELAY,
+                options.hasKey("timeout") ? (int) options.getDouble("timeout") : MultipartUploader.DEFAULT_TIMEOUT);
+        return true;
+    }
+
+    /**
+     * Stores the report in the upload queue and uploads it in the background.
+     * Resolves with the id of the upload request.
+     * @param request url, reportPath, optional attachments (map of attachment names to paths), optional id
+     *                and optional ownedFiles - paths deleted once the report is sent or dropped. By default
+     *                the queue owns the report and all attachments
+     */
+    @ReactMethod
+    public void enqueue(ReadableMap request, Promise promise) {
+        try {
+            Map<String, String> attachments = new LinkedHashMap<>();
+            if (request.hasKey("attachments")) {
+                ReadableMap attachmentPaths = request.getMap("attachments");
+                ReadableMapKeySetIterator iterator = attachmentPaths.keySetIterator();
+                while (iterator.hasNextKey()) {
+                    String name = iterator.nextKey();
+                    attachments.put(name, attachmentPaths.getString(name));
+                }
+            }
+
+            String reportPath = request.getString("reportPath");
+            Set<String> ownedFiles = new LinkedHashSet<>();
+            if (request.hasKey("ownedFiles")) {
+                ReadableArray ownedPaths = request.getArray("ownedFiles");
+                for (int i = 0; i < ownedPaths.size(); i++) {
+                    ownedFiles.add(ownedPaths.getString(i));
+                }
+            } else {
+                ownedFiles.add(reportPath);
+                ownedFiles.addAll(attachments.values());
+            }
+
+            String id = request.hasKey("id") ? request.getString("id") : UUID.randomUUID().toString();
+            UploadRequest uploadRequest = new UploadRequest(
+                    id, request.getString("url"), reportPath, attachments, ownedFiles);
+            uploader().enqueue(uploadRequest);
+            scheduleJob();
+            promise.resolve(id);
+        } catch (Exception e) {
+            Log.d(LOG_TAG, "Cannot enqueue the report. Reason: " + e.getMessage());
+            promise.reject(e);
+        }
+    }
+
+    /**
+     * Schedules uploads of reports queued by previous sessions. Returns the number of scheduled reports.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public double resume() {
+        int scheduled = uploader().resume();
+        if (scheduled > 0) {
+            // sends the reports also if the application is closed before the uploads finish
+            scheduleJob();
+        }
+        return scheduled;
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public double getPendingCount() {
+        return uploader().getPendingCount();
+    }
+
+    /**
+     * Returns the directory where queued uploads are persisted.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public String getQueueDirectory() {
+        if (_queueDirectory == null) {
+            _queueDirectory = new File(getReactApplicationContext().getFilesDir(), DEFAULT_QUEUE_DIRECTORY).getPath();
+        }
+        return _queueDirectory;
+    }
+
+    @Override
+    public void invalidate() {
+        if (_databaseDirectory != null) {
+            uploader().setClientDatabaseDirectory(null);
+            // reports left in the database are sent by the job from now on
+            scheduleJob();
+        }
+        super.invalidate();
+    }
+
+    private void scheduleJob() {
+        UploadJobScheduler.schedule(
+                getReactApplicationContext(), getQueueDirectory(), _databaseDirectory, _submissionUrl);
+    }
+
+    private ReportUploader uploader() {
+        ReportUploader uploader = ReportUploader.getInstance(getQueueDirectory());
+        uploader.setListener(_listener);
+        return uploader;
+    }
+
+    /**
+     * Required by NativeEventEmitter.
+     */
+    @ReactMethod
+    public void addListener(String eventName) {
+    }
+
+    /**
+     * Required by NativeEventEmitter.
+     */
+    @ReactMethod
+    public void removeListeners(double count) {
+    }
+
+    private void emitUploadAttempt(UploadRequest request, UploadResult result, boolean willRetry) {
+        ReactApplicationContext context = getReactApplicationContext();
+        if (!context.hasActiveReactInstance()) {
+            return;
+        }
+
+        WritableMap event = new WritableNativeMap();
+        event.putString("id", request.id);
+        event.putInt("status", result.status);
+        event.putBoolean("success", result.isSuccess());
+        event.putBoolean("willRetry", willRetry);
+        event.putInt("attempts", request.getAttempts());
+        event.putString("response", result.body);
+        context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(UPLOAD_ATTEMPT_EVENT, event);
+    }
+}
@@ -5,92 +5,218 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 
 import com.facebook.react.bridge.Promise;
-import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableNativeArray;
 import com.facebook.react.module.annotations.ReactModule;
 
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import backtraceio.library.memory.MemoryPressureMonitor;
+import backtraceio.library.streams.FileStream;
+import backtraceio.library.streams.GroupCommitWriter;
+import backtraceio.library.streams.GzipFileStream;
+import backtraceio.library.streams.RotatingFileStream;
+import backtraceio.library.streams.StreamDurability;
+import backtraceio.library.streams.StreamRegistry;
 
 
 @ReactModule(name = backtraceio.library.StreamWriter.NAME)
-public class StreamWriter extends ReactContextBaseJavaModule {
+public class StreamWriter extends StreamWriterSpec {
     public static final String NAME = "StreamWriter";
 
     private static final transient String LOG_TAG = backtraceio.library.StreamWriter.class.getSimpleName();
 
+    public StreamWriter(ReactApplicationContext reactContext) {
+        super(reactContext);
+        MemoryPressureMonitor.getInstance().addListener(_memoryPressureListener);
+    }
+
     @Override
     @NonNull
     public String getName() {
         return NAME;
     }
-    private HashMap<String, BufferedWriter> _map = new HashMap<>();
+    /**
+     * Open streams. Accessed from the JavaScript thread (create/close) and the native modules thread (append).
+     */
+    private final StreamRegistry<FileStream> _streams = new StreamRegistry<>();
+
+    /**
+     * Writes and commits appended data on a dedicated thread.
+     */
+    private final GroupCommitWriter _writer = new GroupCommitWriter();
+
+    /**
+     * Closes idle file descriptors and their buffers when the system is low on memory.
+     */
+    private final MemoryPressureMonitor.Listener _memoryPressureListener = new MemoryPressureMonitor.Listener() {
+        @Override
+        public void onMemoryPressure(int level, String name) {
+            _writer.trim();
+        }
+    };
+
+    /**
+     * Sets the commit policy of all streams.
+     * Supported options: durability (none, flush, fsync), flushInterval (ms), flushSize (bytes),
+     * maxOpenFiles (number of file descriptors kept open at once).
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean configure(ReadableMap options) {
+        StreamDurability durability = StreamDurability.fromString(
+                options.hasKey("durability") ? options.getString("durability") : null,
+                StreamDurability.FLUSH);
+        long flushInterval = options.hasKey("flushInterval")
+                ? (long) options.getDouble("flushInterval")
+                : GroupCommitWriter.DEFAULT_FLUSH_INTERVAL;
+        int flushSize = options.hasKey("flushSize")
+                ? (int) options.getDouble("flushSize")
+                : GroupCommitWriter.DEFAULT_FLUSH_SIZE;
+        int maxOpenFiles = options.hasKey("maxOpenFiles")
+                ? (int) options.getDouble("maxOpenFiles")
+                : GroupCommitWriter.DEFAULT_MAX_OPEN_STREAMS;
+
+        _writer.configure(durability, flushInterval, flushSize, maxOpenFiles);
+        return true;
+    }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public String create(String filePath) {
-        String key = String.valueOf(System.currentTimeMillis());
-        if (_map.containsKey(key)) {
+        FileStream stream = this.createStream(filePath);
+
+        if (stream == null) {
+            return null;
+        }
+        String key = _streams.add(stream);
+        Log.d(LOG_TAG, "Creating a writer for key " + key + " for file " + filePath);
+        return key;
+    }
+
+    /**
+     * Creates a writer which rolls over to a new file when the current file reaches the size or line limit,
+     * and deletes files above the file limit.
+     * @param pathTemplate path to the file. The "{n}" placeholder is replaced with the index of the file
+     * @param maxBytes maximum size of one file in bytes. 0 - no limit
+     * @param maxLines maximum number of lines in one file. 0 - no limit
+     * @param maxFiles maximum number of files
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public String createRotating(String pathTemplate, double maxBytes, double maxLines, double maxFiles) {
+        FileStream stream;
+        try {
+            stream = new RotatingFileStream(pathTemplate, (long) maxBytes, (long) maxLines, (int) maxFiles);
+        } catch (Exception e) {
+            Log.d(LOG_TAG, "Cannot create a writer. Reason: " + e.getMessage());
             return null;
         }
 
-        BufferedWriter writer = this.createWriter(filePath);
+        String key = _streams.add(stream);
+        Log.d(LOG_TAG, "Creating a rotating writer for key " + key + " for file " + pathTemplate);
+        return key;
+    }
 
-        if (writer == null) {
+    /**
+     * Creates a writer which compresses appended data with GZIP.
+     * @param filePath path to the file
+     * @param level compression level from 0 to 9, or -1 for the default level
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public String createCompressed(String filePath, double level) {
+        FileStream stream;
+        try {
+            stream = new GzipFileStream(filePath, (int) level);
+        } catch (Exception e) {
+            Log.d(LOG_TAG, "Cannot create a writer. Reason: " + e.getMessage());
             return null;
         }
-        Log.d(LOG_TAG, "Creating a writer for key " + key + " for file " + filePath);
-        _map.put(key, writer);
+
+        String key = _streams.add(stream);
+        Log.d(LOG_TAG, "Creating a compressed writer for key " + key + " for file " + filePath);
         return key;
     }
 
-    @ReactMethod
-    public void append(String key, String line, Promise promise) {
-        BufferedWriter writer = _map.get(key);
-        if (writer == null) {
-            Log.d(LOG_TAG, "Writer with key: " + key + " is not available.");
-            promise.resolve(false);
-            return;
+    /**
+     * Returns paths to all files written by the writer, from the oldest to the newest.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableArray files(String key) {
+        WritableArray result = new WritableNativeArray();
+        FileStream stream = _streams.get(key);
+        if (stream == null) {
+            return result;
         }
 
-        try {
-            writer.append(line);
-            writer.flush();
+        for (String file : stream.getFiles()) {
+            result.pushString(file);
+        }
+        return result;
+    }
 
-            promise.resolve(true);
-        } catch (Exception e) {
-            Log.d(LOG_TAG, "Cannot append a breadcrumb line. Reason: " + e.getMessage());
-            promise.resolve(false);
+    @ReactMethod
+    public void append(String key, String line, Promise promise) {
+        write(key, new String[]{line}, promise);
+    }
+
+    /**
+     * Appends all lines to the file. Lines are committed together with other pending writes.
+     */
+    @ReactMethod
+    public void appendBatch(String key, ReadableArray lines, Promise promise) {
+        String[] batch = new String[lines.size()];
+        for (int index = 0; index < batch.length; index++) {
+            batch[index] = lines.getString(index);
         }
+        write(key, batch, promise);
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public boolean close(String key) {
-        BufferedWriter writer = _map.get(key);
-        if (writer == null) {
+        FileStream stream = _streams.remove(key);
+        if (stream == null) {
             return true;
         }
-        _map.remove(key);
-        try {
-            writer.close();
-            return true;
-        } catch (Exception e) {
-            Log.d(LOG_TAG, "Cannot close the stream. Reason:" + e.getMessage());
-            return false;
+        return _writer.close(stream);
+    }
+
+    /**
+     * Commits all pending writes.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean flush() {
+        return _writer.flush();
+    }
+
+    @Override
+    public void invalidate() {
+        MemoryPressureMonitor.getInstance().removeListener(_memoryPressureListener);
+        _writer.shutdown();
+        super.invalidate();
+    }
+
+    private void write(String key, String[] lines, Promise promise) {
+        FileStream stream = _streams.get(key);
+        if (stream == null) {
+            Log.d(LOG_TAG, "Writer with key: " + key + " is not available.");
+            promise.resolve(false);
+            return;
+        }
+
+        String error = stream.consumeError();
+        if (error != null) {
+            Log.d(LOG_TAG, "Cannot append a breadcrumb line. Reason: " + error);
+            promise.resolve(false);
+            return;
         }
 
+        _writer.write(stream, lines);
+        promise.resolve(true);
     }
 
-    private BufferedWriter createWriter(String _sourceFile) {
+    private FileStream createStream(String _sourceFile) {
         try {
-            return new BufferedWriter(
-                    new OutputStreamWriter(
-                            new FileOutputStream(_sourceFile),
-                            StandardCharsets.UTF_8
-                    )
-            );
+            return new FileStream(_sourceFile);
         } catch (Exception e) {
             Log.d(LOG_TAG, "Cannot create a writer. Reason: " + e.getMessage());
             return null;
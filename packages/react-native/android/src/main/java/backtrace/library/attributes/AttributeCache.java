@@ -0,0 +1,96 @@
+package backtraceio.library.attributes;
+
+import android.os.SystemClock;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Attributes shared by all native attribute providers.
+ * Static attributes, such as the application version or the device model, are collected once per process.
+ * Sampled attributes, such as /proc statistics, are collected again when they are older than the TTL,
+ * so reports created in a burst reuse one sample.
+ */
+public class AttributeCache {
+    public static final long DEFAULT_TTL = 1000;
+
+    private static final AttributeCache instance = new AttributeCache();
+
+    private static class Entry {
+        private Map<String, Object> attributes;
+        private long timestamp;
+        private boolean sampled;
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private volatile long ttl = DEFAULT_TTL;
+
+    public static AttributeCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets the time in milliseconds after which sampled attributes are collected again.
+     * 0 disables caching of sampled attributes.
+     */
+    public void setTtl(long ttl) {
+        this.ttl = Math.max(0, ttl);
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Returns attributes collected on the first call.
+     */
+    public Map<String, Object> getStatic(String name, AttributeSource source) {
+        return get(name, source, false);
+    }
+
+    /**
+     * Returns attributes collected less than TTL milliseconds ago, or collects them again.
+     */
+    public Map<String, Object> getSampled(String name, AttributeSource source) {
+        return get(name, source, true);
+    }
+
+    /**
+     * Drops sampled attributes. Static attributes are kept.
+     */
+    public void clearSampled() {
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                synchronized (entry) {
+                    if (entry.sampled) {
+                        entry.attributes = null;
+                    }
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> get(String name, AttributeSource source, boolean sampled) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(name);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(name, entry);
+            }
+        }
+
+        // providers are collected in parallel - only collection of the same provider is serialized
+        synchronized (entry) {
+            long now = SystemClock.elapsedRealtime();
+            if (entry.attributes == null || (sampled && now - entry.timestamp >= ttl)) {
+                entry.attributes = Collections.unmodifiableMap(new HashMap<>(source.collect()));
+                entry.timestamp = now;
+                entry.sampled = sampled;
+            }
+            return entry.attributes;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package backtraceio.library.attributes;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects attributes of multiple providers in parallel and merges them into one map.
+ * Threads are created on demand and stop when they're idle, so the executor doesn't
+ * hold any threads between reports.
+ */
+public class AttributeCollector {
+    private static final transient String LOG_TAG = AttributeCollector.class.getSimpleName();
+
+    public static final int THREADS = 3;
+    public static final long DEFAULT_TIMEOUT = 1000;
+
+    /**
+     * Providers slower than this are logged.
+     */
+    private static final long SLOW_PROVIDER_TIME = 50;
+    private static final long KEEP_ALIVE_TIME = 30;
+
+    private static final AttributeCollector instance = new AttributeCollector();
+
+    public static class Result {
+        public final Map<String, Object> attributes = new HashMap<>();
+
+        /**
+         * Collection time of every provider in milliseconds. -1 if the provider failed or timed out.
+         */
+        public final Map<String, Double> timings = new LinkedHashMap<>();
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    public AttributeCollector() {
+        final AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(THREADS, THREADS, KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "backtrace-attributes-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static AttributeCollector getInstance() {
+        return instance;
+    }
+
+    /**
+     * Collects attributes of all providers. Providers which don't finish within the timeout are skipped.
+     * @param providers attribute providers by name
+     * @param timeout maximum collection time in milliseconds
+     */
+    public Result collect(Map<String, AttributeProvider> providers, long timeout) {
+        List<String> names = new ArrayList<>(providers.keySet());
+        List<Callable<Timed>> tasks = new ArrayList<>(names.size());
+        for (String name : names) {
+            final AttributeProvider provider = providers.get(name);
+            tasks.add(new Callable<Timed>() {
+                @Override
+                public Timed call() {
+                    long start = System.nanoTime();
+                    Map<String, Object> attributes = provider.getAttributes();
+                    return new Timed(attributes, (System.nanoTime() - start) / 1000000.0);
+                }
+            });
+        }
+
+        Result result = new Result();
+        List<Future<Timed>> futures;
+        try {
+            futures = executor.invokeAll(tasks, timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result;
+        }
+
+        for (int index = 0; index < futures.size(); index++) {
+            String name = names.get(index);
+            try {
+                Timed timed = futures.get(index).get();
+                result.attributes.putAll(timed.attributes);
+                result.timings.put(name, timed.time);
+                if (timed.time > SLOW_PROVIDER_TIME) {
+                    Log.d(LOG_TAG, "Collecting " + name + " attributes took " + timed.time + " ms");
+                }
+            } catch (CancellationException e) {
+                Log.d(LOG_TAG, "Collecting " + name + " attributes timed out");
+                result.timings.put(name, -1.0);
+            } catch (ExecutionException e) {
+                Log.d(LOG_TAG, "Cannot collect " + name + " attributes. Reason: " + e.getCause());
+                result.timings.put(name, -1.0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static class Timed {
+        private final Map<String, Object> attributes;
+        private final double time;
+
+        private Timed(Map<String, Object> attributes, double time) {
+            this.attributes = attributes;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package backtraceio.library.attributes;
+
+import java.util.Map;
+
+/**
+ * Native attribute provider which can be collected together with other providers.
+ */
+public interface AttributeProvider {
+    /**
+     * Returns attributes of the provider, from the cache if they're still valid.
+     */
+    Map<String, Object> getAttributes();
+}
@@ -0,0 +1,10 @@
+package backtraceio.library.attributes;
+
+import java.util.Map;
+
+/**
+ * Collects attributes of one native attribute provider.
+ */
+public interface AttributeSource {
+    Map<String, Object> collect();
+}
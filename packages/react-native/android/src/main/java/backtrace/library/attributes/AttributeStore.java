@@ -0,0 +1,78 @@
+package backtraceio.library.attributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attributes passed to the native crash handler. Every update increments the version of the store.
+ * Callers send only attributes changed since the version they know, and only attributes with
+ * a different value are forwarded to the native layer.
+ */
+public class AttributeStore {
+    /**
+     * Version used by callers which don't know the state of the store. Updates based on it
+     * are always accepted, so a full attribute set can be sent to resynchronize the caller.
+     */
+    public static final long UNKNOWN_VERSION = -1;
+
+    public interface Sink {
+        void addAttributes(String[] keys, String[] values);
+    }
+
+    private final Map<String, String> attributes = new HashMap<>();
+    private final Sink sink;
+    private long version = 0;
+
+    public AttributeStore(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Replaces stored attributes with attributes already passed to the native layer.
+     */
+    public synchronized long reset(Map<String, ?> initialAttributes) {
+        attributes.clear();
+        for (Map.Entry<String, ?> attribute : initialAttributes.entrySet()) {
+            attributes.put(attribute.getKey(), toString(attribute.getValue()));
+        }
+        return ++version;
+    }
+
+    /**
+     * Applies changed attributes and forwards attributes with a different value to the native layer.
+     * @param changes changed attributes
+     * @param baseVersion version the changes were computed from
+     * @return the new version of the store, or UNKNOWN_VERSION if the base version is outdated
+     */
+    public synchronized long update(Map<String, ?> changes, long baseVersion) {
+        if (baseVersion != UNKNOWN_VERSION && baseVersion != version) {
+            return UNKNOWN_VERSION;
+        }
+
+        List<String> keys = new ArrayList<>(changes.size());
+        List<String> values = new ArrayList<>(changes.size());
+        for (Map.Entry<String, ?> change : changes.entrySet()) {
+            String value = toString(change.getValue());
+            String previous = attributes.put(change.getKey(), value);
+            if (!value.equals(previous)) {
+                keys.add(change.getKey());
+                values.add(value);
+            }
+        }
+
+        if (!keys.isEmpty()) {
+            sink.addAttributes(keys.toArray(new String[0]), values.toArray(new String[0]));
+        }
+        return ++version;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    private static String toString(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package backtraceio.library.attributes;
+
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Map;
+
+public class Attributes {
+    /**
+     * Copies attributes to the map passed to JavaScript. Numbers and booleans keep their types.
+     */
+    public static void putAll(WritableMap map, Map<String, Object> attributes) {
+        for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            Object value = attribute.getValue();
+            if (value instanceof Integer) {
+                map.putInt(attribute.getKey(), (Integer) value);
+            } else if (value instanceof Number) {
+                map.putDouble(attribute.getKey(), ((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                map.putBoolean(attribute.getKey(), (Boolean) value);
+            } else {
+                map.putString(attribute.getKey(), value == null ? null : value.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package backtraceio.library.attributes;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import backtrace.library.AttributeReader;
+import backtraceio.library.streams.MappedRingBuffer;
+import backtraceio.library.streams.RingBufferExport;
+
+/**
+ * Samples process memory, CPU time and system memory on a background thread, so reports show
+ * how the values changed before the report was created.
+ * Procfs files are opened once and read again from the beginning on every sample. Samples are stored
+ * in a ring buffer of primitive columns, so sampling to memory doesn't allocate.
+ * <p>
+ * If a samples file is set, every sample is also appended to a memory-mapped ring buffer file as a JSON object.
+ * The file survives crashes of the process. Samples are encoded into a reused byte array, so writing them
+ * doesn't allocate either. Native crash reports get a JSON lines copy of the file, see {@link RingBufferExport}.
+ */
+public class ProcessSampler {
+    private static final transient String LOG_TAG = ProcessSampler.class.getSimpleName();
+
+    public static final int DEFAULT_CAPACITY = 60;
+
+    /**
+     * Space reserved in the samples file for one sample, in bytes. A sample record takes about 230 bytes.
+     */
+    static final int FILE_RECORD_SIZE = 256;
+
+    /**
+     * Suffix of the plain text copy of the samples file.
+     */
+    static final String EXPORT_SUFFIX = ".jsonl";
+
+    /**
+     * Longest decimal representation of a long value.
+     */
+    private static final int MAX_NUMBER_LENGTH = 20;
+
+    private static final byte[] RECORD_START = "{\"timestamp\":".getBytes(StandardCharsets.UTF_8);
+
+    private static final String STATUS_PATH = "/proc/self/status";
+    private static final String MEMORY_PATH = "/proc/meminfo";
+    private static final String STAT_PATH = "/proc/self/stat";
+
+    private static final int[] STAT_FIELDS = new int[]{StatReader.UTIME, StatReader.STIME};
+
+    /**
+     * Names of values read from /proc/self/status and /proc/meminfo, by file key.
+     */
+    private static final Map<String, String> STATUS_MAPPING = new LinkedHashMap<>();
+    private static final Map<String, String> MEMORY_MAPPING = new LinkedHashMap<>();
+
+    static {
+        STATUS_MAPPING.put("VmRSS", "process.memory.rss");
+        STATUS_MAPPING.put("VmSwap", "process.memory.swap");
+        STATUS_MAPPING.put("Threads", "process.thread.count");
+        MEMORY_MAPPING.put("MemFree", "system.memory.free");
+        MEMORY_MAPPING.put("MemAvailable", "system.memory.available");
+    }
+
+    private static final String[] STAT_COLUMNS = new String[]{"process.cpu.user", "process.cpu.system"};
+
+    private static final ProcessSampler instance = new ProcessSampler();
+
+    private final String[] columns;
+
+    /**
+     * Encoded {@code ,"<column>":} of every column.
+     */
+    private final byte[][] columnPrefixes;
+    private final int maxRecordSize;
+
+    private SampleBuffer buffer;
+    private MappedRingBuffer file;
+    private RingBufferExport export;
+    private Thread thread;
+    private long interval;
+
+    public ProcessSampler() {
+        columns = new String[STATUS_MAPPING.size() + MEMORY_MAPPING.size() + STAT_COLUMNS.length];
+        int index = 0;
+        for (String name : STATUS_MAPPING.values()) {
+            columns[index++] = name;
+        }
+        for (String name : MEMORY_MAPPING.values()) {
+            columns[index++] = name;
+        }
+        for (String name : STAT_COLUMNS) {
+            columns[index++] = name;
+        }
+
+        columnPrefixes = new byte[columns.length][];
+        int recordSize = RECORD_START.length + MAX_NUMBER_LENGTH + 1;
+        for (index = 0; index < columns.length; index++) {
+            columnPrefixes[index] = (",\"" + columns[index] + "\":").getBytes(StandardCharsets.UTF_8);
+            recordSize += columnPrefixes[index].length + MAX_NUMBER_LENGTH;
+        }
+        maxRecordSize = recordSize;
+    }
+
+    public static ProcessSampler getInstance() {
+        return instance;
+    }
+
+    /**
+     * Names of sample values. Memory values are in kB, CPU times in milliseconds.
+     */
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Starts sampling or applies new settings to the running sampler.
+     * Stored samples are kept unless the capacity changes.
+     * @param interval time between samples in milliseconds
+     * @param capacity number of stored samples
+     * @param filePath path to the samples file, or null to keep samples only in memory.
+     *                 Samples of previous sessions stored in the file are removed.
+     */
+    public synchronized void start(long interval, int capacity, @Nullable String filePath) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Sampling interval must be greater than 0");
+        }
+        boolean resize = buffer == null || buffer.getCapacity() != capacity;
+        boolean reopen = filePath == null
+                ? file != null
+                : file == null || !filePath.equals(file.getPath()) || resize;
+        if (thread != null && this.interval == interval && !resize && !reopen) {
+            return;
+        }
+
+        // the running sampler must not write to buffers replaced below
+        stop();
+        if (resize) {
+            buffer = new SampleBuffer(columns.length, capacity);
+        }
+        if (reopen) {
+            file = filePath == null ? null : openFile(filePath, capacity);
+            export = file == null ? null : new RingBufferExport(file, filePath + EXPORT_SUFFIX, capacity);
+            if (export != null) {
+                // replace the copy left by the previous session
+                export.export();
+            }
+        }
+        this.interval = interval;
+        thread = new Thread(new Sampler(interval), "backtrace-sampler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        thread = null;
+    }
+
+    /**
+     * Path to the JSON lines copy of the samples file attached to native crash reports,
+     * or null if samples are not stored in a file.
+     */
+    @Nullable
+    public synchronized String getExportPath() {
+        return export == null ? null : export.getPath();
+    }
+
+    /**
+     * Returns stored samples from the oldest to the newest. Every row starts with the sample time
+     * in milliseconds since epoch, followed by values in the order of {@link #getColumns()}.
+     */
+    public synchronized long[][] getSamples() {
+        return buffer == null ? new long[0][] : buffer.snapshot();
+    }
+
+    /**
+     * Stores current values in the buffer and the samples file. Readers and value arrays are owned
+     * by the sampler thread, so a sampler which is still stopping doesn't share them with a new one.
+     * Samples of a stopped sampler are dropped.
+     */
+    private void add(long[] sample, byte[] record) {
+        SampleBuffer target;
+        MappedRingBuffer targetFile;
+        RingBufferExport targetExport;
+        synchronized (this) {
+            if (thread != Thread.currentThread()) {
+                return;
+            }
+            target = buffer;
+            targetFile = file;
+            targetExport = export;
+        }
+        long timestamp = System.currentTimeMillis();
+        target.add(timestamp, sample);
+        if (targetFile != null) {
+            targetFile.append(record, 0, toRecord(record, timestamp, sample));
+            targetExport.schedule();
+        }
+    }
+
+    /**
+     * Size of the array passed to {@link #toRecord}.
+     */
+    int getMaxRecordSize() {
+        return maxRecordSize;
+    }
+
+    /**
+     * Encodes the sample as a JSON object with the sample time and named values.
+     * @param record array of at least {@link #getMaxRecordSize()} bytes
+     * @return length of the record
+     */
+    int toRecord(byte[] record, long timestamp, long[] sample) {
+        int position = put(record, 0, RECORD_START);
+        position = putNumber(record, position, timestamp);
+        for (int index = 0; index < columns.length; index++) {
+            position = put(record, position, columnPrefixes[index]);
+            position = putNumber(record, position, sample[index]);
+        }
+        record[position++] = '}';
+        return position;
+    }
+
+    private static int put(byte[] target, int position, byte[] value) {
+        System.arraycopy(value, 0, target, position, value.length);
+        return position + value.length;
+    }
+
+    /**
+     * Writes decimal digits of the value. Digits are computed from the negated value,
+     * so {@link Long#MIN_VALUE} doesn't overflow.
+     */
+    private static int putNumber(byte[] target, int position, long value) {
+        long negative = value;
+        if (value < 0) {
+            target[position++] = '-';
+        } else {
+            negative = -value;
+        }
+
+        int length = 1;
+        for (long rest = negative; rest <= -10; rest /= 10) {
+            length++;
+        }
+        int end = position + length;
+        for (int index = end - 1; index >= position; index--) {
+            target[index] = (byte) ('0' - negative % 10);
+            negative /= 10;
+        }
+        return end;
+    }
+
+    private class Sampler implements Runnable {
+        private final long interval;
+
+        private final AttributeReader statusReader = new AttributeReader(STATUS_MAPPING);
+        private final AttributeReader memoryReader = new AttributeReader(MEMORY_MAPPING);
+        private final StatReader statReader = new StatReader();
+
+        private final long[] statusValues = new long[STATUS_MAPPING.size()];
+        private final long[] memoryValues = new long[MEMORY_MAPPING.size()];
+        private final long[] statValues = new long[STAT_FIELDS.length];
+        private final long[] sample = new long[columns.length];
+        private final byte[] record = new byte[maxRecordSize];
+
+        private Sampler(long interval) {
+            this.interval = interval;
+        }
+
+        @Override
+        public void run() {
+            RandomAccessFile status = open(STATUS_PATH);
+            RandomAccessFile memory = open(MEMORY_PATH);
+            RandomAccessFile stat = open(STAT_PATH);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    sample(status, memory, stat);
+                    Thread.sleep(interval);
+                }
+            } catch (InterruptedException e) {
+                // sampler stopped
+            } finally {
+                close(status);
+                close(memory);
+                close(stat);
+            }
+        }
+
+        private void sample(RandomAccessFile status, RandomAccessFile memory, RandomAccessFile stat) {
+            read(statusReader, status, statusValues);
+            read(memoryReader, memory, memoryValues);
+            if (stat == null || !statReader.read(stat, STAT_FIELDS, statValues)) {
+                Arrays.fill(statValues, -1);
+            }
+            for (int index = 0; index < statValues.length; index++) {
+                statValues[index] = StatReader.ticksToMillis(statValues[index]);
+            }
+
+            System.arraycopy(statusValues, 0, sample, 0, statusValues.length);
+            System.arraycopy(memoryValues, 0, sample, statusValues.length, memoryValues.length);
+            System.arraycopy(statValues, 0, sample, statusValues.length + memoryValues.length, statValues.length);
+            add(sample, record);
+        }
+    }
+
+    private static void read(AttributeReader reader, RandomAccessFile file, long[] values) {
+        if (file == null) {
+            Arrays.fill(values, -1);
+            return;
+        }
+        reader.readNumbers(file, values);
+    }
+
+    private static MappedRingBuffer openFile(String path, int capacity) {
+        try {
+            MappedRingBuffer result = new MappedRingBuffer(path, capacity * FILE_RECORD_SIZE);
+            result.clear();
+            return result;
+        } catch (IOException e) {
+            Log.d(LOG_TAG, "Cannot open the samples file " + path + ". Reason: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static RandomAccessFile open(String path) {
+        try {
+            return new RandomAccessFile(path, "r");
+        } catch (IOException e) {
+            Log.d(LOG_TAG, "Cannot open " + path + ". Reason: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void close(RandomAccessFile file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            Log.d(LOG_TAG, "Cannot close process file. Reason: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package backtraceio.library.attributes;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads CPU time of the process, the number of open file descriptors and the threads which used
+ * the most CPU time since the previous read. Thread statistics are read one file at a time into a reusable buffer,
+ * and the scan stops after {@link #MAX_THREADS} threads or {@link #SCAN_TIMEOUT} milliseconds.
+ * <p>
+ * CPU times of threads are kept until the next read, so threads are ranked by CPU time used between reads.
+ * The first read ranks threads by their total CPU time.
+ */
+public class ProcessStatisticsReader {
+    private static final transient String LOG_TAG = ProcessStatisticsReader.class.getSimpleName();
+
+    /**
+     * Number of threads reported in attributes.
+     */
+    public static final int TOP_THREADS = 5;
+
+    public static final int MAX_THREADS = 1024;
+    public static final long SCAN_TIMEOUT = 20;
+
+    private static final int[] CPU_FIELDS = new int[]{StatReader.UTIME, StatReader.STIME};
+
+    private final StatReader statReader = new StatReader();
+    private final long[] cpu = new long[CPU_FIELDS.length];
+
+    /**
+     * Total CPU time of every thread from the previous and the current read, by thread id.
+     * Maps are swapped after every read.
+     */
+    private Map<String, Long> previousTimes = new HashMap<>();
+    private Map<String, Long> currentTimes = new HashMap<>();
+    private boolean hasPreviousTimes = false;
+    private long previousReadTime = 0;
+
+    /**
+     * Threads with the highest CPU time since the previous read, from the highest.
+     * Only the first topCount entries are valid.
+     */
+    private final long[] topTimes = new long[TOP_THREADS];
+    private final long[] topTotals = new long[TOP_THREADS];
+    private final String[] topIds = new String[TOP_THREADS];
+    private final String[] topNames = new String[TOP_THREADS];
+    private int topCount = 0;
+
+    public synchronized Map<String, Object> read(int processId) {
+        Map<String, Object> attributes = new HashMap<>();
+        String processDirectory = "/proc/" + processId;
+
+        if (readCpu(processDirectory + "/stat")) {
+            attributes.put("process.cpu.user", StatReader.ticksToMillis(cpu[0]));
+            attributes.put("process.cpu.system", StatReader.ticksToMillis(cpu[1]));
+        }
+
+        String[] descriptors = new File(processDirectory + "/fd").list();
+        if (descriptors != null) {
+            attributes.put("descriptor.count", descriptors.length);
+        }
+
+        readThreads(processDirectory + "/task", attributes);
+        return attributes;
+    }
+
+    private void readThreads(String taskDirectory, Map<String, Object> attributes) {
+        String[] threads = new File(taskDirectory).list();
+        if (threads == null) {
+            return;
+        }
+
+        topCount = 0;
+        currentTimes.clear();
+        long readTime = SystemClock.elapsedRealtime();
+        long deadline = System.nanoTime() + SCAN_TIMEOUT * 1000000;
+        int scanned = 0;
+        for (String threadId : threads) {
+            if (scanned == MAX_THREADS || System.nanoTime() - deadline > 0) {
+                break;
+            }
+            scanned++;
+            if (!readCpu(taskDirectory + "/" + threadId + "/stat")) {
+                continue;
+            }
+            long total = Math.max(0, cpu[0]) + Math.max(0, cpu[1]);
+            currentTimes.put(threadId, total);
+
+            // threads started after the previous read used all of their CPU time since then
+            Long previous = hasPreviousTimes ? previousTimes.get(threadId) : null;
+            long time = previous == null ? total : Math.max(0, total - previous);
+            if (topCount == TOP_THREADS && time <= topTimes[TOP_THREADS - 1]) {
+                continue;
+            }
+            addTopThread(threadId, statReader.getName(), time, total);
+        }
+        // threads skipped by an incomplete scan keep their previous times, so they aren't treated as new next time
+        for (int index = scanned; index < threads.length; index++) {
+            Long previous = previousTimes.get(threads[index]);
+            if (previous != null) {
+                currentTimes.put(threads[index], previous);
+            }
+        }
+
+        attributes.put("process.thread.scanned", scanned);
+        attributes.put("process.thread.scan.complete", scanned == threads.length);
+        attributes.put("process.thread.top.interval", hasPreviousTimes ? readTime - previousReadTime : -1);
+        for (int index = 0; index < topCount; index++) {
+            String prefix = "process.thread.top." + (index + 1);
+            attributes.put(prefix + ".id", topIds[index]);
+            attributes.put(prefix + ".name", topNames[index]);
+            attributes.put(prefix + ".cpu", StatReader.ticksToMillis(topTotals[index]));
+            attributes.put(prefix + ".cpu.delta", StatReader.ticksToMillis(topTimes[index]));
+        }
+
+        Map<String, Long> times = previousTimes;
+        previousTimes = currentTimes;
+        currentTimes = times;
+        hasPreviousTimes = true;
+        previousReadTime = readTime;
+    }
+
+    /**
+     * Inserts the thread into the sorted top list. The thread with the lowest time drops out of a full list.
+     * @param time CPU time used since the previous read, used for ranking
+     * @param total total CPU time of the thread
+     */
+    private void addTopThread(String threadId, String name, long time, long total) {
+        int index = topCount < TOP_THREADS ? topCount++ : TOP_THREADS - 1;
+        while (index > 0 && topTimes[index - 1] < time) {
+            topTimes[index] = topTimes[index - 1];
+            topTotals[index] = topTotals[index - 1];
+            topIds[index] = topIds[index - 1];
+            topNames[index] = topNames[index - 1];
+            index--;
+        }
+        topTimes[index] = time;
+        topTotals[index] = total;
+        topIds[index] = threadId;
+        topNames[index] = name;
+    }
+
+    private boolean readCpu(String path) {
+        RandomAccessFile file;
+        try {
+            file = new RandomAccessFile(path, "r");
+        } catch (IOException e) {
+            // threads can exit while the directory is scanned
+            return false;
+        }
+        try {
+            return statReader.read(file, CPU_FIELDS, cpu);
+        } finally {
+            try {
+                file.close();
+            } catch (IOException e) {
+                Log.d(LOG_TAG, "Cannot close " + path + ". Reason: " + e.getMessage());
+            }
+        }
+    }
+}
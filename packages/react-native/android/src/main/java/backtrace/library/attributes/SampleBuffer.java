@@ -0,0 +1,70 @@
+package backtraceio.library.attributes;
+
+/**
+ * Fixed-size ring buffer of numeric samples. Every metric is stored in its own primitive column,
+ * so adding a sample only copies numbers. When the buffer is full, the oldest sample is overwritten.
+ */
+public class SampleBuffer {
+    private final long[] timestamps;
+    private final long[][] columns;
+    private int next = 0;
+    private int size = 0;
+
+    /**
+     * @param columnCount number of values in every sample
+     * @param capacity maximum number of stored samples
+     */
+    public SampleBuffer(int columnCount, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Sample buffer capacity must be greater than 0");
+        }
+        this.timestamps = new long[capacity];
+        this.columns = new long[columnCount][capacity];
+    }
+
+    public int getCapacity() {
+        return timestamps.length;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Copies the sample into the buffer.
+     * @param timestamp sample time in milliseconds since epoch
+     * @param values sample values, in the column order
+     */
+    public synchronized void add(long timestamp, long[] values) {
+        timestamps[next] = timestamp;
+        for (int column = 0; column < columns.length; column++) {
+            columns[column][next] = values[column];
+        }
+        next = (next + 1) % timestamps.length;
+        if (size < timestamps.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Returns stored samples from the oldest to the newest.
+     * Every row starts with the timestamp, followed by values in the column order.
+     */
+    public synchronized long[][] snapshot() {
+        long[][] rows = new long[size][columns.length + 1];
+        int slot = (next - size + timestamps.length) % timestamps.length;
+        for (int row = 0; row < size; row++) {
+            rows[row][0] = timestamps[slot];
+            for (int column = 0; column < columns.length; column++) {
+                rows[row][column + 1] = columns[column][slot];
+            }
+            slot = (slot + 1) % timestamps.length;
+        }
+        return rows;
+    }
+
+    public synchronized void clear() {
+        next = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,164 @@
+package backtraceio.library.attributes;
+
+import android.os.Build;
+import android.system.Os;
+import android.system.OsConstants;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import backtrace.library.AttributeReader;
+
+/**
+ * Reads numeric fields of /proc/[pid]/stat and /proc/[pid]/task/[tid]/stat files.
+ * Fields are numbered as in proc(5) - field 1 is the process id, field 2 the command name.
+ * The file is parsed in a reusable byte buffer.
+ */
+public class StatReader {
+    private static final transient String LOG_TAG = StatReader.class.getSimpleName();
+
+    /**
+     * CPU time spent in user mode, in clock ticks.
+     */
+    public static final int UTIME = 14;
+
+    /**
+     * CPU time spent in kernel mode, in clock ticks.
+     */
+    public static final int STIME = 15;
+
+    public static final int NUM_THREADS = 20;
+
+    /**
+     * Resident set size, in pages.
+     */
+    public static final int RSS = 24;
+
+    /**
+     * Number of the first field after the command name.
+     */
+    private static final int FIRST_FIELD_AFTER_NAME = 3;
+
+    /**
+     * Clock ticks per second. Android kernels use 100 Hz, which is also the fallback on old systems.
+     */
+    private static final long CLOCK_TICKS = getClockTicks();
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private byte[] buffer = new byte[512];
+    private int nameStart = 0;
+    private int nameEnd = 0;
+
+    /**
+     * Reads fields from the beginning of the opened file. Values are stored in the order of fields.
+     * Missing, negative and non-numeric fields are set to -1.
+     * @return false if the file cannot be read
+     */
+    public synchronized boolean read(RandomAccessFile file, int[] fields, long[] values) {
+        Arrays.fill(values, -1);
+        int length = readFile(file);
+        if (length < 0) {
+            return false;
+        }
+
+        // the command name can contain spaces and parentheses, so fields are counted from the last ')'
+        int position = lastIndexOf(buffer, (byte) ')', length);
+        if (position < 0) {
+            return false;
+        }
+        nameStart = indexOf(buffer, (byte) '(', position) + 1;
+        nameEnd = position;
+        position++;
+
+        int field = FIRST_FIELD_AFTER_NAME;
+        int remaining = fields.length;
+        while (position < length && remaining > 0) {
+            while (position < length && buffer[position] == ' ') {
+                position++;
+            }
+            int end = position;
+            while (end < length && buffer[end] != ' ' && buffer[end] != '\n') {
+                end++;
+            }
+            if (end == position) {
+                break;
+            }
+
+            for (int index = 0; index < fields.length; index++) {
+                if (fields[index] == field) {
+                    values[index] = AttributeReader.parseLong(buffer, position, end);
+                    remaining--;
+                }
+            }
+            field++;
+            position = end;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the command name of the last read file - the thread name for task files.
+     */
+    public synchronized String getName() {
+        return new String(buffer, nameStart, nameEnd - nameStart, UTF8);
+    }
+
+    /**
+     * Converts CPU time in clock ticks to milliseconds.
+     */
+    public static long ticksToMillis(long ticks) {
+        return ticks < 0 ? -1 : ticks * 1000 / CLOCK_TICKS;
+    }
+
+    private int readFile(RandomAccessFile file) {
+        try {
+            file.seek(0);
+            int length = 0;
+            while (true) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = file.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    return length;
+                }
+                length += read;
+            }
+        } catch (IOException e) {
+            Log.d(LOG_TAG, "Cannot read process statistics. Reason: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static long getClockTicks() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            long ticks = Os.sysconf(OsConstants._SC_CLK_TCK);
+            if (ticks > 0) {
+                return ticks;
+            }
+        }
+        return 100;
+    }
+
+    private static int indexOf(byte[] buffer, byte value, int end) {
+        for (int index = 0; index < end; index++) {
+            if (buffer[index] == value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] buffer, byte value, int end) {
+        for (int index = end - 1; index >= 0; index--) {
+            if (buffer[index] == value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,32 @@
+package backtraceio.library.database;
+
+import java.util.List;
+
+/**
+ * Stored report summary kept in the report index.
+ */
+public class ReportIndexEntry {
+    public final String id;
+    /**
+     * Report creation time in milliseconds since the epoch.
+     */
+    public final long timestamp;
+    /**
+     * Size of the stored report in bytes.
+     */
+    public final long size;
+    public final List<String> attachments;
+    public final int attempts;
+
+    public ReportIndexEntry(String id, long timestamp, long size, List<String> attachments, int attempts) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.size = size;
+        this.attachments = attachments;
+        this.attempts = attempts;
+    }
+
+    public ReportIndexEntry withAttempts(int attempts) {
+        return new ReportIndexEntry(id, timestamp, size, attachments, attempts);
+    }
+}
@@ -0,0 +1,325 @@
+package backtraceio.library.database;
+
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of stored reports.
+ * <p>
+ * Every change is appended as one line: {@code <crc32> <operation>}. The CRC32 is written as 8 hex digits
+ * and covers the operation text. Operations are tab-separated fields:
+ * <ul>
+ *     <li>{@code P id timestamp size attempts attachment...} - adds or replaces the report</li>
+ *     <li>{@code A id attempts} - updates the number of send attempts</li>
+ *     <li>{@code R id} - removes the report</li>
+ * </ul>
+ * Lines with a wrong checksum, for example torn by a crash during the write, are skipped.
+ * When most of the journal is made of outdated lines, it's rewritten with only the current entries.
+ * <p>
+ * The journal isn't thread-safe. Callers are expected to run all operations on one path in order.
+ */
+public class ReportIndexJournal {
+    private static final transient String LOG_TAG = ReportIndexJournal.class.getSimpleName();
+
+    private static final char SEPARATOR = '\t';
+    private static final int MIN_COMPACTION_LINES = 64;
+
+    private static final String PUT = "P";
+    private static final String ATTEMPTS = "A";
+    private static final String REMOVE = "R";
+
+    private final File file;
+    private final LinkedHashMap<String, ReportIndexEntry> entries = new LinkedHashMap<>();
+    private boolean loaded = false;
+    private int lines = 0;
+    private int corruptLines = 0;
+    /**
+     * True if the last line of the journal was not finished.
+     */
+    private boolean tornLine = false;
+
+    public ReportIndexJournal(String path) {
+        this.file = new File(path);
+    }
+
+    public String getPath() {
+        return file.getPath();
+    }
+
+    /**
+     * Returns all reports in the index, in the order they were added.
+     */
+    public Collection<ReportIndexEntry> getEntries() throws IOException {
+        load();
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Number of lines skipped because of a wrong checksum or format during the last load.
+     */
+    public int getCorruptLines() {
+        return corruptLines;
+    }
+
+    public void put(ReportIndexEntry entry) throws IOException {
+        load();
+        List<String> fields = new ArrayList<>(5 + entry.attachments.size());
+        fields.add(PUT);
+        fields.add(entry.id);
+        fields.add(String.valueOf(entry.timestamp));
+        fields.add(String.valueOf(entry.size));
+        fields.add(String.valueOf(entry.attempts));
+        fields.addAll(entry.attachments);
+        append(fields);
+        entries.put(entry.id, entry);
+        compactIfNeeded();
+    }
+
+    /**
+     * Increments the number of send attempts of the report.
+     * @return new number of attempts, or -1 if the report is not in the index
+     */
+    public int incrementAttempts(String id) throws IOException {
+        load();
+        ReportIndexEntry entry = entries.get(id);
+        if (entry == null) {
+            return -1;
+        }
+
+        int attempts = entry.attempts + 1;
+        List<String> fields = new ArrayList<>(3);
+        fields.add(ATTEMPTS);
+        fields.add(id);
+        fields.add(String.valueOf(attempts));
+        append(fields);
+        entries.put(id, entry.withAttempts(attempts));
+        compactIfNeeded();
+        return attempts;
+    }
+
+    /**
+     * @return true if the report was in the index
+     */
+    public boolean remove(String id) throws IOException {
+        load();
+        if (!entries.containsKey(id)) {
+            return false;
+        }
+
+        List<String> fields = new ArrayList<>(2);
+        fields.add(REMOVE);
+        fields.add(id);
+        append(fields);
+        entries.remove(id);
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Rewrites the journal with only the current entries. The new journal replaces the old one atomically.
+     */
+    public void compact() throws IOException {
+        load();
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporaryFile, false)) {
+            StringBuilder content = new StringBuilder();
+            for (ReportIndexEntry entry : entries.values()) {
+                List<String> fields = new ArrayList<>(5 + entry.attachments.size());
+                fields.add(PUT);
+                fields.add(entry.id);
+                fields.add(String.valueOf(entry.timestamp));
+                fields.add(String.valueOf(entry.size));
+                fields.add(String.valueOf(entry.attempts));
+                fields.addAll(entry.attachments);
+                content.append(formatLine(fields));
+            }
+            output.write(content.toString().getBytes(StandardCharsets.UTF_8));
+            output.getFD().sync();
+        }
+
+        if (!temporaryFile.renameTo(file)) {
+            throw new IOException("Cannot replace the report index " + file.getPath());
+        }
+        lines = entries.size();
+        tornLine = false;
+    }
+
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (!apply(line)) {
+                    corruptLines++;
+                }
+            }
+        }
+
+        tornLine = !endsWithNewLine(file);
+        if (corruptLines > 0) {
+            Log.d(LOG_TAG, "Skipped " + corruptLines + " corrupt lines of the report index " + file.getPath());
+        }
+        compactIfNeeded();
+    }
+
+    private boolean apply(String line) {
+        int separator = line.indexOf(' ');
+        if (separator != 8) {
+            return false;
+        }
+
+        String operation = line.substring(separator + 1);
+        long checksum;
+        try {
+            checksum = Long.parseLong(line.substring(0, separator), 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (checksum != crc32(operation)) {
+            return false;
+        }
+
+        List<String> fields = split(operation);
+        try {
+            switch (fields.get(0)) {
+                case PUT:
+                    entries.remove(fields.get(1));
+                    entries.put(fields.get(1), new ReportIndexEntry(
+                            fields.get(1),
+                            Long.parseLong(fields.get(2)),
+                            Long.parseLong(fields.get(3)),
+                            new ArrayList<>(fields.subList(5, fields.size())),
+                            Integer.parseInt(fields.get(4))));
+                    return true;
+                case ATTEMPTS:
+                    ReportIndexEntry entry = entries.get(fields.get(1));
+                    if (entry != null) {
+                        entries.put(entry.id, entry.withAttempts(Integer.parseInt(fields.get(2))));
+                    }
+                    return true;
+                case REMOVE:
+                    entries.remove(fields.get(1));
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void append(List<String> fields) throws IOException {
+        String line = formatLine(fields);
+        if (tornLine) {
+            // finish the torn line, so it doesn't corrupt the appended one
+            line = '\n' + line;
+        }
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            output.write(line.getBytes(StandardCharsets.UTF_8));
+        }
+        tornLine = false;
+        lines++;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (lines > MIN_COMPACTION_LINES && lines > 2 * entries.size()) {
+            compact();
+        }
+    }
+
+    private static boolean endsWithNewLine(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            long length = input.length();
+            if (length == 0) {
+                return true;
+            }
+            input.seek(length - 1);
+            return input.read() == '\n';
+        }
+    }
+
+    private static String formatLine(List<String> fields) {
+        StringBuilder operation = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                operation.append(SEPARATOR);
+            }
+            escape(fields.get(i), operation);
+        }
+        String text = operation.toString();
+        return String.format(Locale.ROOT, "%08x", crc32(text)) + ' ' + text + '\n';
+    }
+
+    private static long crc32(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Escapes characters which separate fields and lines.
+     */
+    private static void escape(String value, StringBuilder output) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    output.append("\\\\");
+                    break;
+                case '\t':
+                    output.append("\\t");
+                    break;
+                case '\n':
+                    output.append("\\n");
+                    break;
+                case '\r':
+                    output.append("\\r");
+                    break;
+                default:
+                    output.append(c);
+            }
+        }
+    }
+
+    private static List<String> split(String operation) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < operation.length(); i++) {
+            char c = operation.charAt(i);
+            if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < operation.length()) {
+                char escaped = operation.charAt(++i);
+                field.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,92 @@
+package backtraceio.library.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresses files with {@link Deflater}.
+ */
+public class Compression {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+    public enum Format {
+        /**
+         * GZIP file (RFC 1952).
+         */
+        GZIP,
+        /**
+         * Deflate data with the zlib wrapper (RFC 1950), as used by the HTTP "deflate" encoding.
+         */
+        DEFLATE;
+
+        public static Format fromString(String value) {
+            if (value == null || value.equalsIgnoreCase("gzip")) {
+                return GZIP;
+            }
+            if (value.equalsIgnoreCase("deflate")) {
+                return DEFLATE;
+            }
+            throw new IllegalArgumentException("Unknown compression format: " + value);
+        }
+    }
+
+    /**
+     * Limits the level to the values accepted by {@link Deflater}.
+     */
+    public static int normalizeLevel(int level) {
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            return DEFAULT_LEVEL;
+        }
+        return level;
+    }
+
+    /**
+     * Compresses the source file into the destination file. The destination file is overwritten.
+     * @return size of the compressed file in bytes
+     */
+    public static long compressFile(String sourcePath, String destinationPath, Format format, int level)
+            throws IOException {
+        try (InputStream input = new FileInputStream(sourcePath);
+             OutputStream output = createOutputStream(new FileOutputStream(destinationPath, false), format, level)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return new File(destinationPath).length();
+    }
+
+    public static OutputStream createOutputStream(OutputStream out, Format format, int level) throws IOException {
+        if (format == Format.GZIP) {
+            return new GzipOutputStream(out, normalizeLevel(level));
+        }
+        return new ZlibOutputStream(out, normalizeLevel(level));
+    }
+
+    /**
+     * Deflater output stream which releases its deflater on close.
+     */
+    private static class ZlibOutputStream extends DeflaterOutputStream {
+        ZlibOutputStream(OutputStream out, int level) {
+            super(out, new Deflater(level), BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+}
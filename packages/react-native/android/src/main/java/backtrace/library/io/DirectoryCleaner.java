@@ -0,0 +1,206 @@
+package backtraceio.library.io;
+
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk removal of files. Only files directly in the directory which names match a glob are removed,
+ * together with their companion files - files with the same name and a different extension,
+ * like the crashpad {@code .meta} file of a {@code .dmp} report.
+ * Subdirectories and other files are never touched, so the cleaner can run on directories which
+ * hold bookkeeping files next to reports, like the crashpad database.
+ * <p>
+ * Results count companion files and their bytes. File limits apply to matching files only.
+ */
+public class DirectoryCleaner {
+    public static class Result {
+        public int deletedFiles = 0;
+        public long deletedBytes = 0;
+        public int remainingFiles = 0;
+        public long remainingBytes = 0;
+
+        public WritableMap toWritableMap() {
+            WritableMap result = new WritableNativeMap();
+            result.putInt("deletedFiles", deletedFiles);
+            result.putDouble("deletedBytes", deletedBytes);
+            result.putInt("remainingFiles", remainingFiles);
+            result.putDouble("remainingBytes", remainingBytes);
+            return result;
+        }
+    }
+
+    private static class Entry {
+        final File file;
+        final long fileSize;
+        final List<File> companions;
+        /**
+         * Size of the file and its companions.
+         */
+        final long size;
+        final long lastModified;
+
+        Entry(File file, List<File> companions) {
+            this.file = file;
+            this.fileSize = file.length();
+            this.companions = companions;
+            long totalSize = fileSize;
+            for (File companion : companions) {
+                totalSize += companion.length();
+            }
+            this.size = totalSize;
+            this.lastModified = file.lastModified();
+        }
+    }
+
+    /**
+     * Deletes the files. Files which don't exist are treated as deleted.
+     * @return number of paths which don't exist anymore
+     */
+    public static int unlinkMany(List<String> paths) {
+        int deleted = 0;
+        for (String path : paths) {
+            File file = new File(path);
+            if (file.delete() || !file.exists()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes matching files last modified more than maxAge milliseconds ago.
+     * @param glob file name pattern, for example "*.dmp"
+     */
+    public static Result deleteOlderThan(String directory, String glob, long maxAge) {
+        long threshold = System.currentTimeMillis() - maxAge;
+        Result result = new Result();
+        for (Entry entry : listFiles(directory, glob)) {
+            if (entry.lastModified < threshold) {
+                delete(entry, result);
+            } else {
+                keep(entry, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deletes the oldest matching files with their companions until they take at most maxBytes bytes
+     * and at most maxFiles files match.
+     * @param glob file name pattern, for example "*.dmp"
+     * @param maxBytes size limit. 0 - no limit
+     * @param maxFiles file limit. 0 - no limit
+     */
+    public static Result enforceQuota(String directory, String glob, long maxBytes, int maxFiles) {
+        List<Entry> entries = listFiles(directory, glob);
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry first, Entry second) {
+                return Long.compare(first.lastModified, second.lastModified);
+            }
+        });
+
+        long totalBytes = 0;
+        for (Entry entry : entries) {
+            totalBytes += entry.size;
+        }
+
+        Result result = new Result();
+        int remainingEntries = entries.size();
+        for (Entry entry : entries) {
+            boolean overSize = maxBytes > 0 && totalBytes - result.deletedBytes > maxBytes;
+            boolean overCount = maxFiles > 0 && remainingEntries > maxFiles;
+            if (!overSize && !overCount) {
+                keep(entry, result);
+            } else if (delete(entry, result)) {
+                remainingEntries--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deletes the file and its companions. Companions are deleted only if the file was deleted,
+     * so a kept report never loses its metadata.
+     * @return false if the file was not deleted
+     */
+    private static boolean delete(Entry entry, Result result) {
+        if (!entry.file.delete()) {
+            keep(entry, result);
+            return false;
+        }
+
+        result.deletedFiles++;
+        result.deletedBytes += entry.fileSize;
+        for (File companion : entry.companions) {
+            long size = companion.length();
+            if (companion.delete()) {
+                result.deletedFiles++;
+                result.deletedBytes += size;
+            } else {
+                result.remainingFiles++;
+                result.remainingBytes += size;
+            }
+        }
+        return true;
+    }
+
+    private static void keep(Entry entry, Result result) {
+        result.remainingFiles += 1 + entry.companions.size();
+        result.remainingBytes += entry.size;
+    }
+
+    private static List<Entry> listFiles(String directory, String glob) {
+        if (glob == null || glob.isEmpty()) {
+            throw new IllegalArgumentException("File name pattern is required");
+        }
+
+        List<Entry> result = new ArrayList<>();
+        File[] files = new File(directory).listFiles();
+        if (files == null) {
+            return result;
+        }
+
+        Glob matcher = Glob.compile(glob);
+        List<File> matching = new ArrayList<>();
+        Map<String, List<File>> others = new HashMap<>();
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+            if (matcher.matches(file.getName())) {
+                matching.add(file);
+                continue;
+            }
+            String baseName = getBaseName(file.getName());
+            List<File> sameName = others.get(baseName);
+            if (sameName == null) {
+                sameName = new ArrayList<>();
+                others.put(baseName, sameName);
+            }
+            sameName.add(file);
+        }
+
+        for (File file : matching) {
+            List<File> companions = others.get(getBaseName(file.getName()));
+            result.add(new Entry(file, companions == null ? Collections.<File>emptyList() : companions));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the file name without the last extension. Names without an extension have no companions.
+     */
+    private static String getBaseName(String name) {
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name + "/";
+    }
+}
@@ -0,0 +1,33 @@
+package backtraceio.library.io;
+
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+
+/**
+ * Name and stats of a directory entry.
+ */
+public class DirectoryEntry {
+    public final String name;
+    public final long size;
+    /**
+     * Last modification time in milliseconds since the epoch.
+     */
+    public final long lastModified;
+    public final boolean isDirectory;
+
+    public DirectoryEntry(String name, long size, long lastModified, boolean isDirectory) {
+        this.name = name;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.isDirectory = isDirectory;
+    }
+
+    public WritableMap toWritableMap() {
+        WritableMap result = new WritableNativeMap();
+        result.putString("name", name);
+        result.putDouble("size", size);
+        result.putDouble("mtime", lastModified);
+        result.putBoolean("isDirectory", isDirectory);
+        return result;
+    }
+}
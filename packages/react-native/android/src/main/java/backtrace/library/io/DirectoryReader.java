@@ -0,0 +1,80 @@
+package backtraceio.library.io;
+
+import android.os.Build;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lists directory entries together with their stats.
+ */
+public class DirectoryReader {
+    /**
+     * Returns entries of the directory which names match the glob, or all entries if the glob is empty.
+     * Returns an empty list if the directory doesn't exist or can't be read.
+     */
+    public static List<DirectoryEntry> readStats(String path, @Nullable String glob) throws IOException {
+        String filter = glob == null || glob.isEmpty() ? "*" : glob;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return readStatsWithDirectoryStream(path, filter);
+        }
+        return readStatsWithFileList(path, filter);
+    }
+
+    /**
+     * Lists the directory with a directory stream. The entries are filtered before they are stat-ed,
+     * and each matching entry is stat-ed once.
+     */
+    private static List<DirectoryEntry> readStatsWithDirectoryStream(String path, String glob) throws IOException {
+        List<DirectoryEntry> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(path), glob)) {
+            for (Path entry : stream) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // deleted while listing
+                    continue;
+                }
+                result.add(new DirectoryEntry(
+                        entry.getFileName().toString(),
+                        attributes.size(),
+                        attributes.lastModifiedTime().toMillis(),
+                        attributes.isDirectory()));
+            }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            return Collections.emptyList();
+        }
+        return result;
+    }
+
+    private static List<DirectoryEntry> readStatsWithFileList(String path, String glob) {
+        File[] files = new File(path).listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+
+        Glob matcher = Glob.compile(glob);
+        List<DirectoryEntry> result = new ArrayList<>(files.length);
+        for (File file : files) {
+            String name = file.getName();
+            if (!matcher.matches(name)) {
+                continue;
+            }
+            result.add(new DirectoryEntry(name, file.length(), file.lastModified(), file.isDirectory()));
+        }
+        return result;
+    }
+}
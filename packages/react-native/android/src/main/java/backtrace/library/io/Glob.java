@@ -0,0 +1,91 @@
+package backtraceio.library.io;
+
+import java.util.regex.Pattern;
+
+/**
+ * File name matcher using the glob syntax of {@code FileSystem.getPathMatcher}:
+ * {@code *} and {@code ?} wildcards, {@code [abc]} and {@code [a-z]} character classes with {@code !} negation,
+ * and {@code {a,b}} alternatives. Used where {@code java.nio.file} is not available.
+ */
+public class Glob {
+    private final Pattern pattern;
+
+    private Glob(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    public static Glob compile(String glob) {
+        return new Glob(Pattern.compile(toRegex(glob)));
+    }
+
+    public boolean matches(String name) {
+        return pattern.matcher(name).matches();
+    }
+
+    static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 8);
+        boolean inGroup = false;
+        boolean inClass = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                    regex.append(']');
+                } else if (c == '\\' || c == '[' || c == '&' || c == '^') {
+                    regex.append('\\').append(c);
+                } else {
+                    regex.append(c);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '*':
+                    regex.append("[^/]*");
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '[':
+                    inClass = true;
+                    regex.append('[');
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '!') {
+                        regex.append('^');
+                        i++;
+                    }
+                    break;
+                case '{':
+                    inGroup = true;
+                    regex.append("(?:");
+                    break;
+                case '}':
+                    if (inGroup) {
+                        inGroup = false;
+                        regex.append(')');
+                    } else {
+                        regex.append("\\}");
+                    }
+                    break;
+                case ',':
+                    regex.append(inGroup ? "|" : ",");
+                    break;
+                case '\\':
+                    if (i + 1 < glob.length()) {
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    }
+                    break;
+                default:
+                    if ("().+^$|".indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+        }
+
+        if (inClass || inGroup) {
+            throw new IllegalArgumentException("Unclosed group in glob: " + glob);
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package backtraceio.library.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIP output stream with a configurable compression level.
+ */
+public class GzipOutputStream extends GZIPOutputStream {
+    /**
+     * @param level compression level from 0 to 9, or -1 for the default level
+     */
+    public GzipOutputStream(OutputStream out, int level) throws IOException {
+        super(out, Compression.BUFFER_SIZE);
+        def.setLevel(level);
+    }
+
+    /**
+     * @param level compression level from 0 to 9, or -1 for the default level
+     * @param syncFlush if true, flush writes all data compressed so far. Requires API 19
+     */
+    public GzipOutputStream(OutputStream out, int level, boolean syncFlush) throws IOException {
+        super(out, Compression.BUFFER_SIZE, syncFlush);
+        def.setLevel(level);
+    }
+}
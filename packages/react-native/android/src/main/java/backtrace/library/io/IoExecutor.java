@@ -0,0 +1,240 @@
+package backtraceio.library.io;
+
+import android.util.Log;
+
+import com.facebook.react.bridge.Promise;
+
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs blocking file system operations away from the native modules thread.
+ * <p>
+ * Operations are spread over a bounded number of lanes. Each lane is a single thread, and every
+ * operation on the same path goes to the same lane, so operations on one path run in the order
+ * they were submitted, while operations on unrelated paths run in parallel. Operations on more than
+ * one path hold the lanes of all their paths.
+ */
+public class IoExecutor {
+    private static final transient String LOG_TAG = IoExecutor.class.getSimpleName();
+
+    public static final int DEFAULT_THREADS = 4;
+    public static final int MAX_THREADS = 16;
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    private static final IoExecutor _instance = new IoExecutor(DEFAULT_THREADS);
+
+    private volatile ThreadPoolExecutor[] _lanes;
+
+    private final AtomicInteger _queueDepth = new AtomicInteger();
+    private final AtomicInteger _maxQueueDepth = new AtomicInteger();
+    private final AtomicLong _completed = new AtomicLong();
+    private final AtomicLong _failed = new AtomicLong();
+    private final AtomicLong _totalWaitTime = new AtomicLong();
+    private final AtomicLong _totalRunTime = new AtomicLong();
+    private final AtomicLong _maxLatency = new AtomicLong();
+
+    public IoExecutor(int threads) {
+        _lanes = createLanes(threads);
+    }
+
+    /**
+     * Executor shared by all file system modules.
+     */
+    public static IoExecutor getInstance() {
+        return _instance;
+    }
+
+    /**
+     * Changes the number of lanes. Operations submitted after the change wait until all operations
+     * submitted before it are done, so the order of operations on the same path is kept.
+     */
+    public synchronized void configure(int threads) {
+        int size = normalize(threads);
+        if (size == _lanes.length) {
+            return;
+        }
+
+        final ThreadPoolExecutor[] previousLanes = _lanes;
+        for (ThreadPoolExecutor lane : previousLanes) {
+            lane.shutdown();
+        }
+
+        _lanes = createLanes(size);
+        for (ThreadPoolExecutor lane : _lanes) {
+            lane.execute(new Runnable() {
+                @Override
+                public void run() {
+                    awaitTermination(previousLanes);
+                }
+            });
+        }
+    }
+
+    public int getThreads() {
+        return _lanes.length;
+    }
+
+    /**
+     * Runs the operation after all operations previously submitted for the same path.
+     */
+    public synchronized void execute(String path, final Runnable operation) {
+        final long submitTime = System.nanoTime();
+        updateMax(_maxQueueDepth, _queueDepth.incrementAndGet());
+
+        _lanes[laneIndex(path, _lanes.length)].execute(new Runnable() {
+            @Override
+            public void run() {
+                measure(operation, submitTime);
+            }
+        });
+    }
+
+    private void measure(Runnable operation, long submitTime) {
+        _queueDepth.decrementAndGet();
+        long startTime = System.nanoTime();
+        try {
+            operation.run();
+        } catch (Throwable e) {
+            _failed.incrementAndGet();
+            Log.d(LOG_TAG, "I/O operation failed. Reason: " + e.getMessage());
+        } finally {
+            long endTime = System.nanoTime();
+            _completed.incrementAndGet();
+            _totalWaitTime.addAndGet(startTime - submitTime);
+            _totalRunTime.addAndGet(endTime - startTime);
+            updateMax(_maxLatency, endTime - submitTime);
+        }
+    }
+
+    /**
+     * Runs the operation after all operations previously submitted for any of the paths. Operations
+     * submitted later for any of the paths wait until this operation is done.
+     */
+    public synchronized void execute(String[] paths, final Runnable operation) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String path : paths) {
+            indexes.add(laneIndex(path, _lanes.length));
+        }
+        if (indexes.size() <= 1) {
+            execute(paths.length == 0 ? null : paths[0], operation);
+            return;
+        }
+
+        // Every other lane parks on a fence until the operation is done. Operations are submitted
+        // under the lock, so all lanes see fences in the same order and they can't deadlock.
+        final int owner = indexes.pollFirst();
+        final CountDownLatch fenced = new CountDownLatch(indexes.size());
+        final CountDownLatch done = new CountDownLatch(1);
+        for (int index : indexes) {
+            _lanes[index].execute(new Runnable() {
+                @Override
+                public void run() {
+                    fenced.countDown();
+                    await(done);
+                }
+            });
+        }
+
+        final long submitTime = System.nanoTime();
+        updateMax(_maxQueueDepth, _queueDepth.incrementAndGet());
+        _lanes[owner].execute(new Runnable() {
+            @Override
+            public void run() {
+                await(fenced);
+                try {
+                    measure(operation, submitTime);
+                } finally {
+                    done.countDown();
+                }
+            }
+        });
+    }
+
+    /**
+     * Rejects the promise of an operation and counts the operation as failed. Operations report
+     * errors through their promises, so exceptions escaping an operation are not the only failures.
+     */
+    public void reject(Promise promise, Throwable error) {
+        _failed.incrementAndGet();
+        promise.reject(error);
+    }
+
+    public IoMetrics getMetrics() {
+        return new IoMetrics(
+                _lanes.length,
+                _queueDepth.get(),
+                _maxQueueDepth.get(),
+                _completed.get(),
+                _failed.get(),
+                _totalWaitTime.get(),
+                _totalRunTime.get(),
+                _maxLatency.get());
+    }
+
+    static int laneIndex(String path, int lanes) {
+        int hash = path == null ? 0 : path.hashCode();
+        // spread the bits of similar paths, like HashMap does
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % lanes;
+    }
+
+    private static int normalize(int threads) {
+        return Math.min(MAX_THREADS, Math.max(1, threads));
+    }
+
+    private static ThreadPoolExecutor[] createLanes(int threads) {
+        ThreadPoolExecutor[] lanes = new ThreadPoolExecutor[normalize(threads)];
+        for (int i = 0; i < lanes.length; i++) {
+            final String name = "backtrace-io-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return lanes;
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor[] lanes) {
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    Log.d(LOG_TAG, "Previous I/O operations didn't finish in time");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        int current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package backtraceio.library.io;
+
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+
+/**
+ * Snapshot of I/O executor statistics. Times are in nanoseconds.
+ */
+public class IoMetrics {
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    public final int threads;
+    public final int queueDepth;
+    public final int maxQueueDepth;
+    public final long completed;
+    public final long failed;
+    public final long totalWaitTime;
+    public final long totalRunTime;
+    public final long maxLatency;
+
+    public IoMetrics(int threads, int queueDepth, int maxQueueDepth, long completed, long failed,
+                     long totalWaitTime, long totalRunTime, long maxLatency) {
+        this.threads = threads;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.completed = completed;
+        this.failed = failed;
+        this.totalWaitTime = totalWaitTime;
+        this.totalRunTime = totalRunTime;
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Converts the metrics to a JS object. Times are converted to milliseconds.
+     */
+    public WritableMap toWritableMap() {
+        WritableMap result = new WritableNativeMap();
+        result.putInt("threads", threads);
+        result.putInt("queueDepth", queueDepth);
+        result.putInt("maxQueueDepth", maxQueueDepth);
+        result.putDouble("completed", completed);
+        result.putDouble("failed", failed);
+        result.putDouble("averageWaitTime", average(totalWaitTime));
+        result.putDouble("averageRunTime", average(totalRunTime));
+        result.putDouble("maxLatency", maxLatency / NANOS_PER_MILLI);
+        return result;
+    }
+
+    private double average(long total) {
+        return completed == 0 ? 0 : total / NANOS_PER_MILLI / completed;
+    }
+}
@@ -0,0 +1,171 @@
+package backtraceio.library.memory;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import backtraceio.library.attributes.AttributeCache;
+
+/**
+ * Receives memory trim callbacks of the application and releases memory held by the SDK.
+ * Trim callbacks are recorded, so reports show the last memory pressure level, the time since it was reported
+ * and recent trims. The system doesn't report that memory pressure is over, so the age of the level tells
+ * whether it's still relevant.
+ * <p>
+ * Moving the application to the background (UI hidden) is recorded, but doesn't release anything.
+ */
+public class MemoryPressureMonitor implements ComponentCallbacks2 {
+    private static final transient String LOG_TAG = MemoryPressureMonitor.class.getSimpleName();
+
+    /**
+     * Number of trim callbacks kept in the history.
+     */
+    public static final int HISTORY_SIZE = 10;
+
+    /**
+     * Name of the pressure level reported by onLowMemory. Treated as the highest trim level.
+     */
+    public static final String LOW_MEMORY = "low_memory";
+
+    private static final MemoryPressureMonitor instance = new MemoryPressureMonitor();
+
+    public interface Listener {
+        /**
+         * Called on the main thread - listeners should only schedule the work.
+         * @param level trim level, see {@link ComponentCallbacks2}
+         * @param name name of the trim level
+         */
+        void onMemoryPressure(int level, String name);
+    }
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final long[] historyTimes = new long[HISTORY_SIZE];
+    private final String[] historyNames = new String[HISTORY_SIZE];
+    private int historyNext = 0;
+    private int trimCount = 0;
+    private int level = 0;
+    private String levelName = "none";
+    private long levelTime = -1;
+
+    private Context context;
+
+    public static MemoryPressureMonitor getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts receiving trim callbacks of the application. Subsequent calls are ignored.
+     */
+    public synchronized void register(Context context) {
+        if (this.context != null) {
+            return;
+        }
+        this.context = context.getApplicationContext();
+        this.context.registerComponentCallbacks(this);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        String name = getLevelName(level);
+        record(level, name);
+        if (level >= TRIM_MEMORY_RUNNING_LOW && level != TRIM_MEMORY_UI_HIDDEN) {
+            release(level, name);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        record(TRIM_MEMORY_COMPLETE, LOW_MEMORY);
+        release(TRIM_MEMORY_COMPLETE, LOW_MEMORY);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration configuration) {
+    }
+
+    /**
+     * Returns the last memory pressure level, the time since it was reported in milliseconds (-1 if it wasn't)
+     * and the trim history. The history contains "name@timestamp" entries with timestamps in milliseconds, from the oldest to the newest.
+     */
+    public synchronized Map<String, Object> getAttributes() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("system.memory.pressure", levelName);
+        attributes.put("system.memory.pressure.level", level);
+        attributes.put("system.memory.pressure.age", levelTime < 0 ? -1 : SystemClock.elapsedRealtime() - levelTime);
+        attributes.put("system.memory.trim.count", trimCount);
+
+        StringBuilder history = new StringBuilder();
+        int size = Math.min(trimCount, HISTORY_SIZE);
+        int index = (historyNext - size + HISTORY_SIZE) % HISTORY_SIZE;
+        for (int entry = 0; entry < size; entry++) {
+            if (entry > 0) {
+                history.append(',');
+            }
+            history.append(historyNames[index]).append('@').append(historyTimes[index]);
+            index = (index + 1) % HISTORY_SIZE;
+        }
+        attributes.put("system.memory.trim.history", history.toString());
+        return attributes;
+    }
+
+    private void record(int level, String name) {
+        synchronized (this) {
+            this.level = level;
+            this.levelName = name;
+            this.levelTime = SystemClock.elapsedRealtime();
+            this.trimCount++;
+            historyTimes[historyNext] = System.currentTimeMillis();
+            historyNames[historyNext] = name;
+            historyNext = (historyNext + 1) % HISTORY_SIZE;
+        }
+        // cached memory attributes contain the previous pressure level
+        AttributeCache.getInstance().clearSampled();
+    }
+
+    private void release(int level, String name) {
+        Log.d(LOG_TAG, "Releasing memory. Memory pressure level: " + name);
+        for (Listener listener : listeners) {
+            try {
+                listener.onMemoryPressure(level, name);
+            } catch (Exception e) {
+                Log.d(LOG_TAG, "Cannot release memory. Reason: " + e.getMessage());
+            }
+        }
+    }
+
+    static String getLevelName(int level) {
+        switch (level) {
+            case TRIM_MEMORY_RUNNING_MODERATE:
+                return "running_moderate";
+            case TRIM_MEMORY_RUNNING_LOW:
+                return "running_low";
+            case TRIM_MEMORY_RUNNING_CRITICAL:
+                return "running_critical";
+            case TRIM_MEMORY_UI_HIDDEN:
+                return "ui_hidden";
+            case TRIM_MEMORY_BACKGROUND:
+                return "background";
+            case TRIM_MEMORY_MODERATE:
+                return "moderate";
+            case TRIM_MEMORY_COMPLETE:
+                return "complete";
+            default:
+                return String.valueOf(level);
+        }
+    }
+}
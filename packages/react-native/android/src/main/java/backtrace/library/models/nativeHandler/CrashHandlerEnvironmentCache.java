@@ -0,0 +1,90 @@
+package backtraceio.library.models.nativeHandler;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores environment variables of the crash handler in app-private preferences.
+ * The stored value is valid until the application or the operating system is updated,
+ * so later launches skip copying the process environment and probing the native library path.
+ */
+public class CrashHandlerEnvironmentCache {
+    private static final String LOG_TAG = CrashHandlerEnvironmentCache.class.getSimpleName();
+
+    private static final String PREFERENCES_NAME = "backtrace-crash-handler";
+    private static final String VERSION_KEY = "version";
+    private static final String ENVIRONMENT_KEY = "environment";
+
+    private final SharedPreferences preferences;
+    private final String version;
+
+    public CrashHandlerEnvironmentCache(Context context) {
+        this.preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        this.version = getVersion(context);
+    }
+
+    /**
+     * Returns stored environment variables or null, if they were stored by a different application build.
+     */
+    public List<String> get() {
+        if (version == null || !version.equals(preferences.getString(VERSION_KEY, null))) {
+            return null;
+        }
+
+        String environment = preferences.getString(ENVIRONMENT_KEY, null);
+        if (environment == null) {
+            return null;
+        }
+
+        try {
+            JSONArray variables = new JSONArray(environment);
+            List<String> result = new ArrayList<>(variables.length());
+            for (int index = 0; index < variables.length(); index++) {
+                result.add(variables.getString(index));
+            }
+            return result;
+        } catch (JSONException e) {
+            Log.d(LOG_TAG, "Cannot read cached crash handler environment. Reason: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(List<String> environmentVariables) {
+        if (version == null) {
+            return;
+        }
+
+        JSONArray variables = new JSONArray();
+        for (String variable : environmentVariables) {
+            variables.put(variable);
+        }
+
+        preferences.edit()
+                .putString(VERSION_KEY, version)
+                .putString(ENVIRONMENT_KEY, variables.toString())
+                .apply();
+    }
+
+    /**
+     * APK update time identifies the application build. The environment of the application
+     * process and the native library path can change on system updates as well.
+     */
+    private static String getVersion(Context context) {
+        try {
+            long lastUpdateTime = context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+            return lastUpdateTime + ":" + Build.FINGERPRINT;
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.d(LOG_TAG, "Cannot read package information. Reason: " + e.getMessage());
+            return null;
+        }
+    }
+}
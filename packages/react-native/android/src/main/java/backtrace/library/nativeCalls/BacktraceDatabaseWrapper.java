@@ -0,0 +1,17 @@
+package backtraceio.library.nativeCalls;
+
+import backtraceio.library.BacktraceDatabase;
+import backtraceio.library.attributes.AttributeStore;
+
+/**
+ * Forwards changed attributes to the native crash handler. The shipped native library exports
+ * only the single attribute call, so attributes are passed one by one.
+ */
+public class BacktraceDatabaseWrapper implements AttributeStore.Sink {
+    @Override
+    public void addAttributes(String[] keys, String[] values) {
+        for (int index = 0; index < keys.length; index++) {
+            BacktraceDatabase.addAttribute(keys[index], values[index]);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package backtraceio.library.nativeCalls;
+
+/**
+ * Loads the native crash reporter library on first use instead of when the module class is loaded,
+ * so applications pay the cost of loading and relocating the library only when native calls are made.
+ */
+public class NativeLibrary {
+    public static final String LIBRARY_NAME = "backtrace-native";
+
+    private static volatile boolean loaded = false;
+
+    /**
+     * Loads the library if it's not loaded yet. Safe to call from any thread.
+     */
+    public static void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (NativeLibrary.class) {
+            if (loaded) {
+                return;
+            }
+            System.loadLibrary(LIBRARY_NAME);
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package backtraceio.library.streams;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only file stream used by the stream writer. The file descriptor is opened on demand
+ * and can be released while the stream is idle - the next write reopens the file in append mode.
+ * Apart from the constructor, all methods are expected to be called from the writer thread.
+ */
+public class FileStream {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private volatile String path;
+    private FileOutputStream fileStream;
+    private OutputStream output;
+
+    /**
+     * Last write error. Reported to JavaScript on the next append.
+     */
+    private volatile String error;
+
+    /**
+     * Creates the stream and truncates the file. The file descriptor is not kept open.
+     */
+    public FileStream(String path) throws IOException {
+        this.path = path;
+        new FileOutputStream(path, false).close();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns all files written by the stream, from the oldest to the newest.
+     */
+    public List<String> getFiles() {
+        return Collections.singletonList(path);
+    }
+
+    /**
+     * Switches the stream to a new, truncated file. The stream must be released.
+     */
+    protected void reset(String path) throws IOException {
+        new FileOutputStream(path, false).close();
+        this.path = path;
+    }
+
+    public boolean isOpen() {
+        return output != null;
+    }
+
+    /**
+     * Opens the file in append mode, if it's not open yet.
+     */
+    public void open() throws IOException {
+        if (output != null) {
+            return;
+        }
+        fileStream = new FileOutputStream(path, true);
+        output = createOutputStream(fileStream);
+    }
+
+    /**
+     * Creates the stream which writes data to the opened file.
+     */
+    protected OutputStream createOutputStream(FileOutputStream fileStream) throws IOException {
+        return new BufferedOutputStream(fileStream, BUFFER_SIZE);
+    }
+
+    public void write(byte[] data) throws IOException {
+        output.write(data);
+    }
+
+    public void commit(StreamDurability durability) throws IOException {
+        if (output == null || durability == StreamDurability.NONE) {
+            return;
+        }
+
+        output.flush();
+        if (durability == StreamDurability.FSYNC) {
+            fileStream.getFD().sync();
+        }
+    }
+
+    /**
+     * Writes buffered data and closes the file descriptor. The stream can be opened again.
+     */
+    public void release(StreamDurability durability) throws IOException {
+        if (output == null) {
+            return;
+        }
+
+        try {
+            commit(durability == StreamDurability.FSYNC ? StreamDurability.FSYNC : StreamDurability.FLUSH);
+        } finally {
+            OutputStream current = output;
+            output = null;
+            fileStream = null;
+            current.close();
+        }
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Returns the last write error and clears it.
+     */
+    public String consumeError() {
+        String result = error;
+        error = null;
+        return result;
+    }
+}
@@ -0,0 +1,297 @@
+package backtraceio.library.streams;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes data to file streams on a dedicated thread.
+ * <p>
+ * Callers only enqueue writes. The writer thread drains the queue and commits all written streams
+ * together (group commit) once the configured number of bytes is pending or the oldest pending write
+ * is older than the flush interval. A crash can lose at most one commit window of data.
+ * <p>
+ * At most {@code maxOpenStreams} file descriptors are kept open. When the limit is reached,
+ * the least recently written stream is committed and its descriptor is released. The stream
+ * is reopened in append mode on its next write.
+ */
+public class GroupCommitWriter {
+    private static final transient String LOG_TAG = GroupCommitWriter.class.getSimpleName();
+
+    public static final long DEFAULT_FLUSH_INTERVAL = 100;
+    public static final int DEFAULT_FLUSH_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_OPEN_STREAMS = 16;
+    private static final long OPERATION_TIMEOUT = 5000;
+
+    /**
+     * Time between checks whether the writer thread is still running, while an operation is awaited.
+     */
+    private static final long ALIVE_CHECK_INTERVAL = 50;
+
+    private final LinkedBlockingQueue<Runnable> _queue = new LinkedBlockingQueue<>();
+    private final Thread _thread;
+
+    private volatile StreamDurability _durability = StreamDurability.FLUSH;
+    private volatile long _flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private volatile int _flushSize = DEFAULT_FLUSH_SIZE;
+    private volatile int _maxOpenStreams = DEFAULT_MAX_OPEN_STREAMS;
+    private volatile boolean _running = true;
+
+    /**
+     * Streams with uncommitted writes. Accessed only from the writer thread.
+     */
+    private final Set<FileStream> _pendingStreams = new LinkedHashSet<>();
+    /**
+     * Streams with an open file descriptor, in least recently used order. Accessed only from the writer thread.
+     */
+    private final LinkedHashMap<FileStream, Boolean> _openStreams = new LinkedHashMap<>(16, 0.75f, true);
+    private int _pendingBytes = 0;
+    private long _commitDeadline = 0;
+
+    public GroupCommitWriter() {
+        _thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runLoop();
+            }
+        }, "backtrace-stream-writer");
+        _thread.setDaemon(true);
+        _thread.start();
+    }
+
+    /**
+     * Sets the commit policy.
+     * @param durability what a commit does with written data
+     * @param flushInterval maximum time in milliseconds between a write and its commit
+     * @param flushSize number of pending bytes that triggers a commit
+     * @param maxOpenStreams maximum number of open file descriptors
+     */
+    public void configure(StreamDurability durability, long flushInterval, int flushSize, int maxOpenStreams) {
+        _durability = durability;
+        _flushInterval = Math.max(0, flushInterval);
+        _flushSize = Math.max(1, flushSize);
+        _maxOpenStreams = Math.max(1, maxOpenStreams);
+    }
+
+    public void write(final FileStream stream, final String[] lines) {
+        _queue.offer(new Runnable() {
+            @Override
+            public void run() {
+                writeLines(stream, lines);
+            }
+        });
+    }
+
+    /**
+     * Commits and closes the stream. Blocks until all previously enqueued writes are processed.
+     */
+    public boolean close(final FileStream stream) {
+        return await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                _pendingStreams.remove(stream);
+                _openStreams.remove(stream);
+                try {
+                    stream.release(_durability);
+                    return true;
+                } catch (Exception e) {
+                    Log.d(LOG_TAG, "Cannot close the stream. Reason: " + e.getMessage());
+                    return false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Commits all pending writes. Blocks until all previously enqueued writes are processed.
+     */
+    public boolean flush() {
+        return await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                commit();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Commits pending writes and closes all open file descriptors, which releases their write buffers.
+     * Streams are reopened on their next write. Doesn't wait for the writer thread.
+     */
+    public void trim() {
+        _queue.offer(new Runnable() {
+            @Override
+            public void run() {
+                commit();
+                releaseOpenStreams();
+            }
+        });
+    }
+
+    /**
+     * Commits pending writes, closes all open file descriptors and stops the writer thread.
+     * Operations enqueued after the shutdown are not processed.
+     */
+    public void shutdown() {
+        _queue.offer(new Runnable() {
+            @Override
+            public void run() {
+                _running = false;
+            }
+        });
+    }
+
+    /**
+     * Runs the operation on the writer thread and waits for the result.
+     * Returns false immediately once the writer thread stops, instead of waiting for the timeout.
+     */
+    private boolean await(Callable<Boolean> operation) {
+        FutureTask<Boolean> task = new FutureTask<>(operation);
+        if (!_running || !_thread.isAlive()) {
+            return false;
+        }
+        _queue.offer(task);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OPERATION_TIMEOUT);
+        while (true) {
+            try {
+                return task.get(ALIVE_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (!_thread.isAlive() || System.nanoTime() - deadline >= 0) {
+                    Log.d(LOG_TAG, "Stream operation did not finish. The writer thread is stopped or busy.");
+                    task.cancel(false);
+                    return false;
+                }
+            } catch (Exception e) {
+                Log.d(LOG_TAG, "Stream operation did not finish. Reason: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private void runLoop() {
+        while (_running) {
+            Runnable task;
+            try {
+                if (_pendingStreams.isEmpty()) {
+                    task = _queue.take();
+                } else {
+                    long timeout = _commitDeadline - System.nanoTime();
+                    task = timeout > 0 ? _queue.poll(timeout, TimeUnit.NANOSECONDS) : _queue.poll();
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            if (task != null) {
+                task.run();
+            }
+
+            if (shouldCommit()) {
+                commit();
+            }
+        }
+        commit();
+        releaseOpenStreams();
+
+        // operations enqueued after the shutdown are never run - unblock their callers
+        Runnable task;
+        while ((task = _queue.poll()) != null) {
+            if (task instanceof FutureTask) {
+                ((FutureTask<?>) task).cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Closes all open file descriptors. Streams are reopened on their next write.
+     */
+    private void releaseOpenStreams() {
+        for (FileStream stream : _openStreams.keySet()) {
+            try {
+                stream.release(_durability);
+            } catch (Exception e) {
+                Log.d(LOG_TAG, "Cannot release the stream. Reason: " + e.getMessage());
+                stream.setError(e.getMessage());
+            }
+        }
+        _openStreams.clear();
+    }
+
+    private void writeLines(FileStream stream, String[] lines) {
+        try {
+            acquire(stream);
+            for (String line : lines) {
+                byte[] data = line.getBytes(StandardCharsets.UTF_8);
+                stream.write(data);
+                _pendingBytes += data.length;
+            }
+        } catch (Exception e) {
+            Log.d(LOG_TAG, "Cannot append a breadcrumb line. Reason: " + e.getMessage());
+            stream.setError(e.getMessage());
+        }
+
+        if (_pendingStreams.isEmpty()) {
+            _commitDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(_flushInterval);
+        }
+        _pendingStreams.add(stream);
+    }
+
+    /**
+     * Opens the stream and releases least recently used streams above the open descriptor limit.
+     */
+    private void acquire(FileStream stream) throws IOException {
+        _openStreams.put(stream, Boolean.TRUE);
+        if (stream.isOpen()) {
+            return;
+        }
+
+        Iterator<Map.Entry<FileStream, Boolean>> iterator = _openStreams.entrySet().iterator();
+        while (_openStreams.size() > _maxOpenStreams && iterator.hasNext()) {
+            FileStream idleStream = iterator.next().getKey();
+            if (idleStream == stream) {
+                continue;
+            }
+            iterator.remove();
+            try {
+                idleStream.release(_durability);
+            } catch (Exception e) {
+                Log.d(LOG_TAG, "Cannot release the stream. Reason: " + e.getMessage());
+                idleStream.setError(e.getMessage());
+            }
+        }
+
+        stream.open();
+    }
+
+    private boolean shouldCommit() {
+        return !_pendingStreams.isEmpty()
+                && (_pendingBytes >= _flushSize || System.nanoTime() - _commitDeadline >= 0);
+    }
+
+    private void commit() {
+        StreamDurability durability = _durability;
+        for (FileStream stream : _pendingStreams) {
+            try {
+                stream.commit(durability);
+            } catch (Exception e) {
+                Log.d(LOG_TAG, "Cannot commit the stream. Reason: " + e.getMessage());
+                stream.setError(e.getMessage());
+            }
+        }
+        _pendingStreams.clear();
+        _pendingBytes = 0;
+    }
+}
@@ -0,0 +1,65 @@
+package backtraceio.library.streams;
+
+import android.os.Build;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import backtraceio.library.io.Compression;
+import backtraceio.library.io.GzipOutputStream;
+
+/**
+ * File stream which compresses written data with GZIP.
+ * <p>
+ * Every time the file is opened, a new GZIP member is started. A file made of multiple members
+ * is still a valid GZIP file, and decompresses to all written data.
+ * On API 19 and newer, commits sync-flush the compressor, so committed data can be decompressed
+ * after a crash. Older versions can't sync-flush, so a commit finishes the current member instead.
+ */
+public class GzipFileStream extends FileStream {
+    private static final boolean SYNC_FLUSH_SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT;
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final int level;
+    private boolean finishing = false;
+
+    /**
+     * @param level compression level from 0 to 9, or -1 for the default level
+     */
+    public GzipFileStream(String path, int level) throws IOException {
+        super(path);
+        this.level = Compression.normalizeLevel(level);
+    }
+
+    @Override
+    protected OutputStream createOutputStream(FileOutputStream fileStream) throws IOException {
+        // small writes are buffered, so the compressor isn't called for every line
+        return new BufferedOutputStream(SYNC_FLUSH_SUPPORTED
+                ? new GzipOutputStream(fileStream, level, true)
+                : new GzipOutputStream(fileStream, level), BUFFER_SIZE);
+    }
+
+    @Override
+    public void commit(StreamDurability durability) throws IOException {
+        if (SYNC_FLUSH_SUPPORTED || finishing || durability == StreamDurability.NONE) {
+            super.commit(durability);
+            return;
+        }
+
+        release(durability);
+    }
+
+    @Override
+    public void release(StreamDurability durability) throws IOException {
+        // release commits the stream before closing it - the commit must not release it again
+        finishing = true;
+        try {
+            super.release(durability);
+        } finally {
+            finishing = false;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package backtraceio.library.streams;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Circular buffer of records stored in a fixed-size memory-mapped file.
+ * <p>
+ * Appending a record copies it into the mapping - there is no write system call. Dirty pages are
+ * written back by the kernel, so the data survives crashes of the application process.
+ * When the buffer is full, the oldest records are dropped.
+ * <p>
+ * File layout (little endian):
+ * <pre>
+ * 0  int  magic ("BTRB")
+ * 4  int  version
+ * 8  int  capacity of the data region
+ * 12 int  reserved
+ * 16 long head - logical offset where the next record will be written
+ * 24 long tail - logical offset of the oldest record
+ * 32      data region - records: int length + UTF-8 bytes, wrapping around the region end
+ * </pre>
+ * The head is updated after the record is copied, so a record torn by a crash is never visible.
+ */
+public class MappedRingBuffer {
+    public static final int MAGIC = 0x42524254;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = 4;
+
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int HEAD_OFFSET = 16;
+    private static final int TAIL_OFFSET = 24;
+
+    private final String path;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+    private long head;
+    private long tail;
+
+    /**
+     * Opens the buffer file. Records stored in an existing file with the same capacity are kept.
+     * A buffer file with a different capacity is truncated to the new size and cleared.
+     * @param path path to the buffer file
+     * @param capacity size of the data region in bytes
+     * @throws IOException if the file exists, but it's not a ring buffer file
+     */
+    public MappedRingBuffer(String path, int capacity) throws IOException {
+        if (capacity <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Capacity must be greater than " + RECORD_HEADER_SIZE);
+        }
+
+        this.path = path;
+        this.capacity = capacity;
+        long size = (long) HEADER_SIZE + capacity;
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw");
+             FileChannel channel = file.getChannel()) {
+            if (file.length() != 0 && !isBufferFile(file)) {
+                throw new IOException("File " + path + " is not a ring buffer file");
+            }
+            if (file.length() != size) {
+                file.setLength(size);
+            }
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (!restore()) {
+            reset();
+        }
+    }
+
+    private MappedRingBuffer(String path, int capacity, MappedByteBuffer buffer) {
+        this.path = path;
+        this.capacity = capacity;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads records from a buffer file without keeping it open. The file is mapped read-only and never modified.
+     * Returns no records if the file is not a valid ring buffer file.
+     */
+    public static List<String> read(String path) throws IOException {
+        List<String> empty = new ArrayList<>();
+        if (new File(path).length() < HEADER_SIZE) {
+            return empty;
+        }
+
+        MappedByteBuffer mapping;
+        int capacity;
+        try (RandomAccessFile file = new RandomAccessFile(path, "r");
+             FileChannel channel = file.getChannel()) {
+            if (!isBufferFile(file)) {
+                return empty;
+            }
+            file.seek(CAPACITY_OFFSET);
+            capacity = Integer.reverseBytes(file.readInt());
+            if (capacity <= RECORD_HEADER_SIZE || file.length() != (long) HEADER_SIZE + capacity) {
+                return empty;
+            }
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) HEADER_SIZE + capacity);
+        }
+        mapping.order(ByteOrder.LITTLE_ENDIAN);
+
+        MappedRingBuffer ringBuffer = new MappedRingBuffer(path, capacity, mapping);
+        if (!ringBuffer.restore()) {
+            return empty;
+        }
+        return ringBuffer.read();
+    }
+
+    /**
+     * Checks the magic number and the version of the file header. A zeroed header is treated as a buffer file
+     * as well - the header is written last, so a crash during the first open leaves it empty.
+     */
+    private static boolean isBufferFile(RandomAccessFile file) throws IOException {
+        if (file.length() < HEADER_SIZE) {
+            return false;
+        }
+        file.seek(0);
+        int magic = Integer.reverseBytes(file.readInt());
+        int version = Integer.reverseBytes(file.readInt());
+        return (magic == MAGIC && version == VERSION) || (magic == 0 && version == 0);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Appends a record. Drops the oldest records if there is not enough space.
+     * @return false if the record is larger than the buffer
+     */
+    public boolean append(byte[] data) {
+        return append(data, 0, data.length);
+    }
+
+    /**
+     * Appends {@code length} bytes of the array, starting at {@code offset}, as one record.
+     * Drops the oldest records if there is not enough space.
+     * @return false if the record is larger than the buffer
+     */
+    public synchronized boolean append(byte[] data, int offset, int length) {
+        long recordSize = RECORD_HEADER_SIZE + (long) length;
+        if (recordSize > capacity) {
+            return false;
+        }
+
+        long newTail = tail;
+        while (head + recordSize - newTail > capacity) {
+            int oldestLength = readInt(newTail);
+            if (!isValidRecord(newTail, oldestLength)) {
+                // the file is corrupted - dropping its records is the only way to keep the buffer consistent
+                reset();
+                newTail = tail;
+                break;
+            }
+            newTail += RECORD_HEADER_SIZE + oldestLength;
+        }
+        if (newTail != tail) {
+            tail = newTail;
+            buffer.putLong(TAIL_OFFSET, tail);
+        }
+
+        writeInt(head, length);
+        copy(head + RECORD_HEADER_SIZE, data, offset, length);
+
+        head += recordSize;
+        buffer.putLong(HEAD_OFFSET, head);
+        return true;
+    }
+
+    /**
+     * Returns all records, from the oldest to the newest.
+     */
+    public synchronized List<String> read() {
+        List<String> result = new ArrayList<>();
+        long position = tail;
+        while (position < head) {
+            int length = readInt(position);
+            if (!isValidRecord(position, length)) {
+                // corrupted record - ignore the rest of the buffer
+                break;
+            }
+            byte[] data = new byte[length];
+            read(position + RECORD_HEADER_SIZE, data, 0, length);
+            result.add(new String(data, StandardCharsets.UTF_8));
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return result;
+    }
+
+    /**
+     * Writes the newest records to a plain text file, one record per line, so the file can be read without
+     * knowing the ring buffer format. Records are copied as they are - a line break is added only to records
+     * which don't end with one. The file is replaced once all records are written.
+     * @param maxRecords maximum number of exported records, 0 - all records
+     */
+    public void export(String path, int maxRecords) throws IOException {
+        byte[] data;
+        int length;
+        synchronized (this) {
+            // a record with a line break takes less space than a record with its length
+            data = new byte[(int) (head - tail)];
+            length = copyRecords(data, maxRecords);
+        }
+
+        File file = new File(path);
+        File temporaryFile = new File(path + ".tmp");
+        try (OutputStream output = new FileOutputStream(temporaryFile, false)) {
+            output.write(data, 0, length);
+        }
+        if (!temporaryFile.renameTo(file)) {
+            temporaryFile.delete();
+            throw new IOException("Cannot replace the exported file " + path);
+        }
+    }
+
+    /**
+     * Copies the newest records to the array, each followed by a line break.
+     * @return number of copied bytes
+     */
+    private int copyRecords(byte[] destination, int maxRecords) {
+        int count = 0;
+        long position = tail;
+        while (position < head) {
+            int length = readInt(position);
+            if (!isValidRecord(position, length)) {
+                break;
+            }
+            count++;
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        position = tail;
+        for (int skip = maxRecords > 0 ? count - maxRecords : 0; skip > 0; skip--) {
+            position += RECORD_HEADER_SIZE + readInt(position);
+        }
+
+        int offset = 0;
+        for (int record = maxRecords > 0 ? Math.min(count, maxRecords) : count; record > 0; record--) {
+            int length = readInt(position);
+            read(position + RECORD_HEADER_SIZE, destination, offset, length);
+            offset += length;
+            if (length == 0 || destination[offset - 1] != '\n') {
+                destination[offset++] = '\n';
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Removes all records.
+     */
+    public synchronized void clear() {
+        tail = head;
+        buffer.putLong(TAIL_OFFSET, tail);
+    }
+
+    /**
+     * Asks the kernel to write dirty pages to the storage device.
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    /**
+     * Checks the record length read from the file. The file survives crashes, so a length can be torn or corrupted.
+     */
+    private boolean isValidRecord(long position, int length) {
+        return length >= 0 && position + RECORD_HEADER_SIZE + length <= head;
+    }
+
+    private boolean restore() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(CAPACITY_OFFSET) != capacity) {
+            return false;
+        }
+
+        long storedHead = buffer.getLong(HEAD_OFFSET);
+        long storedTail = buffer.getLong(TAIL_OFFSET);
+        if (storedTail < 0 || storedHead < storedTail || storedHead - storedTail > capacity) {
+            return false;
+        }
+
+        head = storedHead;
+        tail = storedTail;
+        return true;
+    }
+
+    private void reset() {
+        head = 0;
+        tail = 0;
+        buffer.putLong(HEAD_OFFSET, head);
+        buffer.putLong(TAIL_OFFSET, tail);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(12, 0);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(0, MAGIC);
+    }
+
+    private int offset(long position) {
+        return HEADER_SIZE + (int) (position % capacity);
+    }
+
+    private void writeInt(long position, int value) {
+        int offset = offset(position);
+        if (offset + RECORD_HEADER_SIZE <= HEADER_SIZE + capacity) {
+            buffer.putInt(offset, value);
+            return;
+        }
+        byte[] data = new byte[RECORD_HEADER_SIZE];
+        for (int index = 0; index < RECORD_HEADER_SIZE; index++) {
+            data[index] = (byte) (value >>> (8 * index));
+        }
+        copy(position, data, 0, RECORD_HEADER_SIZE);
+    }
+
+    private int readInt(long position) {
+        int offset = offset(position);
+        if (offset + RECORD_HEADER_SIZE <= HEADER_SIZE + capacity) {
+            return buffer.getInt(offset);
+        }
+        byte[] data = new byte[RECORD_HEADER_SIZE];
+        read(position, data, 0, RECORD_HEADER_SIZE);
+        int value = 0;
+        for (int index = 0; index < RECORD_HEADER_SIZE; index++) {
+            value |= (data[index] & 0xFF) << (8 * index);
+        }
+        return value;
+    }
+
+    private void copy(long position, byte[] data, int dataOffset, int length) {
+        int offset = offset(position);
+        int firstPart = Math.min(length, HEADER_SIZE + capacity - offset);
+        buffer.position(offset);
+        buffer.put(data, dataOffset, firstPart);
+        if (firstPart < length) {
+            buffer.position(HEADER_SIZE);
+            buffer.put(data, dataOffset + firstPart, length - firstPart);
+        }
+    }
+
+    private void read(long position, byte[] data, int dataOffset, int length) {
+        int offset = offset(position);
+        int firstPart = Math.min(length, HEADER_SIZE + capacity - offset);
+        buffer.position(offset);
+        buffer.get(data, dataOffset, firstPart);
+        if (firstPart < length) {
+            buffer.position(HEADER_SIZE);
+            buffer.get(data, dataOffset + firstPart, length - firstPart);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package backtraceio.library.streams;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a plain text copy of a ring buffer for readers which don't know the ring buffer format,
+ * like the native crash handler, which attaches files as they are.
+ * <p>
+ * Writes schedule an export on a background thread. Exports are coalesced and run at most once per
+ * {@link #EXPORT_DELAY} milliseconds, so the copy can miss records written just before a native crash.
+ * Records stay in the ring buffer file, which can be read in the next session.
+ */
+public class RingBufferExport {
+    private static final transient String LOG_TAG = RingBufferExport.class.getSimpleName();
+
+    public static final long EXPORT_DELAY = 250;
+
+    private static final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "backtrace-ring-export");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    private final MappedRingBuffer buffer;
+    private final String path;
+    private final int maxRecords;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final Runnable exportTask = new Runnable() {
+        @Override
+        public void run() {
+            scheduled.set(false);
+            export();
+        }
+    };
+
+    /**
+     * @param path path to the plain text copy
+     * @param maxRecords maximum number of exported records, 0 - all records
+     */
+    public RingBufferExport(MappedRingBuffer buffer, String path, int maxRecords) {
+        this.buffer = buffer;
+        this.path = path;
+        this.maxRecords = Math.max(0, maxRecords);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Exports the buffer on the background thread, unless an export is already scheduled.
+     */
+    public void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(exportTask, EXPORT_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Exports the buffer on the calling thread.
+     * @return false if the copy cannot be written
+     */
+    public synchronized boolean export() {
+        try {
+            buffer.export(path, maxRecords);
+            return true;
+        } catch (IOException e) {
+            Log.d(LOG_TAG, "Cannot export the ring buffer to " + path + ". Reason: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package backtraceio.library.streams;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * File stream which rolls over to a new file once the current file reaches the byte or line limit.
+ * Only the newest {@code maxFiles} files are kept - older files are deleted.
+ * <p>
+ * File paths are created from a template. The {@link #INDEX_PLACEHOLDER} in the template is replaced
+ * with the index of the file. Each write is treated as a whole - it is never split between files,
+ * and writes larger than the byte limit are skipped.
+ * <p>
+ * Files matching the template left by previous streams are kept: the stream continues with the next index,
+ * and the oldest of them are deleted when they exceed the file limit.
+ */
+public class RotatingFileStream extends FileStream {
+    private static final transient String LOG_TAG = RotatingFileStream.class.getSimpleName();
+
+    public static final String INDEX_PLACEHOLDER = "{n}";
+
+    private final String pathTemplate;
+    private final long maxBytes;
+    private final long maxLines;
+    private final int maxFiles;
+
+    private final ConcurrentLinkedDeque<String> files = new ConcurrentLinkedDeque<>();
+    private int index;
+    private long bytes = 0;
+    private long lines = 0;
+
+    /**
+     * @param pathTemplate path to the file with the {@link #INDEX_PLACEHOLDER}
+     * @param maxBytes maximum size of one file in bytes. 0 - no limit
+     * @param maxLines maximum number of lines in one file. 0 - no limit
+     * @param maxFiles maximum number of files
+     */
+    public RotatingFileStream(String pathTemplate, long maxBytes, long maxLines, int maxFiles) throws IOException {
+        this(pathTemplate, maxBytes, maxLines, maxFiles, findIndexes(pathTemplate));
+    }
+
+    private RotatingFileStream(String pathTemplate, long maxBytes, long maxLines, int maxFiles,
+                               List<Integer> existingIndexes) throws IOException {
+        super(formatPath(pathTemplate, nextIndex(existingIndexes)));
+        this.pathTemplate = pathTemplate;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxLines = Math.max(0, maxLines);
+        this.maxFiles = Math.max(1, maxFiles);
+        this.index = nextIndex(existingIndexes);
+        for (int existingIndex : existingIndexes) {
+            files.add(formatPath(pathTemplate, existingIndex));
+        }
+        files.add(getPath());
+        deleteOldestFiles();
+    }
+
+    @Override
+    public List<String> getFiles() {
+        return new ArrayList<>(files);
+    }
+
+    @Override
+    public void write(byte[] data) throws IOException {
+        if (maxBytes > 0 && data.length > maxBytes) {
+            Log.d(LOG_TAG, "Skipping data larger than the file size limit.");
+            return;
+        }
+
+        int dataLines = countLines(data);
+        boolean exceedsBytes = maxBytes > 0 && bytes + data.length > maxBytes;
+        boolean exceedsLines = maxLines > 0 && lines + dataLines > maxLines;
+        if ((exceedsBytes || exceedsLines) && bytes > 0) {
+            rotate();
+        }
+
+        super.write(data);
+        bytes += data.length;
+        lines += dataLines;
+    }
+
+    private void rotate() throws IOException {
+        release(StreamDurability.FLUSH);
+
+        String nextPath = formatPath(pathTemplate, ++index);
+        reset(nextPath);
+        files.add(nextPath);
+        bytes = 0;
+        lines = 0;
+        deleteOldestFiles();
+
+        open();
+    }
+
+    private void deleteOldestFiles() {
+        while (files.size() > maxFiles) {
+            String oldestPath = files.poll();
+            if (oldestPath != null && !new File(oldestPath).delete()) {
+                Log.d(LOG_TAG, "Cannot delete file " + oldestPath);
+            }
+        }
+    }
+
+    /**
+     * Returns indexes of existing files created from the template, from the lowest.
+     * Only the file name part of the template can contain the index.
+     */
+    static List<Integer> findIndexes(String pathTemplate) {
+        List<Integer> result = new ArrayList<>();
+        File template = new File(pathTemplate.contains(INDEX_PLACEHOLDER)
+                ? pathTemplate
+                : pathTemplate + "." + INDEX_PLACEHOLDER);
+        String name = template.getName();
+        int placeholder = name.indexOf(INDEX_PLACEHOLDER);
+        File directory = template.getParentFile();
+        String[] names = directory == null ? null : directory.list();
+        if (placeholder < 0 || names == null) {
+            return result;
+        }
+
+        String prefix = name.substring(0, placeholder);
+        String suffix = name.substring(placeholder + INDEX_PLACEHOLDER.length());
+        for (String fileName : names) {
+            if (fileName.length() <= prefix.length() + suffix.length()
+                    || !fileName.startsWith(prefix) || !fileName.endsWith(suffix)) {
+                continue;
+            }
+            String value = fileName.substring(prefix.length(), fileName.length() - suffix.length());
+            if (!isIndex(value)) {
+                continue;
+            }
+            try {
+                result.add(Integer.parseInt(value));
+            } catch (NumberFormatException e) {
+                // index out of range - not a file of the stream
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static boolean isIndex(String value) {
+        for (int position = 0; position < value.length(); position++) {
+            char character = value.charAt(position);
+            if (character < '0' || character > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int nextIndex(List<Integer> existingIndexes) {
+        return existingIndexes.isEmpty() ? 0 : existingIndexes.get(existingIndexes.size() - 1) + 1;
+    }
+
+    private static int countLines(byte[] data) {
+        int result = 0;
+        for (byte value : data) {
+            if (value == '\n') {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static String formatPath(String pathTemplate, int index) {
+        if (!pathTemplate.contains(INDEX_PLACEHOLDER)) {
+            return pathTemplate + "." + index;
+        }
+        return pathTemplate.replace(INDEX_PLACEHOLDER, String.valueOf(index));
+    }
+}
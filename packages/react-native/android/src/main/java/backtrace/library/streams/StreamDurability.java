@@ -0,0 +1,31 @@
+package backtraceio.library.streams;
+
+/**
+ * Determines what happens with written data when a group of writes is committed.
+ */
+public enum StreamDurability {
+    /**
+     * Data stays in the writer buffer until the buffer is full or the stream is closed.
+     */
+    NONE,
+    /**
+     * Data is flushed to the operating system. Survives application crashes.
+     */
+    FLUSH,
+    /**
+     * Data is flushed and synchronized to the storage device. Survives power loss.
+     */
+    FSYNC;
+
+    public static StreamDurability fromString(String value, StreamDurability defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        for (StreamDurability durability : values()) {
+            if (durability.name().equalsIgnoreCase(value)) {
+                return durability;
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,30 @@
+package backtraceio.library.streams;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe registry of streams. Each registered stream gets a unique key.
+ */
+public class StreamRegistry<T> {
+    private final ConcurrentHashMap<String, T> _streams = new ConcurrentHashMap<>();
+    private final AtomicLong _lastId = new AtomicLong();
+
+    public String add(T stream) {
+        String key = String.valueOf(_lastId.incrementAndGet());
+        _streams.put(key, stream);
+        return key;
+    }
+
+    public T get(String key) {
+        return key == null ? null : _streams.get(key);
+    }
+
+    public T remove(String key) {
+        return key == null ? null : _streams.remove(key);
+    }
+
+    public int size() {
+        return _streams.size();
+    }
+}
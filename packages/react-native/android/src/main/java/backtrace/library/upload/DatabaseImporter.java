@@ -0,0 +1,131 @@
+package backtraceio.library.upload;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves reports stored by the JavaScript report database to the upload queue, so they can be sent
+ * while the JavaScript client is not running.
+ * <p>
+ * Every report record is a {@code <id>-record.json} file with the report data and attachment paths.
+ * The report data is written to the queue directory, the record is deleted once the upload request
+ * is saved. Attachment files stay where they are. Attachment records are left to the JavaScript client.
+ */
+public class DatabaseImporter {
+    private static final transient String LOG_TAG = DatabaseImporter.class.getSimpleName();
+
+    static final String RECORD_SUFFIX = "-record.json";
+
+    /**
+     * Number of records in the database.
+     */
+    public static int count(String databaseDirectory) {
+        String[] files = new File(databaseDirectory).list();
+        if (files == null) {
+            return 0;
+        }
+
+        int result = 0;
+        for (String file : files) {
+            if (file.endsWith(RECORD_SUFFIX)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moves report records from the database to the queue.
+     * @param submissionUrl URL of JSON report submissions
+     * @return number of moved reports
+     */
+    public static int importReports(String databaseDirectory, String submissionUrl, UploadQueue queue) {
+        File[] files = new File(databaseDirectory).listFiles();
+        if (files == null) {
+            return 0;
+        }
+
+        int result = 0;
+        for (File file : files) {
+            if (!file.getName().endsWith(RECORD_SUFFIX)) {
+                continue;
+            }
+            try {
+                if (importReport(file, submissionUrl, queue)) {
+                    result++;
+                }
+            } catch (IOException | JSONException e) {
+                Log.d(LOG_TAG, "Cannot import the report " + file.getName() + ". Reason: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private static boolean importReport(File recordFile, String submissionUrl, UploadQueue queue)
+            throws IOException, JSONException {
+        JSONObject record = new JSONObject(read(recordFile));
+        if (!"report".equals(record.optString("type"))) {
+            return false;
+        }
+
+        String id = record.getString("id");
+        File reportFile = new File(queue.getDirectory(), id + ".json");
+        write(reportFile, record.getJSONObject("data").toString());
+
+        Map<String, String> attachments = new LinkedHashMap<>();
+        JSONArray attachmentRecords = record.optJSONArray("attachments");
+        if (attachmentRecords != null) {
+            for (int i = 0; i < attachmentRecords.length(); i++) {
+                JSONObject attachment = attachmentRecords.optJSONObject(i);
+                String path = attachment == null ? null : attachment.optString("filePath", null);
+                if (path != null) {
+                    attachments.put(attachment.optString("name", new File(path).getName()), path);
+                }
+            }
+        }
+
+        queue.save(new UploadRequest(id, submissionUrl, reportFile.getPath(), attachments,
+                Collections.singleton(reportFile.getPath())));
+        if (!recordFile.delete()) {
+            // the request is sent either way, the record may be sent again by the JavaScript client
+            Log.d(LOG_TAG, "Cannot remove the imported record " + recordFile.getName());
+        }
+        return true;
+    }
+
+    private static String read(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        try (InputStream input = new FileInputStream(file)) {
+            int offset = 0;
+            int read;
+            while (offset < content.length && (read = input.read(content, offset, content.length - offset)) > 0) {
+                offset += read;
+            }
+            return new String(content, 0, offset, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create the upload queue directory " + directory.getPath());
+        }
+        try (OutputStream output = new FileOutputStream(file, false)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
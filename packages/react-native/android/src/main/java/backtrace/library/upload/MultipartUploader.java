@@ -0,0 +1,141 @@
+package backtraceio.library.upload;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends reports with {@link HttpURLConnection} in chunked streaming mode.
+ * <p>
+ * The request body is streamed from the report and attachment files through a fixed buffer, so memory use
+ * doesn't depend on the size of the attachments. Reports without attachments are sent as JSON, reports
+ * with attachments as multipart form data - the same way the JavaScript request handler sends them.
+ * <p>
+ * Response bodies are always read to the end and connections aren't disconnected, so consecutive
+ * requests to the same server reuse one keep-alive connection.
+ */
+public class MultipartUploader {
+    public static final int DEFAULT_TIMEOUT = 15000;
+
+    static final String REPORT_FIELD = "upload_file";
+    static final String ATTACHMENT_FIELD_PREFIX = "attachment_";
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final String LINE_END = "\r\n";
+
+    private volatile int timeout = DEFAULT_TIMEOUT;
+
+    public void setTimeout(int timeout) {
+        this.timeout = Math.max(0, timeout);
+    }
+
+    public UploadResult upload(UploadRequest request) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(request.url).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(timeout);
+            connection.setReadTimeout(timeout);
+            connection.setDoOutput(true);
+            connection.setChunkedStreamingMode(CHUNK_SIZE);
+
+            byte[] buffer = new byte[CHUNK_SIZE];
+            if (request.attachments.isEmpty()) {
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream output = connection.getOutputStream()) {
+                    writeFile(output, new File(request.reportPath), buffer);
+                }
+            } else {
+                String boundary = "backtrace-" + UUID.randomUUID().toString();
+                connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+                try (OutputStream output = connection.getOutputStream()) {
+                    writeMultipart(output, request, boundary, buffer);
+                }
+            }
+
+            int status = connection.getResponseCode();
+            return new UploadResult(status, readResponse(connection, status));
+        } catch (IOException e) {
+            return new UploadResult(UploadResult.NETWORK_ERROR, e.getMessage());
+        }
+    }
+
+    private static void writeMultipart(OutputStream output, UploadRequest request, String boundary, byte[] buffer)
+            throws IOException {
+        writePartHeader(output, boundary, REPORT_FIELD, null, "application/json");
+        writeFile(output, new File(request.reportPath), buffer);
+
+        for (Map.Entry<String, String> attachment : request.attachments.entrySet()) {
+            File file = new File(attachment.getValue());
+            if (!file.exists()) {
+                // attachments are optional - the report is still useful without them
+                continue;
+            }
+            writeText(output, LINE_END);
+            writePartHeader(output, boundary, ATTACHMENT_FIELD_PREFIX + attachment.getKey(), file.getName(),
+                    "application/octet-stream");
+            writeFile(output, file, buffer);
+        }
+
+        writeText(output, LINE_END + "--" + boundary + "--" + LINE_END);
+    }
+
+    private static void writePartHeader(OutputStream output, String boundary, String name, String fileName,
+                                        String contentType) throws IOException {
+        StringBuilder header = new StringBuilder()
+                .append("--").append(boundary).append(LINE_END)
+                .append("Content-Disposition: form-data; name=\"").append(escapeQuotes(name)).append('"');
+        if (fileName != null) {
+            header.append("; filename=\"").append(escapeQuotes(fileName)).append('"');
+        }
+        header.append(LINE_END)
+                .append("Content-Type: ").append(contentType).append(LINE_END)
+                .append(LINE_END);
+        writeText(output, header.toString());
+    }
+
+    private static void writeFile(OutputStream output, File file, byte[] buffer) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static void writeText(OutputStream output, String text) throws IOException {
+        output.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String escapeQuotes(String value) {
+        return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+    }
+
+    /**
+     * Reads the whole response, so the connection can be reused.
+     */
+    private static String readResponse(HttpURLConnection connection, int status) throws IOException {
+        InputStream input = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (input == null) {
+            return "";
+        }
+
+        try (InputStream response = input) {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = response.read(buffer)) > 0) {
+                result.write(buffer, 0, read);
+            }
+            return new String(result.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
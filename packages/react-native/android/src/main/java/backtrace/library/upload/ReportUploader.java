@@ -0,0 +1,252 @@
+package backtraceio.library.upload;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads queued reports in the background.
+ * <p>
+ * Requests are persisted in the {@link UploadQueue} before they are sent, and removed together with
+ * the files they own once the server accepts them or rejects them for good. Retryable failures are
+ * retried with exponential backoff and jitter, up to {@code maxAttempts} attempts. At most
+ * {@code maxConcurrency} uploads run at once.
+ */
+public class ReportUploader {
+    private static final transient String LOG_TAG = ReportUploader.class.getSimpleName();
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 2;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final long DEFAULT_BASE_DELAY = 5000;
+    public static final long DEFAULT_MAX_DELAY = 10 * 60 * 1000;
+
+    public interface Listener {
+        /**
+         * Called after every upload attempt.
+         * @param willRetry true if the request stays in the queue and will be sent again
+         */
+        void onUploadAttempt(UploadRequest request, UploadResult result, boolean willRetry);
+    }
+
+    private static final HashMap<String, ReportUploader> _instances = new HashMap<>();
+
+    private final UploadQueue queue;
+    private final MultipartUploader uploader;
+    private final ScheduledThreadPoolExecutor executor;
+    /**
+     * Ids of requests waiting for an upload or being uploaded.
+     */
+    private final Set<String> scheduled = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Random random = new Random();
+
+    private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private volatile long baseDelay = DEFAULT_BASE_DELAY;
+    private volatile long maxDelay = DEFAULT_MAX_DELAY;
+    private volatile Listener listener;
+    private volatile String clientDatabaseDirectory;
+
+    public ReportUploader(UploadQueue queue, MultipartUploader uploader) {
+        this.queue = queue;
+        this.uploader = uploader;
+        this.executor = new ScheduledThreadPoolExecutor(DEFAULT_MAX_CONCURRENCY, new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "backtrace-upload-" + index.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Returns the uploader of the queue directory. All uploads of one queue in the process go through
+     * one uploader, so a request is never sent twice at the same time.
+     */
+    public static synchronized ReportUploader getInstance(String queueDirectory) {
+        ReportUploader uploader = _instances.get(queueDirectory);
+        if (uploader == null) {
+            uploader = new ReportUploader(new UploadQueue(queueDirectory), new MultipartUploader());
+            _instances.put(queueDirectory, uploader);
+        }
+        return uploader;
+    }
+
+    public UploadQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * @param maxConcurrency maximum number of uploads running at once
+     * @param maxAttempts maximum number of attempts of one request
+     * @param baseDelay delay in milliseconds before the first retry. Every next retry waits twice as long
+     * @param maxDelay maximum delay in milliseconds between retries
+     * @param timeout connection and read timeout in milliseconds
+     */
+    public void configure(int maxConcurrency, int maxAttempts, long baseDelay, long maxDelay, int timeout) {
+        executor.setCorePoolSize(Math.max(1, maxConcurrency));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelay = Math.max(0, baseDelay);
+        this.maxDelay = Math.max(this.baseDelay, maxDelay);
+        uploader.setTimeout(timeout);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Marks the report database used by the running JavaScript client. The client sends reports stored
+     * in it, so the upload job doesn't move them to the queue.
+     * @param directory database directory, or null when the client stops
+     */
+    public void setClientDatabaseDirectory(String directory) {
+        this.clientDatabaseDirectory = directory;
+    }
+
+    public boolean isClientDatabase(String directory) {
+        return directory.equals(clientDatabaseDirectory);
+    }
+
+    /**
+     * Stores the request and sends it as soon as an upload slot is free.
+     */
+    public void enqueue(UploadRequest request) throws IOException {
+        queue.save(request);
+        schedule(request);
+    }
+
+    /**
+     * Schedules all requests stored in the queue, for example by the previous session.
+     * Requests already scheduled are skipped.
+     * @return number of scheduled requests
+     */
+    public int resume() {
+        int result = 0;
+        for (UploadRequest request : queue.load()) {
+            if (schedule(request)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of requests waiting for an upload.
+     */
+    public int getPendingCount() {
+        return scheduled.size();
+    }
+
+    /**
+     * Sends queued requests which are due, one by one on the calling thread, so consecutive requests reuse
+     * one keep-alive connection. Requests already scheduled by this uploader are skipped.
+     * Stops at the first networking error.
+     * @param maxRequests maximum number of requests to send
+     * @param cancelled stops sending when set
+     * @return number of requests left in the queue
+     */
+    public int drain(int maxRequests, AtomicBoolean cancelled) {
+        int sent = 0;
+        long now = System.currentTimeMillis();
+        for (UploadRequest request : queue.load()) {
+            if (sent >= maxRequests || cancelled.get()) {
+                break;
+            }
+            if (request.getNextAttemptTime() > now || !scheduled.add(request.id)) {
+                continue;
+            }
+
+            UploadResult result;
+            try {
+                result = uploader.upload(request);
+                onUploadAttempt(request, result);
+            } finally {
+                scheduled.remove(request.id);
+            }
+            sent++;
+            if (result.status == UploadResult.NETWORK_ERROR) {
+                break;
+            }
+        }
+        return queue.size();
+    }
+
+    /**
+     * Sends the request on the calling thread and updates the queue with the result.
+     * @return true if the request doesn't need another attempt
+     */
+    public boolean send(UploadRequest request) {
+        return onUploadAttempt(request, uploader.upload(request));
+    }
+
+    /**
+     * Updates the queue with the result of the upload attempt.
+     * @return true if the request doesn't need another attempt
+     */
+    private boolean onUploadAttempt(UploadRequest request, UploadResult result) {
+        boolean willRetry = !result.isSuccess() && result.isRetryable() && request.getAttempts() + 1 < maxAttempts;
+        if (willRetry) {
+            request.onFailedAttempt(System.currentTimeMillis() + getRetryDelay(request.getAttempts() + 1));
+            try {
+                queue.save(request);
+            } catch (IOException e) {
+                Log.d(LOG_TAG, "Cannot update the upload request. Reason: " + e.getMessage());
+            }
+        } else {
+            if (!result.isSuccess()) {
+                Log.d(LOG_TAG, "Dropping report " + request.id + ". Status: " + result.status);
+            }
+            queue.remove(request);
+        }
+
+        Listener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.onUploadAttempt(request, result, willRetry);
+        }
+        return !willRetry;
+    }
+
+    /**
+     * Delay before the given attempt: the base delay doubled with every failed attempt, limited to the
+     * maximum delay. A random jitter of up to half of the delay spreads retries of many clients in time.
+     */
+    long getRetryDelay(int failedAttempts) {
+        long delay = baseDelay << Math.min(Math.max(0, failedAttempts - 1), 30);
+        if (delay <= 0 || delay > maxDelay) {
+            delay = maxDelay;
+        }
+        long half = delay / 2;
+        return half + (long) (random.nextDouble() * (delay - half));
+    }
+
+    private boolean schedule(final UploadRequest request) {
+        if (!scheduled.add(request.id)) {
+            return false;
+        }
+
+        long delay = Math.max(0, request.getNextAttemptTime() - System.currentTimeMillis());
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                boolean done = send(request);
+                scheduled.remove(request.id);
+                if (!done) {
+                    schedule(request);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        return true;
+    }
+}
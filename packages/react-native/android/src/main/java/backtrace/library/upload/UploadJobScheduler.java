@@ -0,0 +1,102 @@
+package backtraceio.library.upload;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.Build;
+import android.os.PersistableBundle;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Schedules {@link UploadJobService} to send queued reports when the network is available.
+ * Requires API 21. On older versions reports are sent only while the application is running.
+ */
+public class UploadJobScheduler {
+    private static final transient String LOG_TAG = UploadJobScheduler.class.getSimpleName();
+
+    static final String QUEUE_DIRECTORY = "queueDirectory";
+    static final String DATABASE_DIRECTORY = "databaseDirectory";
+    static final String SUBMISSION_URL = "submissionUrl";
+
+    /**
+     * Job id. Has to be unique in the application.
+     */
+    public static final int JOB_ID = 0x42545550;
+
+    /**
+     * Initial delay before the job runs again when reports are left in the queue.
+     */
+    private static final long RETRY_BACKOFF = 30 * 1000;
+
+    /**
+     * Schedules the upload job. A job which is already scheduled or running with the same setup is kept,
+     * because scheduling it again would stop the running job.
+     * @param databaseDirectory directory of the JavaScript report database. Reports stored in it are moved
+     *                          to the queue when the JavaScript client is not running
+     * @param submissionUrl URL of JSON report submissions, used for reports moved from the database
+     * @return true if the job is scheduled
+     */
+    public static boolean schedule(Context context, String queueDirectory, @Nullable String databaseDirectory,
+                                   @Nullable String submissionUrl) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return false;
+        }
+
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return false;
+        }
+
+        PersistableBundle extras = new PersistableBundle();
+        extras.putString(QUEUE_DIRECTORY, queueDirectory);
+        extras.putString(DATABASE_DIRECTORY, databaseDirectory);
+        extras.putString(SUBMISSION_URL, submissionUrl);
+
+        try {
+            JobInfo pendingJob = getPendingJob(scheduler);
+            if (pendingJob != null && hasSameExtras(pendingJob.getExtras(), extras)) {
+                return true;
+            }
+
+            JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, UploadJobService.class))
+                    .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                    .setBackoffCriteria(RETRY_BACKOFF, JobInfo.BACKOFF_POLICY_EXPONENTIAL)
+                    .setExtras(extras)
+                    .build();
+            return scheduler.schedule(job) == JobScheduler.RESULT_SUCCESS;
+        } catch (Exception e) {
+            Log.d(LOG_TAG, "Cannot schedule the upload job. Reason: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the upload job if it's scheduled or running.
+     */
+    @Nullable
+    private static JobInfo getPendingJob(JobScheduler scheduler) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return scheduler.getPendingJob(JOB_ID);
+        }
+
+        for (JobInfo job : scheduler.getAllPendingJobs()) {
+            if (job.getId() == JOB_ID) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasSameExtras(PersistableBundle first, PersistableBundle second) {
+        return equals(first.getString(QUEUE_DIRECTORY), second.getString(QUEUE_DIRECTORY))
+                && equals(first.getString(DATABASE_DIRECTORY), second.getString(DATABASE_DIRECTORY))
+                && equals(first.getString(SUBMISSION_URL), second.getString(SUBMISSION_URL));
+    }
+
+    private static boolean equals(@Nullable String first, @Nullable String second) {
+        return first == null ? second == null : first.equals(second);
+    }
+}
@@ -0,0 +1,81 @@
+package backtraceio.library.upload;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.os.Build;
+import android.os.PersistableBundle;
+import android.util.Log;
+
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job which sends queued reports once the network is available, also when the application
+ * is not running. Reports are sent in batches over one keep-alive connection. If reports are left
+ * in the queue, the job asks the system to run it again later.
+ * <p>
+ * Reports stored by the JavaScript report database are moved to the queue first, unless the JavaScript
+ * client which sends them is running.
+ */
+@RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+public class UploadJobService extends JobService {
+    private static final transient String LOG_TAG = UploadJobService.class.getSimpleName();
+
+    /**
+     * Maximum number of reports sent by one run of the job.
+     */
+    static final int BATCH_SIZE = 20;
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private Thread worker;
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        PersistableBundle extras = params.getExtras();
+        final String queueDirectory = extras == null ? null : extras.getString(UploadJobScheduler.QUEUE_DIRECTORY);
+        if (queueDirectory == null) {
+            return false;
+        }
+        final String databaseDirectory = extras.getString(UploadJobScheduler.DATABASE_DIRECTORY);
+        final String submissionUrl = extras.getString(UploadJobScheduler.SUBMISSION_URL);
+
+        cancelled.set(false);
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ReportUploader uploader = ReportUploader.getInstance(queueDirectory);
+                int waiting = 0;
+                if (databaseDirectory != null && submissionUrl != null) {
+                    if (uploader.isClientDatabase(databaseDirectory)) {
+                        // the running client sends them, check again later in case it's closed first
+                        waiting = DatabaseImporter.count(databaseDirectory);
+                    } else {
+                        DatabaseImporter.importReports(databaseDirectory, submissionUrl, uploader.getQueue());
+                    }
+                }
+
+                int remaining = uploader.drain(BATCH_SIZE, cancelled) + waiting;
+                Log.d(LOG_TAG, "Upload job finished. Reports left: " + remaining);
+                if (!cancelled.get()) {
+                    jobFinished(params, remaining > 0);
+                }
+            }
+        }, "backtrace-upload-job");
+        worker.start();
+        return true;
+    }
+
+    @VisibleForTesting
+    Thread getWorker() {
+        return worker;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // the current upload finishes, remaining reports are sent by the next run
+        cancelled.set(true);
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package backtraceio.library.upload;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent queue of upload requests. Every request is stored in its own file in the queue directory,
+ * so requests survive application restarts and can be sent by a background job.
+ */
+public class UploadQueue {
+    private static final transient String LOG_TAG = UploadQueue.class.getSimpleName();
+
+    private static final String EXTENSION = ".upload";
+
+    private final File directory;
+
+    public UploadQueue(String directory) {
+        this.directory = new File(directory);
+    }
+
+    public String getDirectory() {
+        return directory.getPath();
+    }
+
+    /**
+     * Adds the request to the queue or saves its current state.
+     */
+    public void save(UploadRequest request) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create the upload queue directory " + directory.getPath());
+        }
+        request.save(getFile(request.id));
+    }
+
+    /**
+     * Removes the request and deletes the files it owns. Other report and attachment files are left
+     * to their owners.
+     */
+    public void remove(UploadRequest request) {
+        File file = getFile(request.id);
+        if (file.exists() && !file.delete()) {
+            Log.d(LOG_TAG, "Cannot remove the upload request " + request.id);
+            // keep the files, so the request can still be sent if it's loaded again
+            return;
+        }
+
+        for (String path : request.ownedFiles) {
+            File ownedFile = new File(path);
+            if (ownedFile.exists() && !ownedFile.delete()) {
+                Log.d(LOG_TAG, "Cannot remove the upload file " + path);
+            }
+        }
+    }
+
+    /**
+     * Number of stored requests.
+     */
+    public int size() {
+        String[] files = directory.list();
+        if (files == null) {
+            return 0;
+        }
+
+        int result = 0;
+        for (String file : files) {
+            if (file.endsWith(EXTENSION)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all stored requests. Requests which can't be read are removed.
+     */
+    public List<UploadRequest> load() {
+        List<UploadRequest> result = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return result;
+        }
+
+        for (File file : files) {
+            if (!file.getName().endsWith(EXTENSION)) {
+                continue;
+            }
+            try {
+                result.add(UploadRequest.load(file));
+            } catch (IOException e) {
+                Log.d(LOG_TAG, "Removing invalid upload request. Reason: " + e.getMessage());
+                if (!file.delete()) {
+                    Log.d(LOG_TAG, "Cannot remove the upload request " + file.getPath());
+                }
+            }
+        }
+        return result;
+    }
+
+    private File getFile(String id) {
+        // the id is used as a file name
+        return new File(directory, id.replaceAll("[^A-Za-z0-9._-]", "_") + EXTENSION);
+    }
+}
@@ -0,0 +1,142 @@
+package backtraceio.library.upload;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Report waiting for upload. The report JSON and its attachments are read from disk when the request is sent.
+ */
+public class UploadRequest {
+    private static final String ID = "id";
+    private static final String URL = "url";
+    private static final String REPORT_PATH = "report";
+    private static final String ATTEMPTS = "attempts";
+    private static final String NEXT_ATTEMPT_TIME = "nextAttemptTime";
+    private static final String ATTACHMENT_PREFIX = "attachment.";
+    private static final String OWNED_FILE_PREFIX = "owned.";
+
+    public final String id;
+    public final String url;
+    public final String reportPath;
+    /**
+     * Attachment paths by attachment name.
+     */
+    public final Map<String, String> attachments;
+    /**
+     * Paths of files which belong to the queue. They're deleted together with the request.
+     */
+    public final Set<String> ownedFiles;
+
+    private volatile int attempts;
+    private volatile long nextAttemptTime;
+
+    public UploadRequest(String id, String url, String reportPath, Map<String, String> attachments,
+                         Set<String> ownedFiles) {
+        this(id, url, reportPath, attachments, ownedFiles, 0, 0);
+    }
+
+    private UploadRequest(String id, String url, String reportPath, Map<String, String> attachments,
+                          Set<String> ownedFiles, int attempts, long nextAttemptTime) {
+        this.id = id;
+        this.url = url;
+        this.reportPath = reportPath;
+        this.attachments = Collections.unmodifiableMap(new LinkedHashMap<>(attachments));
+        this.ownedFiles = Collections.unmodifiableSet(new LinkedHashSet<>(ownedFiles));
+        this.attempts = attempts;
+        this.nextAttemptTime = nextAttemptTime;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Time in milliseconds since the epoch before which the request shouldn't be sent.
+     */
+    public long getNextAttemptTime() {
+        return nextAttemptTime;
+    }
+
+    void onFailedAttempt(long nextAttemptTime) {
+        this.attempts++;
+        this.nextAttemptTime = nextAttemptTime;
+    }
+
+    /**
+     * Returns paths of all files sent by the request.
+     */
+    public List<String> getFiles() {
+        List<String> result = new ArrayList<>(attachments.size() + 1);
+        result.add(reportPath);
+        result.addAll(attachments.values());
+        return result;
+    }
+
+    void save(File file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(ID, id);
+        properties.setProperty(URL, url);
+        properties.setProperty(REPORT_PATH, reportPath);
+        properties.setProperty(ATTEMPTS, String.valueOf(attempts));
+        properties.setProperty(NEXT_ATTEMPT_TIME, String.valueOf(nextAttemptTime));
+        for (Map.Entry<String, String> attachment : attachments.entrySet()) {
+            properties.setProperty(ATTACHMENT_PREFIX + attachment.getKey(), attachment.getValue());
+        }
+        int index = 0;
+        for (String path : ownedFiles) {
+            properties.setProperty(OWNED_FILE_PREFIX + index++, path);
+        }
+
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporaryFile, false)) {
+            properties.store(output, null);
+            output.getFD().sync();
+        }
+        if (!temporaryFile.renameTo(file)) {
+            throw new IOException("Cannot save the upload request " + file.getPath());
+        }
+    }
+
+    static UploadRequest load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = new FileInputStream(file)) {
+            properties.load(input);
+        }
+
+        String id = properties.getProperty(ID);
+        String url = properties.getProperty(URL);
+        String reportPath = properties.getProperty(REPORT_PATH);
+        if (id == null || url == null || reportPath == null) {
+            throw new IOException("Invalid upload request " + file.getPath());
+        }
+
+        Map<String, String> attachments = new LinkedHashMap<>();
+        Set<String> ownedFiles = new LinkedHashSet<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(ATTACHMENT_PREFIX)) {
+                attachments.put(name.substring(ATTACHMENT_PREFIX.length()), properties.getProperty(name));
+            } else if (name.startsWith(OWNED_FILE_PREFIX)) {
+                ownedFiles.add(properties.getProperty(name));
+            }
+        }
+
+        try {
+            return new UploadRequest(id, url, reportPath, attachments, ownedFiles,
+                    Integer.parseInt(properties.getProperty(ATTEMPTS, "0")),
+                    Long.parseLong(properties.getProperty(NEXT_ATTEMPT_TIME, "0")));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid upload request " + file.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package backtraceio.library.upload;
+
+/**
+ * Result of one upload attempt.
+ */
+public class UploadResult {
+    /**
+     * Status used when the request failed before a response was received.
+     */
+    public static final int NETWORK_ERROR = -1;
+
+    public final int status;
+    public final String body;
+
+    public UploadResult(int status, String body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    public boolean isSuccess() {
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * Failed requests are retried on networking errors, server errors and rate limits.
+     * Other client errors, like an invalid token, won't succeed on retry.
+     */
+    public boolean isRetryable() {
+        return status == NETWORK_ERROR || status == 429 || status >= 500;
+    }
+}
@@ -0,0 +1,14 @@
+package backtraceio.library;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import com.backtrace.reactnative.NativeBacktraceApplicationAttributeProviderSpec;
+
+/**
+ * Base class generated from the TypeScript specification. Methods are called through JSI.
+ */
+abstract class BacktraceApplicationAttributeProviderSpec extends NativeBacktraceApplicationAttributeProviderSpec {
+    BacktraceApplicationAttributeProviderSpec(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+}
@@ -0,0 +1,14 @@
+package backtrace.library;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import com.backtrace.reactnative.NativeBacktraceDirectoryProviderSpec;
+
+/**
+ * Base class generated from the TypeScript specification. Methods are called through JSI.
+ */
+abstract class BacktraceDirectoryProviderSpec extends NativeBacktraceDirectoryProviderSpec {
+    BacktraceDirectoryProviderSpec(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+}
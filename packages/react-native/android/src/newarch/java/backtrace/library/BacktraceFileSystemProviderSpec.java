@@ -0,0 +1,14 @@
+package backtrace.library;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import com.backtrace.reactnative.NativeBacktraceFileSystemProviderSpec;
+
+/**
+ * Base class generated from the TypeScript specification. Methods are called through JSI.
+ */
+abstract class BacktraceFileSystemProviderSpec extends NativeBacktraceFileSystemProviderSpec {
+    BacktraceFileSystemProviderSpec(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+}
@@ -0,0 +1,14 @@
+package backtraceio.library;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import com.backtrace.reactnative.NativeProcessAttributeProviderSpec;
+
+/**
+ * Base class generated from the TypeScript specification. Methods are called through JSI.
+ */
+abstract class ProcessAttributeProviderSpec extends NativeProcessAttributeProviderSpec {
+    ProcessAttributeProviderSpec(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+}
@@ -0,0 +1,14 @@
+package backtraceio.library;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import com.backtrace.reactnative.NativeStreamWriterSpec;
+
+/**
+ * Base class generated from the TypeScript specification. Methods are called through JSI.
+ */
+abstract class StreamWriterSpec extends NativeStreamWriterSpec {
+    StreamWriterSpec(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+}
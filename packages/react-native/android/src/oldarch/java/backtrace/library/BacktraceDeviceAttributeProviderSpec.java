@@ -0,0 +1,13 @@
+package backtraceio.library;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+
+/**
+ * Base class of the legacy bridge module. Methods are called through the bridge.
+ */
+abstract class BacktraceDeviceAttributeProviderSpec extends ReactContextBaseJavaModule {
+    BacktraceDeviceAttributeProviderSpec(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+}
@@ -0,0 +1,146 @@
+package backtrace.library;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the byte-level AttributeReader with the previous line-based parser on /proc fixtures.
+ * Runs on any JVM, without a device:
+ *
+ *   javac -d build/benchmark src/main/java/backtrace/library/AttributeReader.java \
+ *       src/test/java/backtrace/library/AttributeReaderBenchmark.java -cp android.jar
+ *   java -cp build/benchmark:android.jar backtrace.library.AttributeReaderBenchmark [fixture directory]
+ *
+ * On Linux, /proc can be passed as the fixture directory to read live files.
+ */
+public class AttributeReaderBenchmark {
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 100000;
+
+    public static void main(String[] args) throws IOException {
+        String fixtures = args.length > 0 ? args[0] : "src/test/resources/proc";
+
+        HashMap<String, String> memoryMapping = new HashMap<>();
+        memoryMapping.put("MemTotal", "system.memory.total");
+        memoryMapping.put("MemFree", "system.memory.free");
+        memoryMapping.put("Buffers", "system.memory.buffers");
+        memoryMapping.put("Cached", "system.memory.cached");
+        memoryMapping.put("SwapCached", "system.memory.swap.cached");
+        memoryMapping.put("Active", "system.memory.active");
+        memoryMapping.put("Inactive", "system.memory.inactive");
+        memoryMapping.put("SwapTotal", "system.memory.swap.total");
+        memoryMapping.put("SwapFree", "system.memory.swap.free");
+        memoryMapping.put("Dirty", "system.memory.dirty");
+        memoryMapping.put("Writeback", "system.memory.writeback");
+        memoryMapping.put("Slab", "system.memory.slab");
+        memoryMapping.put("VmallocTotal", "system.memory.vmalloc.total");
+        memoryMapping.put("VmallocUsed", "system.memory.vmalloc.used");
+        memoryMapping.put("VmallocChunk", "system.memory.vmalloc.chunk");
+
+        HashMap<String, String> processMapping = new HashMap<>();
+        processMapping.put("FDSize", "descriptor.count");
+        processMapping.put("VmPeak", "vm.vma.peak");
+        processMapping.put("VmSize", "vm.vma.size");
+        processMapping.put("VmLck", "vm.locked.size");
+        processMapping.put("VmHWM", "vm.rss.peak");
+        processMapping.put("VmRSS", "vm.rss.size");
+        processMapping.put("VmStk", "vm.stack.size");
+        processMapping.put("VmData", "vm.data");
+        processMapping.put("VmExe", "vm.exe");
+        processMapping.put("VmLib", "vm.shared.size");
+        processMapping.put("VmPTE", "vm.pte.size");
+        processMapping.put("VmSwap", "vm.swap.size");
+        processMapping.put("State", "state");
+        processMapping.put("voluntary_ctxt_switches", "sched.cs.voluntary");
+        processMapping.put("nonvoluntary_ctxt_switches", "sched.cs.involuntary");
+        processMapping.put("SigPnd", "vm.sigpnd");
+        processMapping.put("ShdPnd", "vm.shdpnd");
+        processMapping.put("Threads", "vm.threads");
+
+        run(new File(fixtures, "meminfo").getPath(), memoryMapping);
+        run(new File(fixtures, "status").getPath(), processMapping);
+    }
+
+    private static void run(final String path, final HashMap<String, String> mapping) throws IOException {
+        final AttributeReader reader = new AttributeReader(mapping);
+
+        Map<String, String> expected = readWithLineReader(path, mapping);
+        Map<String, String> actual = reader.read(path);
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Readers returned different attributes for " + path
+                    + ". Expected: " + expected + ", actual: " + actual);
+        }
+
+        final long[] numbers = new long[mapping.size()];
+        measure(path, "line reader", new Task() {
+            @Override
+            public Object run() throws IOException {
+                return readWithLineReader(path, mapping);
+            }
+        });
+        measure(path, "attribute reader", new Task() {
+            @Override
+            public Object run() {
+                return reader.read(path);
+            }
+        });
+        measure(path, "attribute reader (numbers)", new Task() {
+            @Override
+            public Object run() {
+                reader.readNumbers(path, numbers);
+                return numbers;
+            }
+        });
+    }
+
+    private interface Task {
+        Object run() throws IOException;
+    }
+
+    private static void measure(String path, String name, Task task) throws IOException {
+        int checksum = 0;
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+            checksum += task.run().hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            checksum += task.run().hashCode();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(String.format("%s, %s: %.2f us/op (checksum %d)",
+                path, name, elapsed / 1000.0 / ITERATIONS, checksum));
+    }
+
+    /**
+     * Line-based parser used by AttributeReader before it was rewritten.
+     */
+    private static Map<String, String> readWithLineReader(String path, HashMap<String, String> attributeMapping) throws IOException {
+        Map<String, String> attributes = new HashMap<>();
+        BufferedReader br = new BufferedReader(new FileReader(new File(path)));
+        try {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] entry = line.split(":", 2);
+                String key = entry[0].trim();
+                if (!attributeMapping.containsKey(key)) {
+                    continue;
+                }
+                key = attributeMapping.get(key);
+                String value = entry[1].trim();
+                if (value.endsWith("kB")) {
+                    value = value.substring(0, value.lastIndexOf('k')).trim();
+                }
+                attributes.put(key, value);
+            }
+        } finally {
+            br.close();
+        }
+        return attributes;
+    }
+}
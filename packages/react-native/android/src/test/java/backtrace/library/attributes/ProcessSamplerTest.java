@@ -0,0 +1,47 @@
+package backtraceio.library.attributes;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class ProcessSamplerTest {
+    @Test
+    public void encodesSampleAsJson() {
+        ProcessSampler sampler = new ProcessSampler();
+        byte[] record = new byte[sampler.getMaxRecordSize()];
+
+        int length = sampler.toRecord(record, 1700000000123L, new long[]{102400, 0, 42, 9, -1, 1500, 250});
+
+        assertEquals("{\"timestamp\":1700000000123"
+                        + ",\"process.memory.rss\":102400"
+                        + ",\"process.memory.swap\":0"
+                        + ",\"process.thread.count\":42"
+                        + ",\"system.memory.free\":9"
+                        + ",\"system.memory.available\":-1"
+                        + ",\"process.cpu.user\":1500"
+                        + ",\"process.cpu.system\":250}",
+                new String(record, 0, length, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void encodesExtremeValues() {
+        ProcessSampler sampler = new ProcessSampler();
+        byte[] record = new byte[sampler.getMaxRecordSize()];
+        long[] sample = new long[sampler.getColumns().length];
+        for (int index = 0; index < sample.length; index++) {
+            sample[index] = index % 2 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+
+        int length = sampler.toRecord(record, Long.MIN_VALUE, sample);
+
+        StringBuilder expected = new StringBuilder("{\"timestamp\":").append(Long.MIN_VALUE);
+        String[] columns = sampler.getColumns();
+        for (int index = 0; index < columns.length; index++) {
+            expected.append(",\"").append(columns[index]).append("\":").append(sample[index]);
+        }
+        expected.append('}');
+        assertEquals(expected.toString(), new String(record, 0, length, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package backtraceio.library.attributes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses /proc/[pid]/stat fixtures stored next to the AttributeReader benchmark fixtures.
+ */
+public class StatReaderTest {
+    private static final int[] FIELDS = new int[]{StatReader.UTIME, StatReader.STIME, StatReader.NUM_THREADS, StatReader.RSS};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final StatReader reader = new StatReader();
+
+    @Test
+    public void readsFieldsAfterCommandName() throws Exception {
+        long[] values = new long[FIELDS.length];
+        try (RandomAccessFile file = open("proc/stat")) {
+            assertTrue(reader.read(file, FIELDS, values));
+        }
+
+        assertArrayEquals(new long[]{1234, 567, 42, 20480}, values);
+        assertEquals("mqt_js", reader.getName());
+    }
+
+    @Test
+    public void countsFieldsFromTheLastParenthesis() throws Exception {
+        long[] values = new long[FIELDS.length];
+        try (RandomAccessFile file = open("proc/stat-name-with-spaces")) {
+            assertTrue(reader.read(file, FIELDS, values));
+        }
+
+        assertArrayEquals(new long[]{30, 7, 42, 20480}, values);
+        assertEquals("Worker ) 1 (x)", reader.getName());
+    }
+
+    @Test
+    public void keepsTheOrderOfRequestedFields() throws Exception {
+        long[] values = new long[2];
+        try (RandomAccessFile file = open("proc/stat")) {
+            assertTrue(reader.read(file, new int[]{StatReader.STIME, StatReader.UTIME}, values));
+        }
+
+        assertArrayEquals(new long[]{567, 1234}, values);
+    }
+
+    @Test
+    public void setsMissingFieldsToMinusOne() throws Exception {
+        long[] values = new long[2];
+        try (RandomAccessFile file = open("proc/stat")) {
+            assertTrue(reader.read(file, new int[]{StatReader.UTIME, 100}, values));
+        }
+
+        assertArrayEquals(new long[]{1234, -1}, values);
+    }
+
+    @Test
+    public void rereadsTheFileFromTheBeginning() throws Exception {
+        long[] first = new long[FIELDS.length];
+        long[] second = new long[FIELDS.length];
+        try (RandomAccessFile file = open("proc/stat")) {
+            assertTrue(reader.read(file, FIELDS, first));
+            assertTrue(reader.read(file, FIELDS, second));
+        }
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void rejectsFileWithoutCommandName() throws Exception {
+        File stat = temporaryFolder.newFile("stat");
+        try (FileOutputStream output = new FileOutputStream(stat)) {
+            output.write("4242 mqt_js R 1 2 3".getBytes(StandardCharsets.UTF_8));
+        }
+
+        long[] values = new long[FIELDS.length];
+        try (RandomAccessFile file = new RandomAccessFile(stat, "r")) {
+            assertFalse(reader.read(file, FIELDS, values));
+        }
+        assertArrayEquals(new long[]{-1, -1, -1, -1}, values);
+    }
+
+    private static RandomAccessFile open(String resource) throws IOException, URISyntaxException {
+        URL url = StatReaderTest.class.getClassLoader().getResource(resource);
+        if (url == null) {
+            throw new IOException("Missing fixture " + resource);
+        }
+        return new RandomAccessFile(new File(url.toURI()), "r");
+    }
+}
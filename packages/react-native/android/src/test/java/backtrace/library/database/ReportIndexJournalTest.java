@@ -0,0 +1,137 @@
+package backtraceio.library.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ReportIndexJournalTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(temporaryFolder.getRoot(), "bt-report-index");
+    }
+
+    @Test
+    public void loadsStoredEntries() throws IOException {
+        ReportIndexJournal journal = new ReportIndexJournal(file.getPath());
+        journal.put(entry("a", "/attachments/a\tb.log"));
+        journal.put(entry("b"));
+        journal.incrementAttempts("a");
+        journal.remove("b");
+
+        List<ReportIndexEntry> entries = load();
+
+        assertEquals(1, entries.size());
+        assertEquals("a", entries.get(0).id);
+        assertEquals(1, entries.get(0).attempts);
+        assertEquals(Collections.singletonList("/attachments/a\tb.log"), entries.get(0).attachments);
+    }
+
+    @Test
+    public void skipsLinesWithBadChecksum() throws IOException {
+        ReportIndexJournal journal = new ReportIndexJournal(file.getPath());
+        journal.put(entry("a"));
+        journal.put(entry("b"));
+
+        // change the operation of the second line, but not its checksum
+        List<String> lines = readLines();
+        lines.set(1, lines.get(1).replace("\tb\t", "\tc\t"));
+        Files.write(file.toPath(), (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        ReportIndexJournal loadedJournal = new ReportIndexJournal(file.getPath());
+        List<ReportIndexEntry> entries = new ArrayList<>(loadedJournal.getEntries());
+
+        assertEquals(1, entries.size());
+        assertEquals("a", entries.get(0).id);
+        assertEquals(1, loadedJournal.getCorruptLines());
+    }
+
+    @Test
+    public void skipsTornLastLine() throws IOException {
+        ReportIndexJournal journal = new ReportIndexJournal(file.getPath());
+        journal.put(entry("a"));
+        journal.put(entry("b"));
+        truncate(5);
+
+        ReportIndexJournal loadedJournal = new ReportIndexJournal(file.getPath());
+        assertEquals(1, loadedJournal.getEntries().size());
+        assertEquals(1, loadedJournal.getCorruptLines());
+
+        // the torn line is finished before the next line is appended
+        loadedJournal.put(entry("c"));
+
+        List<ReportIndexEntry> entries = load();
+        assertEquals(2, entries.size());
+        assertEquals("a", entries.get(0).id);
+        assertEquals("c", entries.get(1).id);
+    }
+
+    @Test
+    public void compactionRewritesCurrentEntries() throws IOException {
+        ReportIndexJournal journal = new ReportIndexJournal(file.getPath());
+        journal.put(entry("a"));
+        journal.put(entry("b"));
+        journal.incrementAttempts("b");
+        journal.remove("a");
+
+        journal.compact();
+
+        assertEquals(1, readLines().size());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        List<ReportIndexEntry> entries = load();
+        assertEquals(1, entries.size());
+        assertEquals("b", entries.get(0).id);
+        assertEquals(1, entries.get(0).attempts);
+    }
+
+    @Test
+    public void compactsWhenOutdatedLinesOutnumberEntries() throws IOException {
+        ReportIndexJournal journal = new ReportIndexJournal(file.getPath());
+        journal.put(entry("a"));
+        for (int i = 0; i < 100; i++) {
+            journal.incrementAttempts("a");
+        }
+
+        assertTrue(readLines().size() < 100);
+        List<ReportIndexEntry> entries = load();
+        assertEquals(1, entries.size());
+        assertEquals(100, entries.get(0).attempts);
+    }
+
+    private List<ReportIndexEntry> load() throws IOException {
+        return new ArrayList<>(new ReportIndexJournal(file.getPath()).getEntries());
+    }
+
+    private List<String> readLines() throws IOException {
+        return new ArrayList<>(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    private void truncate(int bytes) throws IOException {
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.setLength(output.length() - bytes);
+        }
+    }
+
+    private static ReportIndexEntry entry(String id, String... attachments) {
+        return new ReportIndexEntry(id, 1000, 10, Arrays.asList(attachments), 0);
+    }
+}
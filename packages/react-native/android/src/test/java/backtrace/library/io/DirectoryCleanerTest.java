@@ -0,0 +1,136 @@
+package backtraceio.library.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Runs the cleaner on a directory laid out like the crashpad database, where reports are stored
+ * next to files the native client needs.
+ */
+public class DirectoryCleanerTest {
+    private static final long HOUR = 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File database;
+    private File settings;
+    private File completed;
+    private File oldReport;
+    private File oldReportMetadata;
+    private File newReport;
+    private File attachment;
+
+    @Before
+    public void setUp() throws IOException {
+        long now = System.currentTimeMillis();
+        database = temporaryFolder.getRoot();
+        settings = createFile(database, "settings.dat", 64, now - 10 * HOUR);
+        completed = new File(database, "completed");
+        oldReport = createFile(completed, "old.dmp", 1000, now - 5 * HOUR);
+        oldReportMetadata = createFile(completed, "old.meta", 10, now - 5 * HOUR);
+        newReport = createFile(completed, "new.dmp", 1000, now);
+        attachment = createFile(new File(database, "attachments/old"), "bt-breadcrumbs-0", 100, now - 5 * HOUR);
+    }
+
+    @Test
+    public void deleteOlderThanRemovesMatchingFilesWithCompanions() throws IOException {
+        File otherMetadata = createFile(completed, "other.meta", 10, System.currentTimeMillis() - 5 * HOUR);
+
+        DirectoryCleaner.Result result = DirectoryCleaner.deleteOlderThan(completed.getPath(), "*.dmp", HOUR);
+
+        // the crashpad metadata of the deleted report is deleted with it
+        assertEquals(2, result.deletedFiles);
+        assertEquals(1010, result.deletedBytes);
+        assertEquals(1, result.remainingFiles);
+        assertEquals(1000, result.remainingBytes);
+        assertFalse(oldReport.exists());
+        assertFalse(oldReportMetadata.exists());
+        assertTrue(newReport.exists());
+        assertTrue(otherMetadata.exists());
+    }
+
+    @Test
+    public void deleteOlderThanDoesNotDescendIntoSubdirectories() {
+        DirectoryCleaner.Result result = DirectoryCleaner.deleteOlderThan(database.getPath(), "*.dmp", HOUR);
+
+        assertEquals(0, result.deletedFiles);
+        assertEquals(0, result.remainingFiles);
+        assertTrue(settings.exists());
+        assertTrue(oldReport.exists());
+        assertTrue(attachment.exists());
+    }
+
+    @Test
+    public void enforceQuotaKeepsBookkeepingFiles() {
+        DirectoryCleaner.Result result = DirectoryCleaner.enforceQuota(database.getPath(), "*.dmp", 0, 0);
+
+        assertEquals(0, result.deletedFiles);
+        assertEquals(0, result.remainingFiles);
+        assertTrue(settings.exists());
+        assertTrue(oldReport.exists());
+    }
+
+    @Test
+    public void enforceQuotaRemovesOldestMatchingFiles() {
+        DirectoryCleaner.Result result = DirectoryCleaner.enforceQuota(completed.getPath(), "*.dmp", 1500, 0);
+
+        assertEquals(2, result.deletedFiles);
+        assertEquals(1, result.remainingFiles);
+        assertFalse(oldReport.exists());
+        assertFalse(oldReportMetadata.exists());
+        assertTrue(newReport.exists());
+        assertTrue(settings.exists());
+        assertTrue(attachment.exists());
+    }
+
+    @Test
+    public void enforceQuotaCountsOnlyMatchingFiles() {
+        DirectoryCleaner.Result result = DirectoryCleaner.enforceQuota(completed.getPath(), "*.dmp", 0, 1);
+
+        assertEquals(2, result.deletedFiles);
+        assertEquals(1, result.remainingFiles);
+        assertFalse(oldReport.exists());
+        assertFalse(oldReportMetadata.exists());
+        assertTrue(newReport.exists());
+    }
+
+    @Test
+    public void keepsCompanionsOfKeptFiles() {
+        DirectoryCleaner.Result result = DirectoryCleaner.deleteOlderThan(completed.getPath(), "*.dmp", 10 * HOUR);
+
+        assertEquals(0, result.deletedFiles);
+        assertEquals(3, result.remainingFiles);
+        assertEquals(2010, result.remainingBytes);
+        assertTrue(oldReportMetadata.exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void enforceQuotaRequiresPattern() {
+        DirectoryCleaner.enforceQuota(database.getPath(), "", 0, 1);
+    }
+
+    private static File createFile(File directory, String name, int size, long lastModified) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = new File(directory, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[size]);
+        }
+        if (!file.setLastModified(lastModified)) {
+            throw new IOException("Cannot set the modification time of " + file);
+        }
+        return file;
+    }
+}
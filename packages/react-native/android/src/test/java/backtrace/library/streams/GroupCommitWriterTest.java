@@ -0,0 +1,50 @@
+package backtraceio.library.streams;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class GroupCommitWriterTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void commitsAndReleasesStreamsOnShutdown() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "breadcrumbs");
+        FileStream stream = new FileStream(file.getPath());
+        GroupCommitWriter writer = new GroupCommitWriter();
+        writer.configure(StreamDurability.FLUSH, 60000, Integer.MAX_VALUE, GroupCommitWriter.DEFAULT_MAX_OPEN_STREAMS);
+
+        writer.write(stream, new String[]{"a\n", "b\n"});
+        assertTrue(writer.flush());
+        assertTrue(stream.isOpen());
+
+        writer.shutdown();
+        // fails once the writer thread stops and the stream is released
+        assertFalse(writer.close(stream));
+
+        assertFalse(stream.isOpen());
+        assertEquals("a\nb\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void failsFastAfterShutdown() throws Exception {
+        FileStream stream = new FileStream(new File(temporaryFolder.getRoot(), "breadcrumbs").getPath());
+        GroupCommitWriter writer = new GroupCommitWriter();
+
+        writer.shutdown();
+        long start = System.currentTimeMillis();
+        assertFalse(writer.flush());
+        assertFalse(writer.close(stream));
+
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+}
@@ -0,0 +1,129 @@
+package backtraceio.library.streams;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class MappedRingBufferTest {
+    private static final int CAPACITY = 64;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void dropsOldestRecordsWhenFull() throws Exception {
+        MappedRingBuffer buffer = new MappedRingBuffer(path(), CAPACITY);
+        for (int index = 0; index < 10; index++) {
+            assertTrue(buffer.append(record(index)));
+        }
+
+        // 12 bytes per record - the newest 5 fit
+        assertEquals(Arrays.asList("record-5", "record-6", "record-7", "record-8", "record-9"), buffer.read());
+    }
+
+    @Test
+    public void keepsRecordsAfterReopening() throws Exception {
+        String path = path();
+        MappedRingBuffer buffer = new MappedRingBuffer(path, CAPACITY);
+        buffer.append(record(0));
+        buffer.append(record(1));
+
+        assertEquals(Arrays.asList("record-0", "record-1"), new MappedRingBuffer(path, CAPACITY).read());
+        assertEquals(Arrays.asList("record-0", "record-1"), MappedRingBuffer.read(path));
+    }
+
+    @Test
+    public void exportsRecordsAsLines() throws Exception {
+        MappedRingBuffer buffer = new MappedRingBuffer(path(), CAPACITY);
+        // records wrap around the end of the data region
+        for (int index = 0; index < 7; index++) {
+            buffer.append(record(index));
+        }
+        buffer.append("{\"id\":7}\n".getBytes(StandardCharsets.UTF_8));
+        File export = new File(temporaryFolder.getRoot(), "bt-breadcrumbs-0");
+
+        buffer.export(export.getPath(), 0);
+
+        assertEquals("record-3\nrecord-4\nrecord-5\nrecord-6\n{\"id\":7}\n", readFile(export));
+    }
+
+    @Test
+    public void exportsNewestRecords() throws Exception {
+        MappedRingBuffer buffer = new MappedRingBuffer(path(), CAPACITY);
+        for (int index = 0; index < 3; index++) {
+            buffer.append(record(index));
+        }
+        File export = new File(temporaryFolder.getRoot(), "bt-breadcrumbs-0");
+
+        buffer.export(export.getPath(), 2);
+
+        assertEquals("record-1\nrecord-2\n", readFile(export));
+        assertFalse(new File(export.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void appendsPartOfArray() throws Exception {
+        MappedRingBuffer buffer = new MappedRingBuffer(path(), CAPACITY);
+        byte[] data = "xxrecord-0yy".getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(buffer.append(data, 2, 8));
+
+        assertEquals(Collections.singletonList("record-0"), buffer.read());
+    }
+
+    @Test(timeout = 5000)
+    public void resetsBufferWithNegativeRecordLength() throws Exception {
+        assertResetsAfterCorruption(-8);
+    }
+
+    @Test(timeout = 5000)
+    public void resetsBufferWithRecordLengthPastHead() throws Exception {
+        assertResetsAfterCorruption(1000);
+    }
+
+    /**
+     * Fills the buffer, overwrites the length of the oldest record and appends a record which needs its space.
+     */
+    private void assertResetsAfterCorruption(int length) throws Exception {
+        String path = path();
+        MappedRingBuffer buffer = new MappedRingBuffer(path, CAPACITY);
+        for (int index = 0; index < 5; index++) {
+            buffer.append(record(index));
+        }
+        buffer.force();
+
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            // the oldest record starts at the beginning of the data region
+            file.seek(MappedRingBuffer.HEADER_SIZE);
+            file.writeInt(Integer.reverseBytes(length));
+        }
+
+        MappedRingBuffer reopened = new MappedRingBuffer(path, CAPACITY);
+        assertTrue(reopened.append(record(5)));
+        assertEquals(Collections.singletonList("record-5"), reopened.read());
+        assertEquals(Collections.singletonList("record-5"), MappedRingBuffer.read(path));
+    }
+
+    private String path() {
+        return new File(temporaryFolder.getRoot(), "bt-breadcrumbs-ring").getPath();
+    }
+
+    private static String readFile(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] record(int index) {
+        return ("record-" + index).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+package backtraceio.library.streams;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class RotatingFileStreamTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void startsFromTheFirstIndex() throws Exception {
+        String template = path("breadcrumbs-{n}.log");
+
+        RotatingFileStream stream = new RotatingFileStream(template, 0, 1, 3);
+
+        assertEquals(Arrays.asList(path("breadcrumbs-0.log")), stream.getFiles());
+    }
+
+    @Test
+    public void continuesAfterFilesOfPreviousStreams() throws Exception {
+        createFile("breadcrumbs-0.log");
+        createFile("breadcrumbs-1.log");
+        createFile("breadcrumbs-other.log");
+        String template = path("breadcrumbs-{n}.log");
+
+        RotatingFileStream stream = new RotatingFileStream(template, 0, 1, 3);
+
+        assertEquals(Arrays.asList(path("breadcrumbs-0.log"), path("breadcrumbs-1.log"), path("breadcrumbs-2.log")),
+                stream.getFiles());
+        assertTrue(new File(path("breadcrumbs-other.log")).exists());
+    }
+
+    @Test
+    public void deletesFilesOfPreviousStreamsAboveTheLimit() throws Exception {
+        // files written with a larger file limit
+        for (int index = 0; index < 5; index++) {
+            createFile("breadcrumbs." + index);
+        }
+
+        RotatingFileStream stream = new RotatingFileStream(path("breadcrumbs"), 0, 1, 2);
+        stream.open();
+        stream.write(line());
+        stream.write(line());
+        stream.release(StreamDurability.FLUSH);
+
+        assertEquals(Arrays.asList(path("breadcrumbs.5"), path("breadcrumbs.6")), stream.getFiles());
+        for (int index = 0; index < 5; index++) {
+            assertFalse(new File(path("breadcrumbs." + index)).exists());
+        }
+    }
+
+    private String path(String name) {
+        return new File(temporaryFolder.getRoot(), name).getPath();
+    }
+
+    private void createFile(String name) throws IOException {
+        assertTrue(new File(temporaryFolder.getRoot(), name).createNewFile());
+    }
+
+    private static byte[] line() {
+        return "breadcrumb\n".getBytes(StandardCharsets.UTF_8);
+    }
+}
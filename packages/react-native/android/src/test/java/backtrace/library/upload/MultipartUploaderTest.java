@@ -0,0 +1,290 @@
+package backtraceio.library.upload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends requests to a minimal HTTP/1.1 server on a local socket and checks what arrives on the wire.
+ */
+public class MultipartUploaderTest {
+    private static final String REPORT = "{\"uuid\":\"report\"}";
+    private static final String RESPONSE = "{\"response\":\"ok\",\"_rxid\":\"rxid\"}";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private StubServer server;
+    private MultipartUploader uploader;
+    private String reportPath;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubServer();
+        uploader = new MultipartUploader();
+        uploader.setTimeout(5000);
+        reportPath = createFile("report.json", REPORT).getPath();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void sendsReportWithoutAttachmentsAsJson() throws Exception {
+        server.respond(200, RESPONSE);
+
+        UploadResult result = uploader.upload(request(Collections.<String, String>emptyMap()));
+
+        assertEquals(200, result.status);
+        assertEquals(RESPONSE, result.body);
+        StubServer.Request request = server.takeRequest();
+        assertEquals("POST", request.method);
+        assertEquals("application/json", request.headers.get("content-type"));
+        assertEquals("chunked", request.headers.get("transfer-encoding"));
+        assertEquals(REPORT, request.body);
+    }
+
+    @Test
+    public void sendsAttachmentsAsMultipartFormData() throws Exception {
+        server.respond(200, RESPONSE);
+        Map<String, String> attachments = new LinkedHashMap<>();
+        attachments.put("log", createFile("log.txt", "attachment content").getPath());
+        attachments.put("missing", new File(temporaryFolder.getRoot(), "missing.txt").getPath());
+
+        UploadResult result = uploader.upload(request(attachments));
+
+        assertTrue(result.isSuccess());
+        StubServer.Request request = server.takeRequest();
+        String contentType = request.headers.get("content-type");
+        assertTrue(contentType.startsWith("multipart/form-data; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        assertEquals("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"upload_file\"\r\n"
+                + "Content-Type: application/json\r\n"
+                + "\r\n"
+                + REPORT + "\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"attachment_log\"; filename=\"log.txt\"\r\n"
+                + "Content-Type: application/octet-stream\r\n"
+                + "\r\n"
+                + "attachment content\r\n"
+                + "--" + boundary + "--\r\n", request.body);
+    }
+
+    @Test
+    public void reusesConnectionForConsecutiveRequests() throws Exception {
+        server.respond(200, RESPONSE);
+        server.respond(200, RESPONSE);
+
+        uploader.upload(request(Collections.<String, String>emptyMap()));
+        uploader.upload(request(Collections.<String, String>emptyMap()));
+
+        assertEquals(server.takeRequest().connection, server.takeRequest().connection);
+    }
+
+    @Test
+    public void returnsServerErrors() {
+        server.respond(503, "unavailable");
+
+        UploadResult result = uploader.upload(request(Collections.<String, String>emptyMap()));
+
+        assertEquals(503, result.status);
+        assertEquals("unavailable", result.body);
+        assertFalse(result.isSuccess());
+        assertTrue(result.isRetryable());
+    }
+
+    @Test
+    public void returnsNetworkErrorIfServerIsNotAvailable() throws IOException {
+        String url = server.getUrl();
+        server.close();
+
+        UploadResult result = uploader.upload(new UploadRequest("id", url, reportPath,
+                Collections.<String, String>emptyMap(), Collections.<String>emptySet()));
+
+        assertEquals(UploadResult.NETWORK_ERROR, result.status);
+        assertTrue(result.isRetryable());
+    }
+
+    private UploadRequest request(Map<String, String> attachments) {
+        return new UploadRequest("id", server.getUrl(), reportPath, attachments, Collections.<String>emptySet());
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        File file = temporaryFolder.newFile(name);
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    /**
+     * Answers requests with queued responses. Requests on one connection are handled one by one,
+     * so keep-alive connections are reused by the client.
+     */
+    private static class StubServer implements Runnable {
+        static class Request {
+            String method;
+            int connection;
+            final Map<String, String> headers = new HashMap<>();
+            String body;
+        }
+
+        private final ServerSocket socket = new ServerSocket(0);
+        private final LinkedBlockingQueue<String[]> responses = new LinkedBlockingQueue<>();
+        private final LinkedBlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+        private final List<Socket> connections = Collections.synchronizedList(new ArrayList<Socket>());
+
+        StubServer() throws IOException {
+            Thread thread = new Thread(this, "stub-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + socket.getLocalPort() + "/post";
+        }
+
+        void respond(int status, String body) {
+            responses.add(new String[]{String.valueOf(status), body});
+        }
+
+        Request takeRequest() throws InterruptedException {
+            Request request = requests.poll(5, TimeUnit.SECONDS);
+            if (request == null) {
+                throw new AssertionError("No request received");
+            }
+            return request;
+        }
+
+        void close() throws IOException {
+            socket.close();
+            synchronized (connections) {
+                for (Socket connection : connections) {
+                    connection.close();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final Socket connection = socket.accept();
+                    connections.add(connection);
+                    final int index = connections.size();
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(connection, index);
+                        }
+                    }, "stub-server-connection");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            } catch (IOException e) {
+                // closed
+            }
+        }
+
+        private void serve(Socket connection, int index) {
+            try {
+                InputStream input = connection.getInputStream();
+                OutputStream output = connection.getOutputStream();
+                String requestLine;
+                while ((requestLine = readLine(input)) != null) {
+                    Request request = new Request();
+                    request.method = requestLine.split(" ")[0];
+                    request.connection = index;
+                    String header;
+                    while (!(header = readLine(input)).isEmpty()) {
+                        int separator = header.indexOf(':');
+                        request.headers.put(header.substring(0, separator).trim().toLowerCase(Locale.US),
+                                header.substring(separator + 1).trim());
+                    }
+                    request.body = readBody(input, request.headers);
+
+                    String[] response = responses.poll(5, TimeUnit.SECONDS);
+                    byte[] body = response[1].getBytes(StandardCharsets.UTF_8);
+                    output.write(("HTTP/1.1 " + response[0] + " Status\r\n"
+                            + "Content-Type: application/json\r\n"
+                            + "Content-Length: " + body.length + "\r\n"
+                            + "\r\n").getBytes(StandardCharsets.UTF_8));
+                    output.write(body);
+                    output.flush();
+                    requests.add(request);
+                }
+            } catch (IOException | InterruptedException e) {
+                // closed
+            }
+        }
+
+        private static String readBody(InputStream input, Map<String, String> headers) throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if ("chunked".equals(headers.get("transfer-encoding"))) {
+                int size;
+                while ((size = Integer.parseInt(readLine(input).trim(), 16)) > 0) {
+                    copy(input, body, size);
+                    readLine(input);
+                }
+                readLine(input);
+            } else if (headers.containsKey("content-length")) {
+                copy(input, body, Integer.parseInt(headers.get("content-length")));
+            }
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private static void copy(InputStream input, ByteArrayOutputStream output, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                int value = input.read();
+                if (value < 0) {
+                    throw new IOException("Unexpected end of the request");
+                }
+                output.write(value);
+            }
+        }
+
+        private static String readLine(InputStream input) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int value;
+            while ((value = input.read()) >= 0) {
+                if (value == '\n') {
+                    int length = line.length();
+                    if (length > 0 && line.charAt(length - 1) == '\r') {
+                        line.setLength(length - 1);
+                    }
+                    return line.toString();
+                }
+                line.append((char) value);
+            }
+            return line.length() == 0 ? null : line.toString();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package backtraceio.library.upload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.job.JobParameters;
+import android.os.Build;
+import android.os.PersistableBundle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowJobService;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class UploadJobServiceTest {
+    private static final long WORKER_TIMEOUT = 10000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private UploadJobService service;
+    private ServerSocket server;
+    private String queueDirectory;
+    private String databaseDirectory;
+    private String reportPath;
+
+    @Before
+    public void setUp() throws IOException {
+        service = Robolectric.setupService(UploadJobService.class);
+        server = new ServerSocket(0);
+        queueDirectory = temporaryFolder.newFolder("queue").getPath();
+        databaseDirectory = temporaryFolder.newFolder("database").getPath();
+        reportPath = createFile(temporaryFolder.getRoot(), "report.json", "{}").getPath();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void doesNotStartWithoutQueue() {
+        assertFalse(service.onStartJob(createParameters(new PersistableBundle())));
+    }
+
+    @Test
+    public void drainsQueueAndAsksForRescheduleOnFailure() throws Exception {
+        String url = getUnavailableUrl();
+        new UploadQueue(queueDirectory).save(new UploadRequest("report", url, reportPath,
+                Collections.<String, String>emptyMap(), Collections.<String>emptySet()));
+
+        assertTrue(service.onStartJob(createParameters(null, null)));
+        awaitWorker();
+
+        ShadowJobService shadow = shadowOf(service);
+        assertTrue(shadow.getIsJobFinished());
+        assertTrue(shadow.getIsRescheduleNeeded());
+        List<UploadRequest> requests = new UploadQueue(queueDirectory).load();
+        assertEquals(1, requests.size());
+        assertEquals(1, requests.get(0).getAttempts());
+    }
+
+    @Test
+    public void movesDatabaseReportsToQueue() throws Exception {
+        String attachmentPath = createFile(temporaryFolder.getRoot(), "log.txt", "log").getPath();
+        File record = createFile(new File(databaseDirectory), "record" + DatabaseImporter.RECORD_SUFFIX,
+                "{\"type\":\"report\",\"id\":\"record\",\"data\":{\"uuid\":\"report\"},"
+                        + "\"attachments\":[{\"filePath\":\"" + attachmentPath + "\",\"name\":\"log\"}]}");
+        String url = getUnavailableUrl();
+
+        assertTrue(service.onStartJob(createParameters(databaseDirectory, url)));
+        awaitWorker();
+
+        assertFalse(record.exists());
+        List<UploadRequest> requests = new UploadQueue(queueDirectory).load();
+        assertEquals(1, requests.size());
+        UploadRequest request = requests.get(0);
+        assertEquals("record", request.id);
+        assertEquals(url, request.url);
+        assertEquals(Collections.singletonMap("log", attachmentPath), request.attachments);
+        assertEquals(Collections.singleton(request.reportPath), request.ownedFiles);
+        assertTrue(new File(request.reportPath).exists());
+    }
+
+    @Test
+    public void leavesDatabaseReportsToRunningClient() throws Exception {
+        File record = createFile(new File(databaseDirectory), "record" + DatabaseImporter.RECORD_SUFFIX,
+                "{\"type\":\"report\",\"id\":\"record\",\"data\":{}}");
+        ReportUploader uploader = ReportUploader.getInstance(queueDirectory);
+        uploader.setClientDatabaseDirectory(databaseDirectory);
+        try {
+            assertTrue(service.onStartJob(createParameters(databaseDirectory, getUnavailableUrl())));
+            awaitWorker();
+        } finally {
+            uploader.setClientDatabaseDirectory(null);
+        }
+
+        assertTrue(record.exists());
+        assertEquals(0, new UploadQueue(queueDirectory).size());
+        assertTrue(shadowOf(service).getIsRescheduleNeeded());
+    }
+
+    @Test
+    public void stoppedJobDoesNotFinish() throws Exception {
+        final CountDownLatch connected = new CountDownLatch(1);
+        final Socket[] connection = new Socket[1];
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    connection[0] = server.accept();
+                    connected.countDown();
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        });
+        acceptor.start();
+        String url = "http://127.0.0.1:" + server.getLocalPort() + "/post";
+        new UploadQueue(queueDirectory).save(new UploadRequest("report", url, reportPath,
+                Collections.<String, String>emptyMap(), Collections.<String>emptySet()));
+
+        JobParameters parameters = createParameters(null, null);
+        assertTrue(service.onStartJob(parameters));
+        assertTrue(connected.await(WORKER_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(service.onStopJob(parameters));
+        // fails the upload in progress
+        connection[0].close();
+        awaitWorker();
+
+        assertFalse(shadowOf(service).getIsJobFinished());
+        assertEquals(1, new UploadQueue(queueDirectory).size());
+    }
+
+    private JobParameters createParameters(String database, String submissionUrl) {
+        PersistableBundle extras = new PersistableBundle();
+        extras.putString(UploadJobScheduler.QUEUE_DIRECTORY, queueDirectory);
+        extras.putString(UploadJobScheduler.DATABASE_DIRECTORY, database);
+        extras.putString(UploadJobScheduler.SUBMISSION_URL, submissionUrl);
+        return createParameters(extras);
+    }
+
+    private static JobParameters createParameters(PersistableBundle extras) {
+        JobParameters parameters = mock(JobParameters.class);
+        when(parameters.getExtras()).thenReturn(extras);
+        return parameters;
+    }
+
+    private void awaitWorker() throws InterruptedException {
+        Thread worker = service.getWorker();
+        worker.join(WORKER_TIMEOUT);
+        assertFalse(worker.isAlive());
+    }
+
+    /**
+     * Returns a URL nothing listens on, so uploads fail with a networking error.
+     */
+    private String getUnavailableUrl() throws IOException {
+        int port = server.getLocalPort();
+        server.close();
+        return "http://127.0.0.1:" + port + "/post";
+    }
+
+    private static File createFile(File directory, String name, String content) throws IOException {
+        File file = new File(directory, name);
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+}
@@ -0,0 +1,76 @@
+package backtraceio.library.upload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class UploadQueueTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private UploadQueue queue;
+    private File report;
+    private File ownedAttachment;
+    private File userAttachment;
+
+    @Before
+    public void setUp() throws IOException {
+        queue = new UploadQueue(temporaryFolder.newFolder("queue").getPath());
+        report = temporaryFolder.newFile("report.json");
+        ownedAttachment = temporaryFolder.newFile("breadcrumbs");
+        userAttachment = temporaryFolder.newFile("user.log");
+    }
+
+    @Test
+    public void restoresSavedRequests() throws IOException {
+        UploadRequest request = createRequest();
+        request.onFailedAttempt(1234);
+        queue.save(request);
+
+        List<UploadRequest> requests = queue.load();
+
+        assertEquals(1, requests.size());
+        UploadRequest loaded = requests.get(0);
+        assertEquals(request.id, loaded.id);
+        assertEquals(request.url, loaded.url);
+        assertEquals(request.reportPath, loaded.reportPath);
+        assertEquals(request.attachments, loaded.attachments);
+        assertEquals(request.ownedFiles, loaded.ownedFiles);
+        assertEquals(1, loaded.getAttempts());
+        assertEquals(1234, loaded.getNextAttemptTime());
+    }
+
+    @Test
+    public void removeDeletesOwnedFiles() throws IOException {
+        UploadRequest request = createRequest();
+        queue.save(request);
+
+        queue.remove(request);
+
+        assertEquals(0, queue.size());
+        assertFalse(report.exists());
+        assertFalse(ownedAttachment.exists());
+        assertTrue(userAttachment.exists());
+    }
+
+    private UploadRequest createRequest() {
+        Map<String, String> attachments = new LinkedHashMap<>();
+        attachments.put("breadcrumbs", ownedAttachment.getPath());
+        attachments.put("log", userAttachment.getPath());
+        return new UploadRequest("id", "http://localhost/post", report.getPath(), attachments,
+                new LinkedHashSet<>(Arrays.asList(report.getPath(), ownedAttachment.getPath())));
+    }
+}
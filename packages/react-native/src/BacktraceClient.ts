@@ -8,7 +8,10 @@ import {
     type AttributeType,
     type DebugIdContainer,
 } from '@backtrace/sdk-core';
-import { NativeModules, Platform } from 'react-native';
+import { Platform, type EmitterSubscription } from 'react-native';
+import { NativeProcessSamplesAttachmentProvider } from './attachment/NativeProcessSamplesAttachmentProvider';
+import { NativeAttributeCollector } from './attributes/NativeAttributeCollector';
+import { NativeMemoryPressure, type MemoryPressureEvent } from './attributes/NativeMemoryPressure';
 import { type BacktraceConfiguration } from './BacktraceConfiguration';
 import { FileBreadcrumbsStorage } from './breadcrumbs/FileBreadcrumbsStorage';
 import { BacktraceClientBuilder } from './builder/BacktraceClientBuilder';
@@ -19,18 +22,48 @@ import { generateUnhandledExceptionHandler } from './handlers';
 import { type ExceptionHandler } from './handlers/ExceptionHandler';
 import { ReactNativeRequestHandler } from './ReactNativeRequestHandler';
 import { ReactStackTraceConverter } from './ReactStackTraceConverter';
+import NativeBacktraceDirectoryProvider from './specs/NativeBacktraceDirectoryProvider';
 import { type FileSystem } from './storage/FileSystem';
+import { IndexedDatabaseStorageProvider } from './storage/IndexedDatabaseStorageProvider';
+import { NativeReportQueue } from './upload/NativeReportQueue';
 
 export class BacktraceClient extends BacktraceCoreClient<BacktraceConfiguration> {
-    private readonly _crashReporter?: CrashReporter;
+    private _crashReporter?: CrashReporter;
     private readonly _exceptionHandler: ExceptionHandler = generateUnhandledExceptionHandler();
 
     public crash(): void {
         CrashReporter.crash();
     }
 
+    /**
+     * Resolves with `true` when the native crash reporter is initialized.
+     * Resolves with `false` if native crashes are not captured or the initialization failed.
+     */
+    public get nativeCrashReporterReady(): Promise<boolean> {
+        return this._crashReporter?.ready ?? Promise.resolve(false);
+    }
+
+    /**
+     * Listens to system memory pressure. Android only - returns `undefined` on other platforms.
+     * The SDK releases its native buffers and cached attributes before listeners are called. Breadcrumbs batched
+     * in JavaScript are sent to the native layer, and from the `running_critical` level fewer breadcrumbs are kept
+     * in memory.
+     * Use it to release breadcrumbs or attachments kept in memory by the application.
+     */
+    public onMemoryPressure(listener: (event: MemoryPressureEvent) => void): EmitterSubscription | undefined {
+        return NativeMemoryPressure.addListener(listener);
+    }
+
+    /**
+     * Collection time of every native attribute provider in milliseconds, from the last collection.
+     * `-1` means that the provider failed or didn't finish in time. Android only - empty on other platforms.
+     */
+    public get nativeAttributeTimings(): Readonly<Record<string, number>> {
+        return NativeAttributeCollector.timings;
+    }
+
     public static get applicationDataPath(): string {
-        return NativeModules.BacktraceDirectoryProvider?.applicationDirectory() ?? '';
+        return NativeBacktraceDirectoryProvider?.applicationDirectory() ?? '';
     }
 
     constructor(clientSetup: BacktraceClientSetup) {
@@ -41,13 +74,27 @@ export class BacktraceClient extends BacktraceCoreClient<BacktraceConfiguration>
                 langName: 'react-native',
                 langVersion: version(),
             },
-            requestHandler: new ReactNativeRequestHandler(clientSetup.options),
+            requestHandler: new ReactNativeRequestHandler(
+                clientSetup.options,
+                NativeReportQueue.create(clientSetup.fileSystem as FileSystem | undefined, clientSetup.options),
+            ),
+            databaseStorageProvider: IndexedDatabaseStorageProvider.createIfAvailable(
+                clientSetup.fileSystem as FileSystem | undefined,
+                clientSetup.options.database,
+            ),
             debugIdMapProvider: new VariableDebugIdMapProvider(global as DebugIdContainer),
             stackTraceConverter: new ReactStackTraceConverter(new V8StackTraceConverter('address at')),
             sessionProvider: new SingleSessionProvider(),
             ...clientSetup,
         });
 
+        if (
+            clientSetup.options.nativeAttributes?.sampleInterval &&
+            NativeProcessSamplesAttachmentProvider.isAvailable()
+        ) {
+            this.attachmentManager.addProviders(new NativeProcessSamplesAttachmentProvider());
+        }
+
         const fileSystem = clientSetup.fileSystem as FileSystem;
         if (!fileSystem) {
             return;
@@ -75,7 +122,7 @@ export class BacktraceClient extends BacktraceCoreClient<BacktraceConfiguration>
                 this.options.captureUnhandledPromiseRejections,
             );
 
-            this.initializeNativeCrashReporter();
+            this._crashReporter = this.initializeNativeCrashReporter();
         } finally {
             lockId && this.sessionFiles?.unlockPreviousSessions(lockId);
         }
@@ -1,2 +1,26 @@
 import { type BacktraceConfiguration as SdkConfiguration } from '@backtrace/sdk-core';
-export interface BacktraceConfiguration extends SdkConfiguration {}
+import { type NativeAttributesConfiguration } from './attributes/NativeAttributesConfiguration';
+import { type FileSystemConfiguration } from './storage/ReactNativeFileProvider';
+import { type StreamWriterConfiguration } from './storage/StreamWriter';
+import { type NativeReportUploaderConfiguration } from './upload/NativeReportUploader';
+export interface BacktraceConfiguration extends SdkConfiguration {
+    /**
+     * Commit policy of native file streams used to store breadcrumbs. Android only.
+     */
+    streamWriter?: StreamWriterConfiguration;
+
+    /**
+     * Native file operations setup. Android only.
+     */
+    fileSystem?: FileSystemConfiguration;
+
+    /**
+     * Native attribute collection setup. Android only.
+     */
+    nativeAttributes?: NativeAttributesConfiguration;
+
+    /**
+     * Native report upload setup. Reports are streamed from disk by the native uploader. Android only.
+     */
+    nativeUploader?: NativeReportUploaderConfiguration;
+}
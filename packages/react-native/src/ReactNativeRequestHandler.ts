@@ -6,6 +6,7 @@ import {
     type BacktraceAttachment,
     type BacktraceRequestHandler,
 } from '@backtrace/sdk-core';
+import { type NativeReportQueue } from './upload/NativeReportQueue';
 
 export class ReactNativeRequestHandler implements BacktraceRequestHandler {
     private readonly UPLOAD_FILE_NAME = 'upload_file';
@@ -24,6 +25,7 @@ export class ReactNativeRequestHandler implements BacktraceRequestHandler {
             token?: string;
             timeout?: number;
         },
+        private readonly _nativeQueue?: NativeReportQueue,
     ) {
         this._timeout = this._options.timeout ?? DEFAULT_TIMEOUT;
     }
@@ -33,6 +35,14 @@ export class ReactNativeRequestHandler implements BacktraceRequestHandler {
         attachments: BacktraceAttachment<Blob | string>[],
         abortSignal?: AbortSignal,
     ): Promise<BacktraceReportSubmissionResult<T>> {
+        if (this._nativeQueue) {
+            // the native uploader streams the report and attachments from disk
+            const result = await this._nativeQueue.enqueue<T>(submissionUrl, dataJson, attachments, abortSignal);
+            if (result) {
+                return result;
+            }
+        }
+
         const payload = this.createSubmissionPayload(dataJson, attachments);
         return this.post(submissionUrl, payload, abortSignal);
     }
@@ -0,0 +1,36 @@
+import { BacktraceStringAttachment, type BacktraceAttachmentProvider } from '@backtrace/sdk-core';
+import NativeBacktraceAttributes from '../specs/NativeBacktraceAttributes';
+
+/**
+ * Attaches process samples collected by the native sampler to every report,
+ * so the report shows how memory and CPU usage changed before it was created.
+ * Native crash reports get the same samples from the file written by the sampler.
+ */
+export class NativeProcessSamplesAttachmentProvider implements BacktraceAttachmentProvider {
+    public static readonly ATTACHMENT_NAME = 'process-samples.json';
+
+    public readonly type = 'dynamic';
+
+    /**
+     * Returns `true` if the platform collects process samples.
+     */
+    public static isAvailable(): boolean {
+        return !!NativeBacktraceAttributes?.getSamples;
+    }
+
+    public get(): BacktraceStringAttachment | undefined {
+        if (!NativeBacktraceAttributes?.getSamples) {
+            return undefined;
+        }
+
+        const samples = NativeBacktraceAttributes.getSamples();
+        if (!samples.samples.length) {
+            return undefined;
+        }
+
+        return new BacktraceStringAttachment(
+            NativeProcessSamplesAttachmentProvider.ATTACHMENT_NAME,
+            JSON.stringify(samples),
+        );
+    }
+}
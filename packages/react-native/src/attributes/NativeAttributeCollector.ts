@@ -0,0 +1,40 @@
+import { type BacktraceAttributeProvider } from '@backtrace/sdk-core';
+import NativeBacktraceAttributes from '../specs/NativeBacktraceAttributes';
+
+/**
+ * Collects attributes of all native providers of the type in one native call.
+ * Providers run in parallel on the native side.
+ */
+export class NativeAttributeCollector implements BacktraceAttributeProvider {
+    private static _timings: Record<string, number> = {};
+
+    constructor(public readonly type: 'scoped' | 'dynamic') {}
+
+    /**
+     * Returns `true` if the platform collects all native attributes in one call.
+     */
+    public static isAvailable(): boolean {
+        return !!NativeBacktraceAttributes?.collectAll;
+    }
+
+    /**
+     * Collection time of every native provider in milliseconds, from the last collection of its type.
+     * `-1` means that the provider failed or didn't finish in time.
+     */
+    public static get timings(): Readonly<Record<string, number>> {
+        return NativeAttributeCollector._timings;
+    }
+
+    public get(): Record<string, unknown> {
+        if (!NativeBacktraceAttributes?.collectAll) {
+            return {};
+        }
+
+        const result = NativeBacktraceAttributes.collectAll([this.type]) as {
+            attributes: Record<string, unknown>;
+            timings: Record<string, number>;
+        };
+        NativeAttributeCollector._timings = { ...NativeAttributeCollector._timings, ...result.timings };
+        return result.attributes;
+    }
+}
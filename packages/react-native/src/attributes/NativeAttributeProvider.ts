@@ -1,13 +1,18 @@
 import { type AttributeType, type BacktraceAttributeProvider } from '@backtrace/sdk-core';
-import { NativeModules } from 'react-native';
+import { TurboModuleRegistry, type TurboModule } from 'react-native';
+
+interface NativeAttributeProviderModule extends TurboModule {
+    get(): Record<string, AttributeType>;
+}
+
 export class NativeAttributeProvider implements BacktraceAttributeProvider {
-    private readonly _provider: { get(): Record<string, AttributeType> };
+    private readonly _provider: NativeAttributeProviderModule | null;
 
     constructor(
         private readonly _name: string,
         public readonly type: 'scoped' | 'dynamic',
     ) {
-        this._provider = NativeModules?.[this._name];
+        this._provider = TurboModuleRegistry.get<NativeAttributeProviderModule>(this._name);
     }
 
     public get(): Record<string, unknown> {
@@ -0,0 +1,22 @@
+export interface NativeAttributesConfiguration {
+    /**
+     * Time in milliseconds after which memory and process attributes are collected again.
+     * Reports created within this time reuse the same sample. `0` collects the attributes for every report.
+     * Application, device and system attributes are collected once per process.
+     * @default 1000
+     */
+    ttl?: number;
+
+    /**
+     * Time in milliseconds between samples of process memory, thread count, CPU time and free system memory.
+     * Samples are taken on a background thread and the last `sampleCount` samples are attached
+     * to every report as `process-samples.json`. Sampling is disabled if not set or `0`.
+     */
+    sampleInterval?: number;
+
+    /**
+     * Number of stored process samples.
+     * @default 60
+     */
+    sampleCount?: number;
+}
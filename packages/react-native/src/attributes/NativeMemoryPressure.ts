@@ -0,0 +1,43 @@
+import { NativeEventEmitter, type EmitterSubscription } from 'react-native';
+import NativeBacktraceAttributes from '../specs/NativeBacktraceAttributes';
+
+const MEMORY_PRESSURE_EVENT = 'BacktraceMemoryPressure';
+
+export interface MemoryPressureEvent {
+    /**
+     * Android trim memory level, for example `15` for `TRIM_MEMORY_RUNNING_CRITICAL`.
+     */
+    readonly level: number;
+
+    /**
+     * Name of the level, for example `running_critical` or `low_memory`.
+     */
+    readonly name: string;
+}
+
+/**
+ * Memory pressure reported by the system to the native layer. Android only.
+ * The native layer releases its own buffers before the event is emitted.
+ */
+export class NativeMemoryPressure {
+    private static _emitter?: NativeEventEmitter;
+
+    /**
+     * Returns `true` if the platform reports memory pressure.
+     */
+    public static isAvailable(): boolean {
+        return !!NativeBacktraceAttributes?.addListener;
+    }
+
+    public static addListener(listener: (event: MemoryPressureEvent) => void): EmitterSubscription | undefined {
+        if (!NativeMemoryPressure.isAvailable()) {
+            return undefined;
+        }
+
+        if (!NativeMemoryPressure._emitter) {
+            NativeMemoryPressure._emitter = new NativeEventEmitter(NativeBacktraceAttributes);
+        }
+
+        return NativeMemoryPressure._emitter.addListener(MEMORY_PRESSURE_EVENT, listener);
+    }
+}
@@ -4,6 +4,7 @@ import {
     jsonEscaper,
     SessionFiles,
     TimeHelper,
+    type BacktraceAttachment,
     type BacktraceAttachmentProvider,
     type Breadcrumb,
     type BreadcrumbsStorage,
@@ -19,8 +20,17 @@ import { combinedChunkSplitter } from '../storage/combinedChunkSplitter';
 import { FileChunkSink } from '../storage/FileChunkSink';
 import { lengthChunkSplitter } from '../storage/lengthChunkSplitter';
 import { lineChunkSplitter } from '../storage/lineChunkSplitter';
+import { type MappedRingBufferWritableStream } from '../storage/MappedRingBufferWriter';
 
 const FILE_PREFIX = 'bt-breadcrumbs';
+const ROTATING_FILE_INDEX = '{n}';
+const MAX_FILES = 2;
+const RING_BUFFER_FILE_SUFFIX = 'ring';
+
+/**
+ * Upper bound of UTF-8 bytes per UTF-16 code unit, used to skip breadcrumbs larger than the ring buffer.
+ */
+const MAX_UTF8_BYTES = 3;
 
 export class FileBreadcrumbsStorage implements BreadcrumbsStorage {
     public get lastBreadcrumbId(): number {
@@ -30,43 +40,32 @@ export class FileBreadcrumbsStorage implements BreadcrumbsStorage {
     private _lastBreadcrumbId: number = TimeHelper.toTimestampInSec(TimeHelper.now());
     private readonly _destinationStream: WritableStream;
     private readonly _destinationWriter: WritableStreamDefaultWriter;
-    private readonly _sink: FileChunkSink;
+    private readonly _attachments: () => BacktraceAttachment[];
+    private _ringBufferCapacity?: number;
 
     constructor(
         session: SessionFiles,
         private readonly _fileSystem: FileSystem,
         private readonly _limits: BreadcrumbsStorageLimits,
     ) {
-        this._sink = new FileChunkSink({
-            maxFiles: 2,
-            fs: this._fileSystem,
-            file: (n) => session.getFileName(FileBreadcrumbsStorage.getFileName(n)),
-        });
-
-        const splitters: ChunkSplitterFactory<string>[] = [];
-        const maximumBreadcrumbs = this._limits.maximumBreadcrumbs;
-        if (maximumBreadcrumbs !== undefined) {
-            splitters.push(() => lineChunkSplitter(Math.ceil(maximumBreadcrumbs / 2)));
-        }
-
-        const maximumTotalBreadcrumbsSize = this._limits.maximumTotalBreadcrumbsSize;
-        if (maximumTotalBreadcrumbsSize !== undefined) {
-            splitters.push(() => lengthChunkSplitter(Math.ceil(maximumTotalBreadcrumbsSize / 2), 'skip'));
-        }
-
-        if (!splitters[0]) {
-            this._destinationStream = this._sink.getSink()(0);
+        // Prefer a memory-mapped ring buffer - breadcrumbs survive native crashes and are attached to them.
+        // Rotating files in the native layer are the next choice - the storage only appends breadcrumbs then
+        const ringBuffer = this.createRingBufferStream(session);
+        const rotatingStream = ringBuffer ? undefined : this.createRotatingStream(session);
+        if (ringBuffer) {
+            this._destinationStream = ringBuffer;
+            this._attachments = () => this.getRingBufferAttachments(ringBuffer);
+        } else if (rotatingStream) {
+            this._destinationStream = rotatingStream;
+            this._attachments = () => this.getFileAttachments(rotatingStream.files);
         } else {
-            this._destinationStream = new WritableStream(
-                new ChunkifierSink({
-                    sink: this._sink.getSink(),
-                    splitter:
-                        splitters.length === 1
-                            ? splitters[0]
-                            : () =>
-                                  combinedChunkSplitter<string>((strs) => strs.join(''), ...splitters.map((s) => s())),
-                }),
-            );
+            const sink = new FileChunkSink({
+                maxFiles: MAX_FILES,
+                fs: this._fileSystem,
+                file: (n) => session.getFileName(FileBreadcrumbsStorage.getFileName(n)),
+            });
+            this._destinationStream = this.createChunkifiedStream(sink);
+            this._attachments = () => this.getFileAttachments(sink.files.map((f) => f.path));
         }
 
         this._destinationWriter = this._destinationStream.getWriter();
@@ -76,11 +75,8 @@ export class FileBreadcrumbsStorage implements BreadcrumbsStorage {
         return ({ limits }) => new FileBreadcrumbsStorage(session, fileSystem, limits);
     }
 
-    public getAttachments(): BacktraceFileAttachment[] {
-        const files = [...this._sink.files].map((f) => f.path);
-        return files.map(
-            (f, i) => new BacktraceFileAttachment(this._fileSystem, f, `bt-breadcrumbs-${i}`, 'application/json'),
-        );
+    public getAttachments(): BacktraceAttachment[] {
+        return this._attachments();
     }
 
     public getAttachmentProviders(): BacktraceAttachmentProvider[] {
@@ -115,6 +111,12 @@ export class FileBreadcrumbsStorage implements BreadcrumbsStorage {
         };
 
         const breadcrumbJson = JSON.stringify(breadcrumb, jsonEscaper());
+        const ringBufferCapacity = this._ringBufferCapacity;
+        if (ringBufferCapacity !== undefined && breadcrumbJson.length * MAX_UTF8_BYTES >= ringBufferCapacity) {
+            // a record larger than the ring buffer would fail the stream
+            return id;
+        }
+
         this._destinationWriter.write(breadcrumbJson + '\n').catch(() => {
             // Fail silently here, there's not much we can do about this
         });
@@ -122,7 +124,82 @@ export class FileBreadcrumbsStorage implements BreadcrumbsStorage {
         return id;
     }
 
-    private static getFileName(index: number) {
+    private createRingBufferStream(session: SessionFiles) {
+        const capacity = this._limits.maximumTotalBreadcrumbsSize;
+        if (capacity === undefined || !this._fileSystem.createRingBufferWriteStream) {
+            return undefined;
+        }
+
+        // the ring buffer file is binary - reports get a plain copy of the newest breadcrumbs, written natively
+        const ringBuffer = this._fileSystem.createRingBufferWriteStream(
+            session.getFileName(FileBreadcrumbsStorage.getFileName(RING_BUFFER_FILE_SUFFIX)),
+            capacity,
+            {
+                path: session.getFileName(FileBreadcrumbsStorage.getFileName(0)),
+                maxRecords: this._limits.maximumBreadcrumbs,
+            },
+        );
+        if (ringBuffer) {
+            this._ringBufferCapacity = capacity;
+        }
+        return ringBuffer;
+    }
+
+    private getRingBufferAttachments(ringBuffer: MappedRingBufferWritableStream): BacktraceAttachment[] {
+        const exportPath = ringBuffer.export();
+        return exportPath ? this.getFileAttachments([exportPath]) : [];
+    }
+
+    private getFileAttachments(files: readonly string[]): BacktraceFileAttachment[] {
+        return files.map(
+            (f, i) => new BacktraceFileAttachment(this._fileSystem, f, `bt-breadcrumbs-${i}`, 'application/json'),
+        );
+    }
+
+    private createRotatingStream(session: SessionFiles) {
+        const maximumBreadcrumbs = this._limits.maximumBreadcrumbs;
+        const maximumTotalBreadcrumbsSize = this._limits.maximumTotalBreadcrumbsSize;
+        if (maximumBreadcrumbs === undefined && maximumTotalBreadcrumbsSize === undefined) {
+            return undefined;
+        }
+
+        const path = session.getFileName(FileBreadcrumbsStorage.getFileName(ROTATING_FILE_INDEX));
+        return this._fileSystem.createRotatingWriteStream?.(path, {
+            maxFiles: MAX_FILES,
+            maxLines: maximumBreadcrumbs !== undefined ? Math.ceil(maximumBreadcrumbs / 2) : undefined,
+            maxBytes:
+                maximumTotalBreadcrumbsSize !== undefined ? Math.ceil(maximumTotalBreadcrumbsSize / 2) : undefined,
+        });
+    }
+
+    private createChunkifiedStream(sink: FileChunkSink): WritableStream {
+        const splitters: ChunkSplitterFactory<string>[] = [];
+        const maximumBreadcrumbs = this._limits.maximumBreadcrumbs;
+        if (maximumBreadcrumbs !== undefined) {
+            splitters.push(() => lineChunkSplitter(Math.ceil(maximumBreadcrumbs / 2)));
+        }
+
+        const maximumTotalBreadcrumbsSize = this._limits.maximumTotalBreadcrumbsSize;
+        if (maximumTotalBreadcrumbsSize !== undefined) {
+            splitters.push(() => lengthChunkSplitter(Math.ceil(maximumTotalBreadcrumbsSize / 2), 'skip'));
+        }
+
+        if (!splitters[0]) {
+            return sink.getSink()(0);
+        }
+
+        return new WritableStream(
+            new ChunkifierSink({
+                sink: sink.getSink(),
+                splitter:
+                    splitters.length === 1
+                        ? splitters[0]
+                        : () => combinedChunkSplitter<string>((strs) => strs.join(''), ...splitters.map((s) => s())),
+            }),
+        );
+    }
+
+    private static getFileName(index: number | string) {
         return `${FILE_PREFIX}-${index}`;
     }
 }
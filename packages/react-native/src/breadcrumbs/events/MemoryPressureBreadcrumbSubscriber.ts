@@ -0,0 +1,53 @@
+import {
+    BreadcrumbLogLevel,
+    BreadcrumbType,
+    type BacktraceBreadcrumbs,
+    type BreadcrumbsEventSubscriber,
+} from '@backtrace/sdk-core';
+import { type EmitterSubscription } from 'react-native';
+import { NativeMemoryPressure } from '../../attributes/NativeMemoryPressure';
+import { NativeUnderlyingSink } from '../../storage/StreamWriter';
+
+/**
+ * Android `TRIM_MEMORY_RUNNING_CRITICAL` level.
+ */
+const TRIM_MEMORY_RUNNING_CRITICAL = 15;
+
+/**
+ * Maximum number of breadcrumbs kept in memory once the system runs critically low on memory.
+ */
+const CRITICAL_MAXIMUM_BREADCRUMBS = 25;
+
+/**
+ * Releases memory held by breadcrumbs when the system runs low on memory: batched breadcrumbs are sent
+ * to the native layer at once, and from the `running_critical` level breadcrumbs kept in memory are trimmed.
+ * Adds a breadcrumb about the memory pressure if system breadcrumbs are enabled.
+ */
+export class MemoryPressureBreadcrumbSubscriber implements BreadcrumbsEventSubscriber {
+    private _subscription?: EmitterSubscription;
+
+    public start(backtraceBreadcrumbs: BacktraceBreadcrumbs): void {
+        const addBreadcrumbs = (backtraceBreadcrumbs.breadcrumbsType & BreadcrumbType.System) === BreadcrumbType.System;
+
+        this._subscription = NativeMemoryPressure.addListener((event) => {
+            if (event.level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+                backtraceBreadcrumbs.trim?.(CRITICAL_MAXIMUM_BREADCRUMBS);
+            }
+
+            if (addBreadcrumbs) {
+                backtraceBreadcrumbs.addBreadcrumb(
+                    `Detected memory pressure. Level: ${event.name}`,
+                    BreadcrumbLogLevel.Warning,
+                    BreadcrumbType.System,
+                    { level: event.name },
+                );
+            }
+
+            NativeUnderlyingSink.flushAll();
+        });
+    }
+
+    public dispose(): void {
+        this._subscription?.remove();
+    }
+}
@@ -1,12 +1,16 @@
 import { BacktraceCoreClientBuilder } from '@backtrace/sdk-core';
 import { Platform } from 'react-native';
+import { NativeAttributeCollector } from '../attributes/NativeAttributeCollector';
+import { NativeMemoryPressure } from '../attributes/NativeMemoryPressure';
 import { NativeAttributeProvider } from '../attributes/NativeAttributeProvider';
 import { ReactNativeAttributeProvider } from '../attributes/ReactNativeAttributeProvider';
 import { BacktraceClient } from '../BacktraceClient';
 import { AppStateBreadcrumbSubscriber } from '../breadcrumbs/events/AppStateBreadcrumbSubscriber';
 import { DimensionChangeBreadcrumbSubscriber } from '../breadcrumbs/events/DimensionChangeBreadcrumbSubscriber';
+import { MemoryPressureBreadcrumbSubscriber } from '../breadcrumbs/events/MemoryPressureBreadcrumbSubscriber';
 import { WebRequestEventSubscriber } from '../breadcrumbs/events/WebRequestEventSubscriber';
 import { DebuggerHelper } from '../common/DebuggerHelper';
+import NativeBacktraceAttributes from '../specs/NativeBacktraceAttributes';
 import { ReactNativeFileSystem } from '../storage';
 import type { BacktraceClientSetup } from './BacktraceClientSetup';
 
@@ -31,24 +35,34 @@ export class BacktraceClientBuilder extends BacktraceCoreClientBuilder<Backtrace
                 new NativeAttributeProvider('BacktraceMemoryUsageAttributeProvider', 'dynamic'),
                 new NativeAttributeProvider('BacktraceCpuAttributeProvider', 'dynamic'),
             ],
-            android: [
-                new NativeAttributeProvider('BacktraceApplicationAttributeProvider', 'scoped'),
-                new NativeAttributeProvider('BacktraceDeviceAttributeProvider', 'scoped'),
-                new NativeAttributeProvider('BacktraceSystemAttributeProvider', 'scoped'),
-                new NativeAttributeProvider('MemoryInformationAttributeProvider', 'dynamic'),
-                new NativeAttributeProvider('ProcessAttributeProvider', 'dynamic'),
-            ],
+            // all native attributes of the type are collected in one call, if supported
+            android: NativeAttributeCollector.isAvailable()
+                ? [new NativeAttributeCollector('scoped'), new NativeAttributeCollector('dynamic')]
+                : [
+                      new NativeAttributeProvider('BacktraceApplicationAttributeProvider', 'scoped'),
+                      new NativeAttributeProvider('BacktraceDeviceAttributeProvider', 'scoped'),
+                      new NativeAttributeProvider('BacktraceSystemAttributeProvider', 'scoped'),
+                      new NativeAttributeProvider('MemoryInformationAttributeProvider', 'dynamic'),
+                      new NativeAttributeProvider('ProcessAttributeProvider', 'dynamic'),
+                  ],
             default: [],
         });
 
+        if (clientSetup.options.nativeAttributes) {
+            NativeBacktraceAttributes?.configure(clientSetup.options.nativeAttributes);
+        }
+
         for (const provider of attributeProviders) {
             this.addAttributeProvider(provider);
         }
 
-        this.useFileSystem(new ReactNativeFileSystem());
+        this.useFileSystem(new ReactNativeFileSystem(clientSetup.options.streamWriter, clientSetup.options.fileSystem));
         this.useBreadcrumbSubscriber(new AppStateBreadcrumbSubscriber());
         this.useBreadcrumbSubscriber(new DimensionChangeBreadcrumbSubscriber());
         this.useBreadcrumbSubscriber(new WebRequestEventSubscriber());
+        if (NativeMemoryPressure.isAvailable()) {
+            this.useBreadcrumbSubscriber(new MemoryPressureBreadcrumbSubscriber());
+        }
     }
 
     public useFileSystem(fileSystem: ReactNativeFileSystem): this {
@@ -3,11 +3,27 @@ import { NativeModules } from 'react-native';
 import { BacktraceFileAttachment } from '../attachment/BacktraceFileAttachment';
 import { DebuggerHelper } from '../common/DebuggerHelper';
 
+/**
+ * Attribute version used when the state of native attributes is unknown.
+ */
+const UNKNOWN_ATTRIBUTES_VERSION = -1;
+
 export class CrashReporter {
     private static readonly BacktraceReactNative = NativeModules.BacktraceReactNative;
 
     private _enabled = false;
 
+    /**
+     * Resolves when the native crash handler initialization finishes.
+     */
+    private _ready: Promise<boolean> = Promise.resolve(false);
+
+    /**
+     * Attributes last passed to the native layer and the native version of them.
+     */
+    private _nativeAttributes: Record<string, string> = {};
+    private _nativeAttributesVersion = UNKNOWN_ATTRIBUTES_VERSION;
+
     constructor(private readonly _fileSystem: FileSystem) {}
 
     /**
@@ -36,27 +52,54 @@ export class CrashReporter {
         const nativeDatabasePath = `${databasePath}/native`;
         this._fileSystem.createDirSync(nativeDatabasePath);
 
-        CrashReporter.BacktraceReactNative.initialize(
-            submissionUrl,
-            nativeDatabasePath,
-            {
-                ...this.convertAttributes(attributes),
-                'error.type': 'Crash',
-            },
-            attachments
-                .filter((n) => n instanceof BacktraceFileAttachment)
-                .map((n) => (n as BacktraceFileAttachment).filePath),
-        );
+        const nativeAttributes = {
+            ...this.convertAttributes(attributes),
+            'error.type': 'Crash',
+        };
+        const attachmentPaths = attachments
+            .filter((n) => n instanceof BacktraceFileAttachment)
+            .map((n) => (n as BacktraceFileAttachment).filePath);
+
+        // the asynchronous initialization keeps the environment setup and JNI calls off the JavaScript thread
+        this._ready = CrashReporter.BacktraceReactNative.initializeAsync
+            ? CrashReporter.BacktraceReactNative.initializeAsync(
+                  submissionUrl,
+                  nativeDatabasePath,
+                  nativeAttributes,
+                  attachmentPaths,
+              )
+            : Promise.resolve(
+                  CrashReporter.BacktraceReactNative.initialize(
+                      submissionUrl,
+                      nativeDatabasePath,
+                      nativeAttributes,
+                      attachmentPaths,
+                  ),
+              );
         this._enabled = true;
         CrashReporter.initialized = true;
         return true;
     }
 
+    /**
+     * Resolves with `true` when the native crash reporter is initialized,
+     * or with `false` if the initialization failed or wasn't started.
+     */
+    public get ready(): Promise<boolean> {
+        return this._ready;
+    }
+
     public updateAttributes(attributes: Record<string, AttributeType>) {
         if (!this._enabled) {
             return;
         }
-        CrashReporter.BacktraceReactNative.useAttributes(this.convertAttributes(attributes));
+        const nativeAttributes = this.convertAttributes(attributes);
+        // attributes are passed to the native crash reporter once it is initialized
+        this._ready.then((initialized) => {
+            if (initialized && this._enabled) {
+                this.sendAttributes(nativeAttributes);
+            }
+        });
     }
 
     public static crash(): void {
@@ -71,6 +114,48 @@ export class CrashReporter {
         this._enabled = false;
     }
 
+    /**
+     * Sends only attributes changed since the last update. If the native layer
+     * doesn't support incremental updates, all attributes are sent.
+     */
+    private sendAttributes(attributes: Record<string, string>) {
+        const native = CrashReporter.BacktraceReactNative;
+        if (!native.updateAttributes) {
+            native.useAttributes(attributes);
+            return;
+        }
+
+        const changes =
+            this._nativeAttributesVersion === UNKNOWN_ATTRIBUTES_VERSION
+                ? attributes
+                : this.getChangedAttributes(attributes, this._nativeAttributes);
+        if (!Object.keys(changes).length) {
+            return;
+        }
+
+        let version: number = native.updateAttributes(changes, this._nativeAttributesVersion);
+        if (version === UNKNOWN_ATTRIBUTES_VERSION) {
+            // native attributes were updated by someone else - resynchronize with the full set
+            version = native.updateAttributes(attributes, UNKNOWN_ATTRIBUTES_VERSION);
+        }
+
+        this._nativeAttributes = attributes;
+        this._nativeAttributesVersion = version;
+    }
+
+    private getChangedAttributes(
+        attributes: Record<string, string>,
+        previousAttributes: Record<string, string>,
+    ): Record<string, string> {
+        const changes: Record<string, string> = {};
+        for (const [key, value] of Object.entries(attributes)) {
+            if (previousAttributes[key] !== value) {
+                changes[key] = value;
+            }
+        }
+        return changes;
+    }
+
     /**
      * Native layer might not support fully all types supported by the JavaScript SDK. The method converts attributes
      * to model fully supported by the native env
@@ -12,8 +12,11 @@ export {
     type RawBreadcrumb,
 } from '@backtrace/sdk-core';
 export * from './attachment/';
+export { type NativeAttributesConfiguration } from './attributes/NativeAttributesConfiguration';
+export { type MemoryPressureEvent } from './attributes/NativeMemoryPressure';
 export { BacktraceClient } from './BacktraceClient';
 export { type BacktraceConfiguration } from './BacktraceConfiguration';
 export { BacktraceClientBuilder } from './builder/BacktraceClientBuilder';
 export { ErrorBoundary } from './ErrorBoundary';
 export * from './storage/';
+export * from './upload/';
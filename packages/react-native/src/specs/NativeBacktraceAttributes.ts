@@ -0,0 +1,31 @@
+import { TurboModuleRegistry, type TurboModule } from 'react-native';
+
+type NativeAttributesConfiguration = {
+    ttl?: number;
+    sampleInterval?: number;
+    sampleCount?: number;
+};
+
+type NativeAttributesCollection = {
+    attributes: Object;
+    timings: Object;
+};
+
+type NativeProcessSamples = {
+    columns: string[];
+    samples: number[][];
+};
+
+/**
+ * Codegen specification of the module shared by native attribute providers.
+ */
+export interface Spec extends TurboModule {
+    configure(options: NativeAttributesConfiguration): boolean;
+    collectAll(scopes: string[]): NativeAttributesCollection;
+    getSamples(): NativeProcessSamples;
+
+    addListener(eventName: string): void;
+    removeListeners(count: number): void;
+}
+
+export default TurboModuleRegistry.get<Spec>('BacktraceAttributes');
@@ -0,0 +1,36 @@
+import { TurboModuleRegistry, type TurboModule } from 'react-native';
+
+type DirectoryEntry = {
+    name: string;
+    size: number;
+    mtime: number;
+    isDirectory: boolean;
+};
+
+type CleanupResult = {
+    deletedFiles: number;
+    deletedBytes: number;
+    remainingFiles: number;
+    remainingBytes: number;
+};
+
+/**
+ * Codegen specification of the native directory provider. See `ReactNativeDirectoryProvider`.
+ */
+export interface Spec extends TurboModule {
+    applicationDirectory(): string;
+
+    readDir(dir: string): Promise<string[]>;
+    readDirSync(dir: string): string[];
+
+    readDirStats(dir: string, glob: string): Promise<DirectoryEntry[]>;
+    readDirStatsSync(dir: string, glob: string): DirectoryEntry[];
+
+    deleteOlderThan(dir: string, glob: string, maxAge: number): Promise<CleanupResult>;
+    enforceQuota(dir: string, glob: string, maxBytes: number, maxFiles: number): Promise<CleanupResult>;
+
+    createDir(dir: string): Promise<void>;
+    createDirSync(dir: string): boolean;
+}
+
+export default TurboModuleRegistry.get<Spec>('BacktraceDirectoryProvider');
@@ -0,0 +1,54 @@
+import { TurboModuleRegistry, type TurboModule } from 'react-native';
+
+type FileSystemConfiguration = {
+    ioThreads?: number;
+};
+
+type IoMetrics = {
+    threads: number;
+    queueDepth: number;
+    maxQueueDepth: number;
+    completed: number;
+    failed: number;
+    averageWaitTime: number;
+    averageRunTime: number;
+    maxLatency: number;
+};
+
+/**
+ * Codegen specification of the native file system provider. See `ReactNativeFileProvider`.
+ */
+export interface Spec extends TurboModule {
+    readFile(path: string): Promise<string>;
+    readFileSync(path: string): string;
+    readFileRange(path: string, offset: number, length: number): Promise<string>;
+    readFileTail(path: string, bytes: number): Promise<string>;
+
+    writeFile(path: string, content: string): Promise<void>;
+    writeFileSync(path: string, content: string): boolean;
+
+    readFileBase64(path: string): Promise<string>;
+    readFileBase64Sync(path: string): string;
+    writeFileBase64(path: string, content: string): Promise<boolean>;
+    writeFileBase64Sync(path: string, content: string): boolean;
+
+    unlink(path: string): Promise<void>;
+    unlinkSync(path: string): boolean;
+    unlinkMany(paths: string[]): Promise<number>;
+
+    exists(path: string): Promise<boolean>;
+    existsSync(path: string): boolean;
+
+    copy(path: string, newPath: string): Promise<boolean>;
+    copySync(path: string, newPath: string): boolean;
+
+    compressFile(sourcePath: string, destinationPath: string, format: string, level: number): Promise<number>;
+
+    configure(options: FileSystemConfiguration): boolean;
+    getIoMetrics(): IoMetrics;
+
+    addListener(eventName: string): void;
+    removeListeners(count: number): void;
+}
+
+export default TurboModuleRegistry.get<Spec>('BacktraceFileSystemProvider');
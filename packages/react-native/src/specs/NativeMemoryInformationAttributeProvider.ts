@@ -0,0 +1,10 @@
+import { TurboModuleRegistry, type TurboModule } from 'react-native';
+
+/**
+ * Codegen specification of the native attribute provider. See `NativeAttributeProvider`.
+ */
+export interface Spec extends TurboModule {
+    get(): Object;
+}
+
+export default TurboModuleRegistry.get<Spec>('MemoryInformationAttributeProvider');
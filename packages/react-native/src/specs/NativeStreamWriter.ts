@@ -0,0 +1,28 @@
+import { TurboModuleRegistry, type TurboModule } from 'react-native';
+
+type StreamWriterConfiguration = {
+    durability?: string;
+    flushInterval?: number;
+    flushSize?: number;
+    maxOpenFiles?: number;
+};
+
+/**
+ * Codegen specification of the native stream writer. See `StreamWriter`.
+ */
+export interface Spec extends TurboModule {
+    configure(options: StreamWriterConfiguration): boolean;
+
+    create(source: string): string | undefined;
+    createRotating(sourceTemplate: string, maxBytes: number, maxLines: number, maxFiles: number): string | undefined;
+    createCompressed(path: string, level: number): string | undefined;
+    files(key: string): string[];
+
+    append(key: string, content: string): Promise<boolean>;
+    appendBatch(key: string, content: string[]): Promise<boolean>;
+
+    close(key: string): boolean;
+    flush(): boolean;
+}
+
+export default TurboModuleRegistry.get<Spec>('StreamWriter');
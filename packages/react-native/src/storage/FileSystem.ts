@@ -1,8 +1,105 @@
 import { type FileSystem as CoreFileSystem } from '@backtrace/sdk-core';
-import type { FileWritableStream } from './StreamWriter';
+import type { MappedRingBufferWritableStream, RingBufferExportOptions } from './MappedRingBufferWriter';
+import { type CleanupResult, type DirectoryEntry } from './ReactNativeDirectoryProvider';
+import { type CompressionFormat } from './ReactNativeFileProvider';
+import type {
+    CompressedFileWritableStream,
+    FileWritableStream,
+    RotatingFileLimits,
+    RotatingFileWritableStream,
+} from './StreamWriter';
 export interface FileSystem extends CoreFileSystem {
     copy(sourceFile: string, destinationFile: string): Promise<boolean>;
     copySync(sourceFile: string, destinationFile: string): boolean;
     applicationDirectory(): string;
+
+    /**
+     * Lists the directory entries which names match the glob, with their size, mtime and type.
+     * @param glob file name pattern, for example `*.json`. Matches all entries by default
+     */
+    readDirStats?(dir: string, glob?: string): Promise<DirectoryEntry[]>;
+    readDirStatsSync?(dir: string, glob?: string): DirectoryEntry[];
+
+    /**
+     * Deletes all files in one native call.
+     */
+    unlinkMany?(paths: string[]): Promise<number>;
+
+    /**
+     * Deletes files in the directory which names match the glob and which were modified more than
+     * `maxAge` milliseconds ago. Subdirectories and other files, like database bookkeeping files, are not touched.
+     */
+    deleteOlderThan?(dir: string, glob: string, maxAge: number): Promise<CleanupResult>;
+
+    /**
+     * Deletes the oldest files in the directory which names match the glob until they take
+     * at most `maxBytes` bytes in at most `maxFiles` files. `0` means no limit.
+     * Subdirectories and other files, like database bookkeeping files, are not touched.
+     */
+    enforceQuota?(dir: string, glob: string, limits: { maxBytes?: number; maxFiles?: number }): Promise<CleanupResult>;
+
+    /**
+     * Reads up to `length` bytes of the file, starting at `offset` bytes.
+     */
+    readFileRange?(path: string, offset: number, length: number): Promise<string>;
+
+    /**
+     * Reads up to the last `bytes` bytes of the file.
+     */
+    readFileTail?(path: string, bytes: number): Promise<string>;
+
+    /**
+     * Reads raw bytes of the file, encoded as base64.
+     */
+    readFileBase64?(path: string): Promise<string>;
+    readFileBase64Sync?(path: string): string;
+
+    /**
+     * Writes bytes encoded as base64 to the file.
+     */
+    writeFileBase64?(path: string, content: string): Promise<boolean>;
+    writeFileBase64Sync?(path: string, content: string): boolean;
+
+    /**
+     * Compresses the file into the destination file and resolves with the size of the compressed file.
+     * @param format compression format
+     * @param level compression level from 0 to 9, or -1 for the default level
+     */
+    compressFile?(
+        sourceFile: string,
+        destinationFile: string,
+        format: CompressionFormat,
+        level?: number,
+    ): Promise<number>;
+
     createWriteStream(path: string): FileWritableStream;
+
+    /**
+     * Creates a stream which rotates files in the native layer.
+     * Returns `undefined` if native file rotation is not supported.
+     * @param pathTemplate path to the file. `{n}` in the path is replaced with the index of the file
+     * @param limits file limits
+     */
+    createRotatingWriteStream?(
+        pathTemplate: string,
+        limits: RotatingFileLimits,
+    ): RotatingFileWritableStream | undefined;
+
+    /**
+     * Creates a stream which compresses data with GZIP in the native layer.
+     * Returns `undefined` if native compression is not supported.
+     * @param level compression level from 0 to 9, or -1 for the default level
+     */
+    createCompressedWriteStream?(path: string, level?: number): CompressedFileWritableStream | undefined;
+
+    /**
+     * Creates a stream which stores chunks in a memory-mapped ring buffer of `capacity` bytes.
+     * If export options are set, the buffer keeps a plain text copy of its records.
+     * Returns `undefined` if ring buffers are not supported.
+     */
+    createRingBufferWriteStream?(
+        path: string,
+        capacity: number,
+        exportOptions?: RingBufferExportOptions,
+    ): MappedRingBufferWritableStream | undefined;
 }
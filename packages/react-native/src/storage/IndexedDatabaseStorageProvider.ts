@@ -0,0 +1,140 @@
+import {
+    BacktraceDatabaseFileStorageProvider,
+    isFileAttachment,
+    type BacktraceDatabaseConfiguration,
+    type BacktraceDatabaseRecord,
+    type BacktraceDatabaseStorageProvider,
+} from '@backtrace/sdk-core';
+import { NativeModules, Platform } from 'react-native';
+import { type FileSystem } from './FileSystem';
+import { type ReportIndex, type ReportIndexEntry } from './ReportIndex';
+
+const INDEX_FILE_NAME = 'bt-report-index';
+
+/**
+ * Database storage provider which keeps the native report index of stored records.
+ * Records are stored by the file storage provider, but on startup only records listed in the index are read,
+ * so the database directory is not listed.
+ *
+ * If the index doesn't exist, it's built from the database directory. If the index can't be updated,
+ * it's deleted and built again on the next start.
+ */
+export class IndexedDatabaseStorageProvider implements BacktraceDatabaseStorageProvider {
+    private _indexFailed = false;
+
+    constructor(
+        private readonly _storageProvider: BacktraceDatabaseFileStorageProvider,
+        private readonly _index: ReportIndex,
+        private readonly _fileSystem: FileSystem,
+        private readonly _indexPath: string,
+    ) {}
+
+    /**
+     * Creates the provider if the native report index is available and the database is enabled.
+     */
+    public static createIfAvailable(
+        fileSystem: FileSystem | undefined,
+        options?: BacktraceDatabaseConfiguration,
+    ): IndexedDatabaseStorageProvider | undefined {
+        const index = NativeModules.BacktraceReportIndex as ReportIndex | undefined;
+        if (Platform.OS !== 'android' || !index || !fileSystem) {
+            return undefined;
+        }
+
+        const storageProvider = BacktraceDatabaseFileStorageProvider.createIfValid(fileSystem, options);
+        if (!storageProvider || !options?.path) {
+            return undefined;
+        }
+
+        return new IndexedDatabaseStorageProvider(
+            storageProvider,
+            index,
+            fileSystem,
+            `${options.path}/${INDEX_FILE_NAME}`,
+        );
+    }
+
+    public start(): boolean {
+        return this._storageProvider.start();
+    }
+
+    public add(record: BacktraceDatabaseRecord): boolean {
+        const size = this._storageProvider.write(record);
+        if (size === undefined) {
+            return false;
+        }
+
+        this.updateIndex((index) => index.put(this._indexPath, this.toEntry(record, size)));
+        return true;
+    }
+
+    public delete(record: BacktraceDatabaseRecord): boolean {
+        const result = this._storageProvider.delete(record);
+        this.updateIndex((index) => index.remove(this._indexPath, record.id));
+        return result;
+    }
+
+    public async get(): Promise<BacktraceDatabaseRecord[]> {
+        let entries: ReportIndexEntry[];
+        try {
+            if (!(await this._fileSystem.exists(this._indexPath))) {
+                return await this.rebuildIndex();
+            }
+
+            entries = await this._index.load(this._indexPath);
+        } catch {
+            this.dropIndex();
+            return this._storageProvider.get();
+        }
+
+        const records = await this._storageProvider.getByIds(entries.map((entry) => entry.id));
+        if (records.length !== entries.length) {
+            // records deleted outside of the SDK, for example sent by the native upload job, or corrupted
+            const ids = new Set(records.map((record) => record.id));
+            for (const entry of entries) {
+                if (!ids.has(entry.id)) {
+                    this.updateIndex((index) => index.remove(this._indexPath, entry.id));
+                }
+            }
+        }
+
+        return records;
+    }
+
+    private async rebuildIndex(): Promise<BacktraceDatabaseRecord[]> {
+        const records = await this._storageProvider.get();
+        for (const record of records) {
+            this.updateIndex((index) => index.put(this._indexPath, this.toEntry(record, 0)));
+        }
+        return records;
+    }
+
+    private updateIndex(operation: (index: ReportIndex) => Promise<unknown>) {
+        if (this._indexFailed) {
+            return;
+        }
+
+        operation(this._index).catch(() => this.dropIndex());
+    }
+
+    /**
+     * A partial index would hide stored records - stops updating the index and deletes it,
+     * so it's built again on the next start.
+     */
+    private dropIndex() {
+        this._indexFailed = true;
+        this._fileSystem.unlink(this._indexPath).catch(() => undefined);
+    }
+
+    private toEntry(record: BacktraceDatabaseRecord, size: number): ReportIndexEntry {
+        const attachments = record.type === 'report' ? record.attachments : record.attachment ? [record.attachment] : [];
+
+        return {
+            id: record.id,
+            timestamp: record.timestamp,
+            size,
+            attachments: attachments.filter(isFileAttachment).map((attachment) => attachment.filePath),
+            attempts: 0,
+        };
+    }
+}
@@ -0,0 +1,161 @@
+import { WritableStream } from 'web-streams-polyfill';
+import { NativeUnderlyingSink } from './StreamWriter';
+
+/**
+ * Native writer which stores data in fixed-size memory-mapped ring buffers.
+ *
+ * Appended data is copied into the mapped file, without write system calls, and survives
+ * both JavaScript and native crashes. When the buffer is full, the oldest records are dropped.
+ *
+ * The buffer file is binary. A buffer opened with an export path keeps a plain text copy of its records,
+ * one record per line, in that file. Copies of buffers open while the native crash reporter initializes
+ * are attached to native crash reports. Buffers opened later are not - the crash handler doesn't accept
+ * attachments after initialization.
+ *
+ * Available as `NativeModules.MappedRingBufferWriter` on Android.
+ */
+export interface MappedRingBufferWriter {
+    /**
+     * Opens a ring buffer. Returns a key to the buffer. Records already stored in the file are kept.
+     * @param source path to the buffer file
+     * @param capacity size of the buffer in bytes
+     * @param exportPath path to the plain text copy of the buffer, or `null` if the buffer is not exported
+     * @param maxRecords maximum number of exported records, 0 - all records
+     */
+    open(source: string, capacity: number, exportPath: string | null, maxRecords: number): string | undefined;
+
+    /**
+     * Appends a record to the buffer.
+     * @param key buffer key
+     * @param content record to append
+     */
+    append(key: string, content: string): Promise<boolean>;
+
+    /**
+     * Appends records to the buffer.
+     * @param key buffer key
+     * @param content records to append
+     */
+    appendBatch(key: string, content: string[]): Promise<boolean>;
+
+    /**
+     * Returns records stored in the buffer, from the oldest to the newest.
+     * @param key buffer key
+     */
+    read(key: string): string[];
+
+    /**
+     * Writes records stored in the buffer to its plain text copy. Records are not passed to JavaScript.
+     * Returns `false` if the buffer is not exported or the copy cannot be written.
+     * @param key buffer key
+     */
+    export(key: string): boolean;
+
+    /**
+     * Returns records stored in the buffer file, for example from the previous session.
+     * @param source path to the buffer file
+     */
+    readFile(source: string): string[];
+
+    /**
+     * Closes the buffer.
+     * @param key buffer key
+     */
+    close(key: string): boolean;
+}
+
+export interface RingBufferExportOptions {
+    /**
+     * Path to the plain text copy of the buffer.
+     */
+    readonly path: string;
+
+    /**
+     * Maximum number of exported records. All records are exported if not set.
+     */
+    readonly maxRecords?: number;
+}
+
+/**
+ * Sends chunks to a ring buffer. Every chunk is stored as one record.
+ */
+export class RingBufferNativeUnderlyingSink extends NativeUnderlyingSink {
+    constructor(
+        path: string,
+        private readonly _capacity: number,
+        private readonly _ringBufferWriter: MappedRingBufferWriter,
+        private readonly _exportOptions?: RingBufferExportOptions,
+    ) {
+        super(path, {
+            create: () => undefined,
+            append: (key, content) => _ringBufferWriter.append(key, content),
+            appendBatch: (key, content) => _ringBufferWriter.appendBatch(key, content),
+            close: (key) => _ringBufferWriter.close(key),
+        });
+    }
+
+    /**
+     * Returns records stored in the buffer, from the oldest to the newest.
+     */
+    public records(): string[] {
+        if (!this.streamId) {
+            return [];
+        }
+
+        return this._ringBufferWriter.read(this.streamId);
+    }
+
+    /**
+     * Writes records to the plain text copy of the buffer. Returns the path to the copy,
+     * or `undefined` if the buffer is not exported.
+     */
+    public export(): string | undefined {
+        if (!this.streamId || !this._exportOptions) {
+            return undefined;
+        }
+
+        return this._ringBufferWriter.export(this.streamId) ? this._exportOptions.path : undefined;
+    }
+
+    protected open(): string | undefined {
+        return this._ringBufferWriter.open(
+            this.path,
+            this._capacity,
+            this._exportOptions?.path ?? null,
+            this._exportOptions?.maxRecords ?? 0,
+        );
+    }
+}
+
+/**
+ * Writable stream which stores chunks in a memory-mapped ring buffer. See `MappedRingBufferWriter`.
+ */
+export class MappedRingBufferWritableStream extends WritableStream<string> {
+    private readonly _sink: RingBufferNativeUnderlyingSink;
+
+    constructor(
+        public readonly path: string,
+        public readonly capacity: number,
+        ringBufferWriter: MappedRingBufferWriter,
+        exportOptions?: RingBufferExportOptions,
+    ) {
+        const sink = new RingBufferNativeUnderlyingSink(path, capacity, ringBufferWriter, exportOptions);
+        super(sink);
+        this._sink = sink;
+    }
+
+    /**
+     * Returns records stored in the buffer, from the oldest to the newest.
+     */
+    public records(): string[] {
+        return this._sink.records();
+    }
+
+    /**
+     * Writes records to the plain text copy of the buffer. Returns the path to the copy,
+     * or `undefined` if the buffer is not exported.
+     */
+    public export(): string | undefined {
+        return this._sink.export();
+    }
+}
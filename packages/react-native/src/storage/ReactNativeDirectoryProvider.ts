@@ -1,9 +1,60 @@
+export interface DirectoryEntry {
+    readonly name: string;
+    /**
+     * Size in bytes.
+     */
+    readonly size: number;
+    /**
+     * Last modification time in milliseconds since the epoch.
+     */
+    readonly mtime: number;
+    readonly isDirectory: boolean;
+}
+
+/**
+ * Result of a bulk cleanup. Sizes are in bytes.
+ */
+export interface CleanupResult {
+    readonly deletedFiles: number;
+    readonly deletedBytes: number;
+    readonly remainingFiles: number;
+    readonly remainingBytes: number;
+}
+
 export interface ReactNativeDirectoryProvider {
     applicationDirectory(): string;
 
     readDir(dir: string): Promise<string[]>;
     readDirSync(dir: string): string[];
 
+    /**
+     * Lists the directory entries which names match the glob, with their stats.
+     *
+     * Not available on every platform.
+     * @param glob file name pattern, for example `*.json`. Empty string matches all entries
+     */
+    readDirStats?(dir: string, glob: string): Promise<DirectoryEntry[]>;
+    readDirStatsSync?(dir: string, glob: string): DirectoryEntry[];
+
+    /**
+     * Deletes files in the directory which names match the glob and which were modified more than
+     * `maxAge` milliseconds ago. Subdirectories and other files are not touched.
+     *
+     * Not available on every platform.
+     * @param glob file name pattern, for example `*.dmp`. Required
+     */
+    deleteOlderThan?(dir: string, glob: string, maxAge: number): Promise<CleanupResult>;
+
+    /**
+     * Deletes the oldest files in the directory which names match the glob until they take
+     * at most `maxBytes` bytes in at most `maxFiles` files. `0` means no limit.
+     * Subdirectories and other files are not touched.
+     *
+     * Not available on every platform.
+     * @param glob file name pattern, for example `*.dmp`. Required
+     */
+    enforceQuota?(dir: string, glob: string, maxBytes: number, maxFiles: number): Promise<CleanupResult>;
+
     createDir(dir: string): Promise<void>;
     createDirSync(dir: string): void;
 }
@@ -1,16 +1,116 @@
+/**
+ * Progress of a native file copy, emitted for big files.
+ */
+export interface FileCopyProgress {
+    readonly source: string;
+    readonly destination: string;
+    readonly copied: number;
+    readonly total: number;
+}
+
+export interface FileSystemConfiguration {
+    /**
+     * Number of native threads running asynchronous file operations. Operations on the same path
+     * always run in the order they were called.
+     * @default 4
+     */
+    ioThreads?: number;
+}
+
+/**
+ * Statistics of asynchronous native file operations. Times are in milliseconds.
+ */
+export interface IoMetrics {
+    readonly threads: number;
+    readonly queueDepth: number;
+    readonly maxQueueDepth: number;
+    readonly completed: number;
+    readonly failed: number;
+    readonly averageWaitTime: number;
+    readonly averageRunTime: number;
+    readonly maxLatency: number;
+}
+
+/**
+ * * `gzip` - GZIP file
+ * * `deflate` - deflate data with the zlib wrapper, as used by the HTTP `deflate` encoding
+ */
+export type CompressionFormat = 'gzip' | 'deflate';
+
 export interface ReactNativeFileProvider {
     readFile(path: string): Promise<string>;
     readFileSync(path: string): string;
 
+    /**
+     * Reads up to `length` bytes of the file, starting at `offset` bytes.
+     *
+     * Not available on every platform.
+     */
+    readFileRange?(path: string, offset: number, length: number): Promise<string>;
+
+    /**
+     * Reads up to the last `bytes` bytes of the file.
+     *
+     * Not available on every platform.
+     */
+    readFileTail?(path: string, bytes: number): Promise<string>;
+
     writeFile(path: string, content: string): Promise<void>;
     writeFileSync(path: string, content: string): void;
 
+    /**
+     * Reads and writes raw bytes of the file, encoded as base64.
+     *
+     * Not available on every platform.
+     */
+    readFileBase64?(path: string): Promise<string>;
+    readFileBase64Sync?(path: string): string;
+    writeFileBase64?(path: string, content: string): Promise<boolean>;
+    writeFileBase64Sync?(path: string, content: string): boolean;
+
     unlink(path: string): Promise<void>;
     unlinkSync(path: string): void;
 
+    /**
+     * Deletes all files and resolves with the number of paths which don't exist anymore.
+     *
+     * Not available on every platform.
+     */
+    unlinkMany?(paths: string[]): Promise<number>;
+
     exists(path: string): Promise<boolean>;
     existsSync(path: string): boolean;
 
     copy(path: string, newPath: string): Promise<boolean>;
     copySync(path: string, newPath: string): boolean;
+
+    /**
+     * Compresses the file and resolves with the size of the compressed file.
+     *
+     * Not available on every platform.
+     */
+    compressFile?(
+        sourcePath: string,
+        destinationPath: string,
+        format: CompressionFormat,
+        level: number,
+    ): Promise<number>;
+
+    /**
+     * Sets up native file operations.
+     *
+     * Not available on every platform.
+     */
+    configure?(options: FileSystemConfiguration): boolean;
+
+    /**
+     * Not available on every platform.
+     */
+    getIoMetrics?(): IoMetrics;
+
+    /**
+     * Required by `NativeEventEmitter`. Available only if the provider emits copy progress events.
+     */
+    addListener?(eventName: string): void;
+    removeListeners?(count: number): void;
 }
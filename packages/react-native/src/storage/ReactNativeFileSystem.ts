@@ -1,16 +1,50 @@
 import { type BacktraceAttachment } from '@backtrace/sdk-core';
-import { NativeModules } from 'react-native';
+import { NativeEventEmitter, NativeModules, type EmitterSubscription } from 'react-native';
 import { BacktraceFileAttachment } from '../attachment/BacktraceFileAttachment';
+import NativeBacktraceDirectoryProvider from '../specs/NativeBacktraceDirectoryProvider';
+import NativeBacktraceFileSystemProvider from '../specs/NativeBacktraceFileSystemProvider';
+import NativeStreamWriter from '../specs/NativeStreamWriter';
 import { type FileSystem } from './FileSystem';
-import { type ReactNativeDirectoryProvider } from './ReactNativeDirectoryProvider';
-import { type ReactNativeFileProvider } from './ReactNativeFileProvider';
-import { FileWritableStream, type StreamWriter } from './StreamWriter';
+import {
+    MappedRingBufferWritableStream,
+    type MappedRingBufferWriter,
+    type RingBufferExportOptions,
+} from './MappedRingBufferWriter';
+import {
+    type CleanupResult,
+    type DirectoryEntry,
+    type ReactNativeDirectoryProvider,
+} from './ReactNativeDirectoryProvider';
+import {
+    type CompressionFormat,
+    type FileCopyProgress,
+    type FileSystemConfiguration,
+    type IoMetrics,
+    type ReactNativeFileProvider,
+} from './ReactNativeFileProvider';
+import {
+    CompressedFileWritableStream,
+    FileWritableStream,
+    RotatingFileWritableStream,
+    type RotatingFileLimits,
+    type StreamWriter,
+    type StreamWriterConfiguration,
+} from './StreamWriter';
+
+const COPY_PROGRESS_EVENT = 'BacktraceFileCopyProgress';
+const DEFAULT_COMPRESSION_LEVEL = -1;
+
 export class ReactNativeFileSystem implements FileSystem {
-    private readonly _fileSystemProvider: ReactNativeFileProvider = NativeModules.BacktraceFileSystemProvider;
-    private readonly _directoryProvider: ReactNativeDirectoryProvider = NativeModules.BacktraceDirectoryProvider;
-    private readonly _streamWriter: StreamWriter = NativeModules.StreamWriter;
+    private readonly _fileSystemProvider = NativeBacktraceFileSystemProvider as ReactNativeFileProvider;
+    private readonly _directoryProvider = NativeBacktraceDirectoryProvider as ReactNativeDirectoryProvider;
+    private readonly _streamWriter = NativeStreamWriter as StreamWriter;
+    private readonly _ringBufferWriter = NativeModules.MappedRingBufferWriter as MappedRingBufferWriter | undefined;
+    private _copyEventEmitter?: NativeEventEmitter;
 
-    constructor() {
+    constructor(
+        streamWriterConfiguration?: StreamWriterConfiguration,
+        fileSystemConfiguration?: FileSystemConfiguration,
+    ) {
         if (!this._fileSystemProvider) {
             throw new Error(`Cannot setup native binding. Missing file system provider`);
         }
@@ -22,6 +56,14 @@ export class ReactNativeFileSystem implements FileSystem {
         if (!this._streamWriter) {
             throw new Error(`Cannot setup native binding. Missing AlternatingFileWriter`);
         }
+
+        if (streamWriterConfiguration) {
+            this._streamWriter.configure?.(streamWriterConfiguration);
+        }
+
+        if (fileSystemConfiguration) {
+            this._fileSystemProvider.configure?.(fileSystemConfiguration);
+        }
     }
 
     public streamWriter: StreamWriter = this._streamWriter;
@@ -38,6 +80,22 @@ export class ReactNativeFileSystem implements FileSystem {
         return this._directoryProvider.readDirSync(dir);
     }
 
+    public async readDirStats(dir: string, glob = ''): Promise<DirectoryEntry[]> {
+        if (!this._directoryProvider.readDirStats) {
+            throw new Error('Directory stats are not supported on this platform');
+        }
+
+        return this._directoryProvider.readDirStats(dir, glob);
+    }
+
+    public readDirStatsSync(dir: string, glob = ''): DirectoryEntry[] {
+        if (!this._directoryProvider.readDirStatsSync) {
+            throw new Error('Directory stats are not supported on this platform');
+        }
+
+        return this._directoryProvider.readDirStatsSync(dir, glob);
+    }
+
     public createDir(dir: string): Promise<void> {
         return this._directoryProvider.createDir(dir);
     }
@@ -54,6 +112,34 @@ export class ReactNativeFileSystem implements FileSystem {
         return this._fileSystemProvider.readFileSync(path);
     }
 
+    /**
+     * Reads up to `length` bytes of the file, starting at `offset` bytes.
+     * If the platform doesn't support ranged reads, the whole file is read and `offset` and `length`
+     * are treated as character counts.
+     */
+    public async readFileRange(path: string, offset: number, length: number): Promise<string> {
+        if (this._fileSystemProvider.readFileRange) {
+            return this._fileSystemProvider.readFileRange(path, offset, length);
+        }
+
+        const content = await this._fileSystemProvider.readFile(path);
+        return content.substring(offset, offset + length);
+    }
+
+    /**
+     * Reads up to the last `bytes` bytes of the file.
+     * If the platform doesn't support ranged reads, the whole file is read and `bytes` is treated
+     * as a character count.
+     */
+    public async readFileTail(path: string, bytes: number): Promise<string> {
+        if (this._fileSystemProvider.readFileTail) {
+            return this._fileSystemProvider.readFileTail(path, bytes);
+        }
+
+        const content = await this._fileSystemProvider.readFile(path);
+        return content.substring(Math.max(0, content.length - bytes));
+    }
+
     public writeFile(path: string, content: string): Promise<void> {
         return this._fileSystemProvider.writeFile(path, content);
     }
@@ -62,6 +148,38 @@ export class ReactNativeFileSystem implements FileSystem {
         return this._fileSystemProvider.writeFileSync(path, content);
     }
 
+    public async readFileBase64(path: string): Promise<string> {
+        if (!this._fileSystemProvider.readFileBase64) {
+            throw new Error('Binary file reads are not supported on this platform');
+        }
+
+        return this._fileSystemProvider.readFileBase64(path);
+    }
+
+    public readFileBase64Sync(path: string): string {
+        if (!this._fileSystemProvider.readFileBase64Sync) {
+            throw new Error('Binary file reads are not supported on this platform');
+        }
+
+        return this._fileSystemProvider.readFileBase64Sync(path);
+    }
+
+    public async writeFileBase64(path: string, content: string): Promise<boolean> {
+        if (!this._fileSystemProvider.writeFileBase64) {
+            throw new Error('Binary file writes are not supported on this platform');
+        }
+
+        return this._fileSystemProvider.writeFileBase64(path, content);
+    }
+
+    public writeFileBase64Sync(path: string, content: string): boolean {
+        if (!this._fileSystemProvider.writeFileBase64Sync) {
+            throw new Error('Binary file writes are not supported on this platform');
+        }
+
+        return this._fileSystemProvider.writeFileBase64Sync(path, content);
+    }
+
     public unlink(path: string): Promise<void> {
         return this._fileSystemProvider.unlink(path);
     }
@@ -70,6 +188,39 @@ export class ReactNativeFileSystem implements FileSystem {
         return this._fileSystemProvider.unlinkSync(path);
     }
 
+    /**
+     * Deletes all files and resolves with the number of paths which don't exist anymore.
+     * If the platform doesn't support bulk deletes, files are deleted one by one.
+     */
+    public async unlinkMany(paths: string[]): Promise<number> {
+        if (this._fileSystemProvider.unlinkMany) {
+            return this._fileSystemProvider.unlinkMany(paths);
+        }
+
+        const results = await Promise.allSettled(paths.map((path) => this._fileSystemProvider.unlink(path)));
+        return results.filter((result) => result.status === 'fulfilled').length;
+    }
+
+    public async deleteOlderThan(dir: string, glob: string, maxAge: number): Promise<CleanupResult> {
+        if (!this._directoryProvider.deleteOlderThan) {
+            throw new Error('Bulk cleanup is not supported on this platform');
+        }
+
+        return this._directoryProvider.deleteOlderThan(dir, glob, maxAge);
+    }
+
+    public async enforceQuota(
+        dir: string,
+        glob: string,
+        limits: { maxBytes?: number; maxFiles?: number },
+    ): Promise<CleanupResult> {
+        if (!this._directoryProvider.enforceQuota) {
+            throw new Error('Bulk cleanup is not supported on this platform');
+        }
+
+        return this._directoryProvider.enforceQuota(dir, glob, limits.maxBytes ?? 0, limits.maxFiles ?? 0);
+    }
+
     public exists(path: string): Promise<boolean> {
         return this._fileSystemProvider.exists(path);
     }
@@ -86,6 +237,48 @@ export class ReactNativeFileSystem implements FileSystem {
         return this._fileSystemProvider.copySync(sourceFile, destinationFile);
     }
 
+    /**
+     * Compresses the file natively and resolves with the size of the compressed file.
+     * @param format compression format
+     * @param level compression level from 0 to 9, or -1 for the default level
+     */
+    public async compressFile(
+        sourceFile: string,
+        destinationFile: string,
+        format: CompressionFormat,
+        level = DEFAULT_COMPRESSION_LEVEL,
+    ): Promise<number> {
+        if (!this._fileSystemProvider.compressFile) {
+            throw new Error('File compression is not supported on this platform');
+        }
+
+        return this._fileSystemProvider.compressFile(sourceFile, destinationFile, format, level);
+    }
+
+    /**
+     * Listens to the progress of big file copies.
+     * Returns `undefined` if the platform doesn't report copy progress.
+     */
+    public onCopyProgress(listener: (progress: FileCopyProgress) => void): EmitterSubscription | undefined {
+        if (!this._fileSystemProvider.addListener) {
+            return undefined;
+        }
+
+        if (!this._copyEventEmitter) {
+            this._copyEventEmitter = new NativeEventEmitter(NativeBacktraceFileSystemProvider);
+        }
+
+        return this._copyEventEmitter.addListener(COPY_PROGRESS_EVENT, listener);
+    }
+
+    /**
+     * Returns statistics of asynchronous native file operations, or `undefined`
+     * if the platform doesn't collect them.
+     */
+    public getIoMetrics(): IoMetrics | undefined {
+        return this._fileSystemProvider.getIoMetrics?.();
+    }
+
     public createAttachment(path: string, name?: string | undefined): BacktraceAttachment<unknown> {
         return new BacktraceFileAttachment(this, path, name);
     }
@@ -93,4 +286,38 @@ export class ReactNativeFileSystem implements FileSystem {
     public createWriteStream(path: string): FileWritableStream {
         return new FileWritableStream(path, this.streamWriter);
     }
+
+    public createRotatingWriteStream(
+        pathTemplate: string,
+        limits: RotatingFileLimits,
+    ): RotatingFileWritableStream | undefined {
+        if (!this.streamWriter.createRotating) {
+            return undefined;
+        }
+
+        return new RotatingFileWritableStream(pathTemplate, limits, this.streamWriter);
+    }
+
+    public createCompressedWriteStream(
+        path: string,
+        level = DEFAULT_COMPRESSION_LEVEL,
+    ): CompressedFileWritableStream | undefined {
+        if (!this.streamWriter.createCompressed) {
+            return undefined;
+        }
+
+        return new CompressedFileWritableStream(path, level, this.streamWriter);
+    }
+
+    public createRingBufferWriteStream(
+        path: string,
+        capacity: number,
+        exportOptions?: RingBufferExportOptions,
+    ): MappedRingBufferWritableStream | undefined {
+        if (!this._ringBufferWriter) {
+            return undefined;
+        }
+
+        return new MappedRingBufferWritableStream(path, capacity, this._ringBufferWriter, exportOptions);
+    }
 }
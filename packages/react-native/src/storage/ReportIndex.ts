@@ -0,0 +1,51 @@
+export interface ReportIndexEntry {
+    readonly id: string;
+    /**
+     * Report creation time in milliseconds since the epoch.
+     */
+    readonly timestamp: number;
+    /**
+     * Size of the stored report in bytes.
+     */
+    readonly size: number;
+    readonly attachments: string[];
+    /**
+     * Number of send attempts.
+     */
+    readonly attempts: number;
+}
+
+/**
+ * Native index of stored reports. Reading the index on startup replaces reading and parsing every stored report.
+ *
+ * The index is an append-only journal. Every line is checked with CRC32, so lines torn by a crash
+ * are skipped. All operations on one index run in the order they were called.
+ *
+ * Available as `NativeModules.BacktraceReportIndex` on Android.
+ */
+export interface ReportIndex {
+    /**
+     * Returns all reports in the index, in the order they were added.
+     * @param indexPath path to the index file
+     */
+    load(indexPath: string): Promise<ReportIndexEntry[]>;
+
+    /**
+     * Adds the report to the index or replaces it.
+     * @param indexPath path to the index file
+     */
+    put(indexPath: string, entry: ReportIndexEntry): Promise<boolean>;
+
+    /**
+     * Increments the number of send attempts of the report.
+     * Returns the new number of attempts, or `-1` if the report is not in the index.
+     * @param indexPath path to the index file
+     */
+    incrementAttempts(indexPath: string, id: string): Promise<number>;
+
+    /**
+     * Removes the report from the index. Returns `true` if the report was in the index.
+     * @param indexPath path to the index file
+     */
+    remove(indexPath: string, id: string): Promise<boolean>;
+}
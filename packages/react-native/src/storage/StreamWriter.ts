@@ -1,11 +1,71 @@
 import { WritableStream } from 'web-streams-polyfill';
 
+export interface StreamWriterConfiguration {
+    /**
+     * Determines what happens with appended data when pending writes are committed:
+     * * `none` - data stays in the native buffer until the buffer is full or the file is closed
+     * * `flush` - data is flushed to the operating system and survives application crashes
+     * * `fsync` - data is flushed and synchronized to the storage device
+     * @default 'flush'
+     */
+    durability?: 'none' | 'flush' | 'fsync';
+
+    /**
+     * Maximum time in milliseconds between appending data and committing it.
+     * @default 100
+     */
+    flushInterval?: number;
+
+    /**
+     * Number of pending bytes which triggers a commit.
+     * @default 65536
+     */
+    flushSize?: number;
+
+    /**
+     * Maximum number of files kept open at once. Least recently written files are closed
+     * and reopened on the next write.
+     * @default 16
+     */
+    maxOpenFiles?: number;
+}
+
 export interface StreamWriter {
     /**
      * Creates a new stream writer. Returns a key to stream writer.
      * @param source path to the file
      */
     create(source: string): string | undefined;
+
+    /**
+     * Creates a new stream writer which rolls over to a new file when the current file
+     * reaches one of the limits. Only the newest `maxFiles` files are kept.
+     *
+     * Not available on every platform.
+     * @param sourceTemplate path to the file. `{n}` in the path is replaced with the index of the file
+     * @param maxBytes maximum size of one file in bytes. `0` - no limit
+     * @param maxLines maximum number of lines in one file. `0` - no limit
+     * @param maxFiles maximum number of files
+     */
+    createRotating?(sourceTemplate: string, maxBytes: number, maxLines: number, maxFiles: number): string | undefined;
+
+    /**
+     * Returns paths to all files written by the stream writer, from the oldest to the newest.
+     *
+     * Not available on every platform.
+     * @param key stream writer key
+     */
+    files?(key: string): string[];
+    /**
+     * Creates a new stream writer which compresses appended data with GZIP.
+     * Returns a key to the stream writer or `undefined` if the writer can't be created.
+     *
+     * Not available on every platform.
+     * @param path path to the file
+     * @param level compression level from 0 to 9, or -1 for the default level
+     */
+    createCompressed?(path: string, level: number): string | undefined;
+
     /**
      * Appends a string to a file using a stream writer pointed by the key
      * @param key stream writer key
@@ -13,11 +73,53 @@ export interface StreamWriter {
      */
     append(key: string, content: string): Promise<boolean>;
 
+    /**
+     * Appends multiple strings to a file using a stream writer pointed by the key.
+     * The file is flushed once, after all strings are written.
+     *
+     * Not available on every platform - use `append` if the method is not defined.
+     * @param key stream writer key
+     * @param content content to append
+     */
+    appendBatch?(key: string, content: string[]): Promise<boolean>;
+
     /**
      * Closes the stream writer
      * @param key stream writer key
      */
     close(key: string): boolean;
+
+    /**
+     * Sets the commit policy of all stream writers.
+     *
+     * Not available on every platform.
+     * @param options commit policy
+     */
+    configure?(options: StreamWriterConfiguration): boolean;
+
+    /**
+     * Commits all pending writes.
+     *
+     * Not available on every platform.
+     */
+    flush?(): boolean;
+}
+
+export interface RotatingFileLimits {
+    /**
+     * Maximum size of one file in bytes.
+     */
+    readonly maxBytes?: number;
+
+    /**
+     * Maximum number of lines in one file.
+     */
+    readonly maxLines?: number;
+
+    /**
+     * Maximum number of files.
+     */
+    readonly maxFiles: number;
 }
 
 export class FileWritableStream extends WritableStream {
@@ -29,26 +131,105 @@ export class FileWritableStream extends WritableStream {
     }
 }
 
+/**
+ * Writable stream which rotates files natively. See `StreamWriter.createRotating`.
+ */
+export class RotatingFileWritableStream extends WritableStream<string> {
+    private readonly _sink: RotatingNativeUnderlyingSink;
+
+    /**
+     * Returns all files that have been written to and are not deleted.
+     */
+    public get files(): string[] {
+        return this._sink.files();
+    }
+
+    constructor(
+        public readonly path: string,
+        limits: RotatingFileLimits,
+        streamWriter: StreamWriter,
+    ) {
+        const sink = new RotatingNativeUnderlyingSink(path, limits, streamWriter);
+        super(sink);
+        this._sink = sink;
+    }
+}
+
+/**
+ * Writable stream which compresses data natively with GZIP. See `StreamWriter.createCompressed`.
+ */
+export class CompressedFileWritableStream extends WritableStream<string> {
+    constructor(
+        public readonly path: string,
+        level: number,
+        streamWriter: StreamWriter,
+    ) {
+        super(new CompressedNativeUnderlyingSink(path, level, streamWriter));
+    }
+}
+
 export class NativeUnderlyingSink implements UnderlyingSink<string> {
+    /**
+     * Open sinks, so batches of all of them can be written at once.
+     */
+    private static readonly _openSinks = new Set<NativeUnderlyingSink>();
+
     private _streamId?: string;
 
+    /**
+     * Chunks waiting to be sent to the native layer in one batch.
+     */
+    private _batch: string[] = [];
+
+    /**
+     * Resolves when all scheduled batches are written.
+     */
+    private _batchWrite?: Promise<void>;
+    private _batchError?: Error;
+    private _batchTimer?: ReturnType<typeof setTimeout>;
+    private _cancelBatch?: () => void;
+    private _runBatch?: () => void;
+    private _aborted = false;
+
+    /**
+     * Errors the stream when a batch fails, so writers waiting on the stream are rejected.
+     */
+    private _controller?: WritableStreamDefaultController;
+
+    public get streamId() {
+        return this._streamId;
+    }
+
+    /**
+     * Sends chunks batched by all open sinks to the native layer without waiting for the next tick,
+     * so they don't stay in the JavaScript heap. Resolves when the batches are written.
+     */
+    public static async flushAll(): Promise<void> {
+        await Promise.all([...NativeUnderlyingSink._openSinks].map((sink) => sink.writePendingBatch()));
+    }
+
     constructor(
         public readonly path: string,
-        private readonly _streamWriter: StreamWriter,
+        protected readonly _streamWriter: StreamWriter,
     ) {}
 
-    public async start() {
-        this._streamId = this._streamWriter.create(this.path);
+    public async start(controller?: WritableStreamDefaultController) {
+        this._controller = controller;
+        this._streamId = this.open();
         if (!this._streamId) {
             throw new Error(`Failed to open file ${this.path}.`);
         }
+        NativeUnderlyingSink._openSinks.add(this);
     }
 
-    public close() {
+    public async close() {
         if (!this._streamId) {
             return;
         }
 
+        NativeUnderlyingSink._openSinks.delete(this);
+        await this.flush();
+
         if (!this._streamWriter.close(this._streamId)) {
             throw new Error(`Failed to close file ${this.path}.`);
         }
@@ -59,16 +240,163 @@ export class NativeUnderlyingSink implements UnderlyingSink<string> {
             throw new Error('File is not open.');
         }
 
-        if (!(await this._streamWriter.append(this._streamId, chunk))) {
-            throw new Error(`Failed to write data to file ${this.path}.`);
+        this.throwIfBatchFailed();
+
+        if (!this._streamWriter.appendBatch) {
+            if (!(await this._streamWriter.append(this._streamId, chunk))) {
+                throw new Error(`Failed to write data to file ${this.path}.`);
+            }
+            return;
+        }
+
+        // Chunks written in the same tick are sent to the native layer together
+        this._batch.push(chunk);
+        if (this._batch.length === 1) {
+            const previousBatch = this._batchWrite ?? Promise.resolve();
+            this._batchWrite = previousBatch.then(() => this.scheduleBatch());
         }
     }
 
     public abort() {
+        this._aborted = true;
+        this._batch = [];
+        if (this._batchTimer !== undefined) {
+            clearTimeout(this._batchTimer);
+            this._batchTimer = undefined;
+        }
+        this._runBatch = undefined;
+        this._cancelBatch?.();
+        NativeUnderlyingSink._openSinks.delete(this);
         if (!this._streamId) {
             return;
         }
 
         this._streamWriter.close(this._streamId);
     }
+
+    /**
+     * Waits until all batched chunks are written to the file.
+     */
+    public async flush() {
+        await this._batchWrite;
+        this.throwIfBatchFailed();
+    }
+
+    protected open(): string | undefined {
+        return this._streamWriter.create(this.path);
+    }
+
+    /**
+     * Writes the batch in the next tick, so chunks written in the current tick are added to it.
+     */
+    private scheduleBatch(): Promise<void> {
+        if (this._aborted) {
+            return Promise.resolve();
+        }
+
+        return new Promise((resolve) => {
+            const run = () => {
+                this._batchTimer = undefined;
+                this._cancelBatch = undefined;
+                this._runBatch = undefined;
+                this.writeBatch().then(resolve);
+            };
+            this._cancelBatch = resolve;
+            this._runBatch = run;
+            this._batchTimer = setTimeout(run, 0);
+        });
+    }
+
+    /**
+     * Writes the batch scheduled for the next tick now and waits until all batches are written.
+     * Errors are reported by the next write.
+     */
+    private async writePendingBatch() {
+        const run = this._runBatch;
+        if (run) {
+            clearTimeout(this._batchTimer);
+            run();
+        }
+        await this._batchWrite;
+    }
+
+    private async writeBatch() {
+        const batch = this._batch;
+        this._batch = [];
+        if (this._aborted || !batch.length || !this._streamId || !this._streamWriter.appendBatch) {
+            return;
+        }
+
+        let error: Error | undefined;
+        try {
+            if (!(await this._streamWriter.appendBatch(this._streamId, batch))) {
+                error = new Error(`Failed to write data to file ${this.path}.`);
+            }
+        } catch (err) {
+            error = err instanceof Error ? err : new Error(`Failed to write data to file ${this.path}.`);
+        }
+
+        if (error) {
+            this._batchError = error;
+            // writes of the batch already resolved - error the stream to reject pending and next writes
+            this._controller?.error(error);
+        }
+    }
+
+    private throwIfBatchFailed() {
+        const error = this._batchError;
+        if (error) {
+            this._batchError = undefined;
+            throw error;
+        }
+    }
+}
+
+export class RotatingNativeUnderlyingSink extends NativeUnderlyingSink {
+    constructor(
+        path: string,
+        private readonly _limits: RotatingFileLimits,
+        streamWriter: StreamWriter,
+    ) {
+        super(path, streamWriter);
+    }
+
+    public files(): string[] {
+        if (!this.streamId || !this._streamWriter.files) {
+            return [];
+        }
+
+        return this._streamWriter.files(this.streamId);
+    }
+
+    protected open(): string | undefined {
+        if (!this._streamWriter.createRotating) {
+            throw new Error('File rotation is not supported.');
+        }
+
+        return this._streamWriter.createRotating(
+            this.path,
+            this._limits.maxBytes ?? 0,
+            this._limits.maxLines ?? 0,
+            this._limits.maxFiles,
+        );
+    }
+}
+
+export class CompressedNativeUnderlyingSink extends NativeUnderlyingSink {
+    constructor(
+        path: string,
+        private readonly _level: number,
+        streamWriter: StreamWriter,
+    ) {
+        super(path, streamWriter);
+    }
+
+    protected open(): string | undefined {
+        if (!this._streamWriter.createCompressed) {
+            throw new Error('File compression is not supported.');
+        }
+
+        return this._streamWriter.createCompressed(this.path, this._level);
+    }
 }
@@ -1,5 +1,8 @@
 export * from './FileSystem';
+export * from './IndexedDatabaseStorageProvider';
+export * from './MappedRingBufferWriter';
 export * from './ReactNativeDirectoryProvider';
 export * from './ReactNativeFileProvider';
 export * from './ReactNativeFileSystem';
+export * from './ReportIndex';
 export * from './StreamWriter';
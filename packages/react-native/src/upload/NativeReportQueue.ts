@@ -0,0 +1,213 @@
+import {
+    BacktraceReportSubmissionResult,
+    DEFAULT_TIMEOUT,
+    IdGenerator,
+    SubmissionUrlInformation,
+    type BacktraceAttachment,
+    type BacktraceSubmitResponse,
+} from '@backtrace/sdk-core';
+import { NativeEventEmitter, NativeModules, Platform } from 'react-native';
+import { BacktraceFileAttachment } from '../attachment/BacktraceFileAttachment';
+import { type BacktraceConfiguration } from '../BacktraceConfiguration';
+import { type FileSystem } from '../storage/FileSystem';
+import {
+    type NativeReportUploader,
+    type NativeReportUploaderConfiguration,
+    type NativeUploadAttempt,
+} from './NativeReportUploader';
+
+const UPLOAD_ATTEMPT_EVENT = 'BacktraceUploadAttempt';
+
+/**
+ * Hands reports over to the native uploader. The report JSON and text attachments are written to the native
+ * queue directory, file attachments are passed by path, and the native uploader streams them from disk.
+ *
+ * Files written by the queue belong to the native uploader and are deleted once the report is sent or dropped.
+ * File attachments are never deleted.
+ */
+export class NativeReportQueue {
+    private readonly _emitter: NativeEventEmitter;
+    private _queueDirectory?: Promise<string>;
+
+    constructor(
+        private readonly _uploader: NativeReportUploader,
+        private readonly _fileSystem: FileSystem,
+        private readonly _timeout: number,
+    ) {
+        this._emitter = new NativeEventEmitter(_uploader);
+    }
+
+    /**
+     * Creates the queue if the native uploader is available and enabled.
+     * Configures the uploader and schedules reports queued by previous sessions. If the report database
+     * is enabled, the native upload job sends reports left in it after the client stops.
+     */
+    public static create(
+        fileSystem: FileSystem | undefined,
+        options: BacktraceConfiguration,
+    ): NativeReportQueue | undefined {
+        const uploader = NativeModules.BacktraceReportUploader as NativeReportUploader | undefined;
+        if (Platform.OS !== 'android' || !uploader || !fileSystem || options.nativeUploader?.enable === false) {
+            return undefined;
+        }
+
+        const timeout = options.timeout ?? DEFAULT_TIMEOUT;
+        const configuration: NativeReportUploaderConfiguration = { timeout, ...options.nativeUploader };
+        if (options.database?.enable && options.database.path) {
+            configuration.databaseDirectory = options.database.path;
+            configuration.submissionUrl = SubmissionUrlInformation.toJsonReportSubmissionUrl(
+                options.url,
+                options.token,
+            );
+        }
+
+        uploader.configure(configuration);
+        uploader.resume();
+        return new NativeReportQueue(uploader, fileSystem, timeout);
+    }
+
+    /**
+     * Stores the report in the native queue and waits for the first upload attempt.
+     *
+     * Resolves with `Ok` once the native uploader owns the report, even if the first attempt will be retried
+     * or didn't finish in time, so the report is not sent again from JavaScript.
+     * Resolves with `undefined` if attachments can't be passed to the native uploader.
+     */
+    public async enqueue<T>(
+        submissionUrl: string,
+        dataJson: string,
+        attachments: BacktraceAttachment<unknown>[],
+        abortSignal?: AbortSignal,
+    ): Promise<BacktraceReportSubmissionResult<T> | undefined> {
+        const id = IdGenerator.uuid();
+        const directory = await this.getQueueDirectory();
+        const reportPath = `${directory}/${id}.json`;
+        const ownedFiles = [reportPath];
+        const attachmentPaths: Record<string, string> = {};
+
+        const textAttachments: [string, string][] = [];
+        for (const attachment of attachments) {
+            if (attachment instanceof BacktraceFileAttachment) {
+                attachmentPaths[attachment.name] = attachment.filePath;
+                continue;
+            }
+
+            const data = attachment.get();
+            if (data === undefined || data === null) {
+                continue;
+            }
+            if (typeof data !== 'string') {
+                return undefined;
+            }
+
+            const path = `${directory}/${id}-${textAttachments.length}.attachment`;
+            textAttachments.push([path, data]);
+            attachmentPaths[attachment.name] = path;
+            ownedFiles.push(path);
+        }
+
+        if (abortSignal?.aborted) {
+            return BacktraceReportSubmissionResult.OnNetworkingError('Aborted');
+        }
+
+        try {
+            await this._fileSystem.writeFile(reportPath, dataJson);
+            for (const [path, data] of textAttachments) {
+                await this._fileSystem.writeFile(path, data);
+            }
+        } catch (err) {
+            await this.unlink(ownedFiles);
+            return BacktraceReportSubmissionResult.OnUnknownError(
+                err instanceof Error ? err.message : 'Cannot store the report',
+            );
+        }
+
+        const attempt = this.waitForAttempt(id, abortSignal);
+        try {
+            await this._uploader.enqueue({
+                id,
+                url: submissionUrl,
+                reportPath,
+                attachments: attachmentPaths,
+                ownedFiles,
+            });
+        } catch (err) {
+            attempt.cancel();
+            await this.unlink(ownedFiles);
+            return BacktraceReportSubmissionResult.OnUnknownError(
+                err instanceof Error ? err.message : 'Cannot enqueue the report',
+            );
+        }
+
+        return NativeReportQueue.toSubmissionResult<T>(await attempt.result);
+    }
+
+    private getQueueDirectory(): Promise<string> {
+        if (!this._queueDirectory) {
+            const directory = this._uploader.getQueueDirectory();
+            this._queueDirectory = this._fileSystem.createDir(directory).then(() => directory);
+            this._queueDirectory.catch(() => {
+                this._queueDirectory = undefined;
+            });
+        }
+        return this._queueDirectory;
+    }
+
+    private waitForAttempt(
+        id: string,
+        abortSignal?: AbortSignal,
+    ): { result: Promise<NativeUploadAttempt | undefined>; cancel: () => void } {
+        let cancel: () => void = () => undefined;
+        const result = new Promise<NativeUploadAttempt | undefined>((resolve) => {
+            const subscription = this._emitter.addListener(UPLOAD_ATTEMPT_EVENT, (attempt: NativeUploadAttempt) => {
+                if (attempt.id === id) {
+                    resolve(attempt);
+                    cancel();
+                }
+            });
+            const timeoutId = setTimeout(() => cancel(), this._timeout);
+            const onAbort = () => cancel();
+            abortSignal?.addEventListener('abort', onAbort);
+
+            cancel = () => {
+                subscription.remove();
+                clearTimeout(timeoutId);
+                abortSignal?.removeEventListener('abort', onAbort);
+                resolve(undefined);
+            };
+        });
+        return { result, cancel: () => cancel() };
+    }
+
+    private async unlink(paths: string[]) {
+        await Promise.allSettled(paths.map((path) => this._fileSystem.unlink(path)));
+    }
+
+    private static toSubmissionResult<T>(attempt?: NativeUploadAttempt): BacktraceReportSubmissionResult<T> {
+        if (!attempt || attempt.willRetry) {
+            const queued: BacktraceSubmitResponse = { response: 'queued' };
+            return BacktraceReportSubmissionResult.Ok(queued as T);
+        }
+
+        if (attempt.success) {
+            try {
+                return BacktraceReportSubmissionResult.Ok(JSON.parse(attempt.response) as T);
+            } catch {
+                const response: BacktraceSubmitResponse = { response: attempt.response };
+                return BacktraceReportSubmissionResult.Ok(response as T);
+            }
+        }
+
+        switch (attempt.status) {
+            case -1:
+                return BacktraceReportSubmissionResult.OnNetworkingError(attempt.response);
+            case 401:
+            case 403:
+                return BacktraceReportSubmissionResult.OnInvalidToken();
+            case 429:
+                return BacktraceReportSubmissionResult.OnLimitReached();
+            default:
+                return BacktraceReportSubmissionResult.OnInternalServerError(attempt.response);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+export interface NativeReportUploaderConfiguration {
+    /**
+     * Sends reports through the native uploader instead of `fetch`.
+     * @default true
+     */
+    enable?: boolean;
+
+    /**
+     * Directory where queued uploads are persisted.
+     * @default `${filesDir}/backtrace/uploads`
+     */
+    queueDirectory?: string;
+
+    /**
+     * Maximum number of uploads running at once.
+     * @default 2
+     */
+    maxConcurrency?: number;
+
+    /**
+     * Maximum number of attempts of one upload.
+     * @default 5
+     */
+    maxAttempts?: number;
+
+    /**
+     * Delay in milliseconds before the first retry. Every next retry waits twice as long.
+     * @default 5000
+     */
+    baseDelay?: number;
+
+    /**
+     * Maximum delay in milliseconds between retries.
+     * @default 600000
+     */
+    maxDelay?: number;
+
+    /**
+     * Connection and read timeout in milliseconds.
+     * @default 15000
+     */
+    timeout?: number;
+
+    /**
+     * Directory of the report database. The background upload job sends reports left in the database
+     * once the client stops. Set by the client.
+     */
+    databaseDirectory?: string;
+
+    /**
+     * Submission URL of reports left in the report database. Set by the client.
+     */
+    submissionUrl?: string;
+}
+
+export interface NativeUploadRequest {
+    /**
+     * Submission URL.
+     */
+    readonly url: string;
+
+    /**
+     * Path to the report JSON.
+     */
+    readonly reportPath: string;
+
+    /**
+     * Attachment paths by attachment name.
+     */
+    readonly attachments?: Record<string, string>;
+
+    /**
+     * Upload id. Generated if not defined.
+     */
+    readonly id?: string;
+
+    /**
+     * Paths of files which belong to the queue. They're deleted once the upload succeeds or is dropped.
+     * By default the queue owns the report and all attachments.
+     */
+    readonly ownedFiles?: string[];
+}
+
+/**
+ * Emitted as `BacktraceUploadAttempt` after every upload attempt.
+ */
+export interface NativeUploadAttempt {
+    readonly id: string;
+    /**
+     * HTTP status, or `-1` if no response was received.
+     */
+    readonly status: number;
+    readonly success: boolean;
+    readonly willRetry: boolean;
+    readonly attempts: number;
+    readonly response: string;
+}
+
+/**
+ * Native uploader which streams reports and attachments from disk, without loading them into the JavaScript heap.
+ * Reports without attachments are sent as JSON, reports with attachments as multipart form data.
+ *
+ * Queued uploads are persisted and retried with exponential backoff, also after the application restarts.
+ *
+ * Available as `NativeModules.BacktraceReportUploader` on Android.
+ */
+export interface NativeReportUploader {
+    configure(options: NativeReportUploaderConfiguration): boolean;
+
+    /**
+     * Stores the upload in the queue and sends it in the background. Returns the upload id.
+     */
+    enqueue(request: NativeUploadRequest): Promise<string>;
+
+    /**
+     * Schedules uploads queued by previous sessions. Returns the number of scheduled uploads.
+     */
+    resume(): number;
+
+    getPendingCount(): number;
+
+    /**
+     * Returns the directory where queued uploads are persisted.
+     */
+    getQueueDirectory(): string;
+
+    addListener(eventName: string): void;
+    removeListeners(count: number): void;
+}
@@ -0,0 +1,2 @@
+export * from './NativeReportQueue';
+export * from './NativeReportUploader';
@@ -0,0 +1,92 @@
+import { NativeModules } from 'react-native';
+import { BacktraceClient } from '../src/BacktraceClient';
+import { CrashReporter } from '../src/crashReporter/CrashReporter';
+import { mockStreamFileSystem } from './_mocks/fileSystem';
+
+jest.mock('react-native', () => {
+    const reactNative = jest.requireActual('react-native');
+    reactNative.NativeModules.BacktraceReactNative = {
+        initializeAsync: jest.fn(),
+        updateAttributes: jest.fn(),
+        useAttributes: jest.fn(),
+        crash: jest.fn(),
+    };
+    return reactNative;
+});
+
+const nativeCrashReporter = NativeModules.BacktraceReactNative as Record<string, jest.Mock>;
+
+const flushPromises = () => new Promise((resolve) => setTimeout(resolve, 0));
+
+function createClient() {
+    return new BacktraceClient({
+        options: {
+            url: 'https://submit.backtrace.io/test/token/json',
+            captureUnhandledErrors: false,
+            captureUnhandledPromiseRejections: false,
+            breadcrumbs: { enable: false },
+            metrics: { enable: false },
+            database: { enable: true, path: '/database', autoSend: false, captureNativeCrashes: true },
+        },
+        fileSystem: mockStreamFileSystem(),
+    });
+}
+
+describe('BacktraceClient native crash reporter', () => {
+    let client: BacktraceClient | undefined;
+
+    beforeAll(() => {
+        (global as unknown as { nativeCallSyncHook: boolean }).nativeCallSyncHook = true;
+    });
+
+    beforeEach(() => {
+        for (const mock of Object.values(nativeCrashReporter)) {
+            mock.mockReset();
+        }
+    });
+
+    afterEach(() => {
+        client?.dispose();
+        client = undefined;
+        // the native crash reporter can be initialized once per process
+        (CrashReporter as unknown as { initialized: boolean }).initialized = false;
+    });
+
+    it('should resolve nativeCrashReporterReady with true when the native module initializes', async () => {
+        nativeCrashReporter.initializeAsync.mockResolvedValue(true);
+        client = createClient();
+
+        client.initialize();
+
+        expect(await client.nativeCrashReporterReady).toBe(true);
+        expect(nativeCrashReporter.initializeAsync).toHaveBeenCalledTimes(1);
+    });
+
+    it('should resolve nativeCrashReporterReady with false when the native module fails', async () => {
+        nativeCrashReporter.initializeAsync.mockResolvedValue(false);
+        client = createClient();
+
+        client.initialize();
+
+        expect(await client.nativeCrashReporterReady).toBe(false);
+    });
+
+    it('should send only changed attributes with the version returned by the previous update', async () => {
+        nativeCrashReporter.initializeAsync.mockResolvedValue(true);
+        nativeCrashReporter.updateAttributes.mockReturnValueOnce(1).mockReturnValueOnce(2);
+        client = createClient();
+        client.initialize();
+        await client.nativeCrashReporterReady;
+
+        client.addAttribute({ 'custom.changed': 'first', 'custom.unchanged': 'value' });
+        await flushPromises();
+        client.addAttribute({ 'custom.changed': 'second' });
+        await flushPromises();
+
+        expect(nativeCrashReporter.updateAttributes).toHaveBeenCalledTimes(2);
+        const [firstAttributes, firstVersion] = nativeCrashReporter.updateAttributes.mock.calls[0];
+        expect(firstAttributes).toMatchObject({ 'custom.changed': 'first', 'custom.unchanged': 'value' });
+        expect(firstVersion).toBe(-1);
+        expect(nativeCrashReporter.updateAttributes).toHaveBeenLastCalledWith({ 'custom.changed': 'second' }, 1);
+    });
+});
@@ -0,0 +1,74 @@
+import { BreadcrumbLogLevel, BreadcrumbType, type BacktraceBreadcrumbs } from '@backtrace/sdk-core';
+import { NativeMemoryPressure, type MemoryPressureEvent } from '../../src/attributes/NativeMemoryPressure';
+import { MemoryPressureBreadcrumbSubscriber } from '../../src/breadcrumbs/events/MemoryPressureBreadcrumbSubscriber';
+import { NativeUnderlyingSink } from '../../src/storage/StreamWriter';
+
+jest.mock('../../src/attributes/NativeMemoryPressure', () => ({
+    NativeMemoryPressure: { addListener: jest.fn() },
+}));
+
+function startSubscriber(breadcrumbsType: BreadcrumbType) {
+    let listener: ((event: MemoryPressureEvent) => void) | undefined;
+    (NativeMemoryPressure.addListener as jest.Mock).mockImplementation((callback) => {
+        listener = callback;
+        return { remove: jest.fn() };
+    });
+
+    const breadcrumbs = {
+        breadcrumbsType,
+        addBreadcrumb: jest.fn(),
+        trim: jest.fn(),
+    } as unknown as jest.Mocked<Required<BacktraceBreadcrumbs>>;
+    new MemoryPressureBreadcrumbSubscriber().start(breadcrumbs);
+
+    return {
+        breadcrumbs,
+        emit: (event: MemoryPressureEvent) => listener?.(event),
+    };
+}
+
+describe('MemoryPressureBreadcrumbSubscriber', () => {
+    let flushAll: jest.SpyInstance;
+
+    beforeEach(() => {
+        flushAll = jest.spyOn(NativeUnderlyingSink, 'flushAll').mockResolvedValue();
+    });
+
+    afterEach(() => {
+        flushAll.mockRestore();
+    });
+
+    it('should add a breadcrumb and write pending batches on memory pressure', () => {
+        const { breadcrumbs, emit } = startSubscriber(BreadcrumbType.System);
+
+        emit({ level: 10, name: 'running_low' });
+
+        expect(breadcrumbs.addBreadcrumb).toHaveBeenCalledWith(
+            'Detected memory pressure. Level: running_low',
+            BreadcrumbLogLevel.Warning,
+            BreadcrumbType.System,
+            { level: 'running_low' },
+        );
+        expect(flushAll).toHaveBeenCalledTimes(1);
+        expect(breadcrumbs.trim).not.toHaveBeenCalled();
+    });
+
+    it('should trim breadcrumbs from the running_critical level', () => {
+        const { breadcrumbs, emit } = startSubscriber(BreadcrumbType.System);
+
+        emit({ level: 15, name: 'running_critical' });
+        emit({ level: 80, name: 'complete' });
+
+        expect(breadcrumbs.trim).toHaveBeenCalledTimes(2);
+    });
+
+    it('should release memory if system breadcrumbs are disabled', () => {
+        const { breadcrumbs, emit } = startSubscriber(BreadcrumbType.Manual);
+
+        emit({ level: 15, name: 'running_critical' });
+
+        expect(breadcrumbs.addBreadcrumb).not.toHaveBeenCalled();
+        expect(breadcrumbs.trim).toHaveBeenCalledTimes(1);
+        expect(flushAll).toHaveBeenCalledTimes(1);
+    });
+});
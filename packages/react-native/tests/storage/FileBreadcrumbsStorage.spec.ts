@@ -2,6 +2,8 @@ import { Breadcrumb, BreadcrumbLogLevel, BreadcrumbType, RawBreadcrumb, SessionF
 import { MockedFileSystem } from '@backtrace/sdk-core/tests/_mocks/fileSystem';
 import assert from 'assert';
 import { promisify } from 'util';
+import { WritableStream } from 'web-streams-polyfill';
+import { BacktraceFileAttachment } from '../../src/attachment/BacktraceFileAttachment';
 import { FileBreadcrumbsStorage } from '../../src/breadcrumbs/FileBreadcrumbsStorage';
 import { FileSystem } from '../../src/storage/FileSystem';
 import { FileLocation } from '../../src/types/FileLocation';
@@ -413,4 +415,89 @@ describe('FileBreadcrumbsStorage', () => {
         expect(fallbackAttachment?.name).toEqual(expect.stringMatching(/^bt-breadcrumbs-0/));
         expect(mainAttachment?.name).toEqual(expect.stringMatching(/^bt-breadcrumbs-1/));
     });
+
+    it('should use native file rotation if available', async () => {
+        const fs = mockStreamFileSystem();
+        const session = new SessionFiles(fs, '.', { id: 'sessionId', timestamp: Date.now() });
+        const written: string[] = [];
+        const files = ['bt-breadcrumbs-0', 'bt-breadcrumbs-1'];
+        fs.createRotatingWriteStream = jest.fn().mockImplementation((path: string) => {
+            const stream = new WritableStream<string>({
+                write(chunk) {
+                    written.push(chunk);
+                },
+            });
+            return Object.assign(stream, { path, files });
+        });
+
+        const storage = new FileBreadcrumbsStorage(session, fs, {
+            maximumBreadcrumbs: 4,
+            maximumTotalBreadcrumbsSize: 1000,
+        });
+
+        storage.add({ level: BreadcrumbLogLevel.Info, message: 'a', type: BreadcrumbType.Manual });
+        await nextTick();
+
+        expect(fs.createRotatingWriteStream).toHaveBeenCalledWith(expect.stringContaining('bt-breadcrumbs-{n}'), {
+            maxFiles: 2,
+            maxLines: 2,
+            maxBytes: 500,
+        });
+        expect(fs.createWriteStream).not.toHaveBeenCalled();
+        expect(written).toHaveLength(1);
+        expect(storage.getAttachments().map((a) => (a as BacktraceFileAttachment).filePath)).toEqual(files);
+    });
+
+    it('should use a native ring buffer if available', async () => {
+        const fs = mockStreamFileSystem();
+        const session = new SessionFiles(fs, '.', { id: 'sessionId', timestamp: Date.now() });
+        const records: string[] = [];
+        fs.createRotatingWriteStream = jest.fn();
+        fs.createRingBufferWriteStream = jest
+            .fn()
+            .mockImplementation(
+                (path: string, capacity: number, exportOptions: { path: string; maxRecords?: number }) => {
+                    const stream = new WritableStream<string>({
+                        write(chunk) {
+                            records.push(chunk);
+                        },
+                    });
+                    // the native writer exports the newest records to a plain file
+                    const exportRecords = () => {
+                        fs.writeFileSync(exportOptions.path, records.slice(-(exportOptions.maxRecords ?? 0)).join(''));
+                        return exportOptions.path;
+                    };
+                    return Object.assign(stream, { path, capacity, records: () => [...records], export: exportRecords });
+                },
+            );
+
+        const storage = new FileBreadcrumbsStorage(session, fs, {
+            maximumBreadcrumbs: 2,
+            maximumTotalBreadcrumbsSize: 1000,
+        });
+
+        storage.add({ level: BreadcrumbLogLevel.Info, message: 'a', type: BreadcrumbType.Manual });
+        storage.add({ level: BreadcrumbLogLevel.Info, message: 'b', type: BreadcrumbType.Manual });
+        storage.add({ level: BreadcrumbLogLevel.Info, message: 'c', type: BreadcrumbType.Manual });
+        storage.add({ level: BreadcrumbLogLevel.Info, message: 'x'.repeat(1000), type: BreadcrumbType.Manual });
+        await nextTick();
+
+        expect(fs.createRingBufferWriteStream).toHaveBeenCalledWith(
+            expect.stringContaining('bt-breadcrumbs-ring'),
+            1000,
+            { path: expect.stringContaining('bt-breadcrumbs-0'), maxRecords: 2 },
+        );
+        expect(fs.createRotatingWriteStream).not.toHaveBeenCalled();
+        expect(records).toHaveLength(3);
+
+        const [attachment] = storage.getAttachments();
+        assert(attachment instanceof BacktraceFileAttachment);
+        expect(attachment.name).toEqual('bt-breadcrumbs-0');
+        const breadcrumbs = fs
+            .readFileSync(attachment.filePath)
+            .split('\n')
+            .filter((n) => !!n)
+            .map((n) => JSON.parse(n) as Breadcrumb);
+        expect(breadcrumbs.map((b) => b.message)).toEqual(['b', 'c']);
+    });
 });
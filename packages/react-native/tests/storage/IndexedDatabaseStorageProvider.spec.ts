@@ -0,0 +1,123 @@
+import {
+    BacktraceDatabaseFileStorageProvider,
+    type BacktraceData,
+    type BacktraceDatabaseRecord,
+} from '@backtrace/sdk-core';
+import { IndexedDatabaseStorageProvider } from '../../src/storage/IndexedDatabaseStorageProvider';
+import { type ReportIndex, type ReportIndexEntry } from '../../src/storage/ReportIndex';
+import { mockStreamFileSystem } from '../_mocks/fileSystem';
+
+const DATABASE_PATH = '/database';
+const INDEX_PATH = `${DATABASE_PATH}/bt-report-index`;
+
+function record(id: string): BacktraceDatabaseRecord {
+    return {
+        type: 'report',
+        id,
+        timestamp: 1000,
+        data: { uuid: id } as BacktraceData,
+        attachments: [],
+        locked: false,
+    };
+}
+
+function entry(id: string): ReportIndexEntry {
+    return { id, timestamp: 1000, size: 10, attachments: [], attempts: 0 };
+}
+
+function mockReportIndex(entries: ReportIndexEntry[]): jest.Mocked<ReportIndex> {
+    return {
+        load: jest.fn().mockResolvedValue(entries),
+        put: jest.fn().mockResolvedValue(true),
+        incrementAttempts: jest.fn().mockResolvedValue(1),
+        remove: jest.fn().mockResolvedValue(true),
+    } as jest.Mocked<ReportIndex>;
+}
+
+function createProvider(files: Record<string, string>, index: ReportIndex) {
+    const fs = mockStreamFileSystem(files);
+    const storageProvider = BacktraceDatabaseFileStorageProvider.createIfValid(fs, {
+        enable: true,
+        path: DATABASE_PATH,
+    }) as BacktraceDatabaseFileStorageProvider;
+
+    return { fs, provider: new IndexedDatabaseStorageProvider(storageProvider, index, fs, INDEX_PATH) };
+}
+
+describe('IndexedDatabaseStorageProvider', () => {
+    it('should load records listed in the index without listing the database', async () => {
+        const index = mockReportIndex([entry('a')]);
+        const { fs, provider } = createProvider(
+            {
+                [INDEX_PATH]: '',
+                [`${DATABASE_PATH}/a-record.json`]: JSON.stringify(record('a')),
+                [`${DATABASE_PATH}/b-record.json`]: JSON.stringify(record('b')),
+            },
+            index,
+        );
+
+        const records = await provider.get();
+
+        expect(records.map((r) => r.id)).toEqual(['a']);
+        expect(index.load).toHaveBeenCalledWith(INDEX_PATH);
+        expect(fs.readDir).not.toHaveBeenCalled();
+    });
+
+    it('should remove index entries of missing records', async () => {
+        const index = mockReportIndex([entry('a'), entry('missing')]);
+        const { provider } = createProvider(
+            {
+                [INDEX_PATH]: '',
+                [`${DATABASE_PATH}/a-record.json`]: JSON.stringify(record('a')),
+            },
+            index,
+        );
+
+        const records = await provider.get();
+
+        expect(records.map((r) => r.id)).toEqual(['a']);
+        expect(index.remove).toHaveBeenCalledWith(INDEX_PATH, 'missing');
+    });
+
+    it('should build the index from the database if the index does not exist', async () => {
+        const index = mockReportIndex([]);
+        const { provider } = createProvider(
+            {
+                [`${DATABASE_PATH}/a-record.json`]: JSON.stringify(record('a')),
+            },
+            index,
+        );
+
+        const records = await provider.get();
+
+        expect(records.map((r) => r.id)).toEqual(['a']);
+        expect(index.load).not.toHaveBeenCalled();
+        expect(index.put).toHaveBeenCalledWith(INDEX_PATH, expect.objectContaining({ id: 'a' }));
+    });
+
+    it('should add stored records to the index', () => {
+        const index = mockReportIndex([]);
+        const { fs, provider } = createProvider({}, index);
+
+        expect(provider.add(record('a'))).toBe(true);
+
+        const recordJson = fs.files[`${DATABASE_PATH}/a-record.json`];
+        expect(index.put).toHaveBeenCalledWith(INDEX_PATH, {
+            ...entry('a'),
+            size: recordJson.length,
+        });
+    });
+
+    it('should delete the index if it cannot be updated', async () => {
+        const index = mockReportIndex([]);
+        index.put.mockRejectedValue(new Error('I/O error'));
+        const { fs, provider } = createProvider({ [INDEX_PATH]: '' }, index);
+
+        provider.add(record('a'));
+        await new Promise((resolve) => setTimeout(resolve, 0));
+        provider.add(record('b'));
+
+        expect(fs.files[INDEX_PATH]).toBeUndefined();
+        expect(index.put).toHaveBeenCalledTimes(1);
+    });
+});
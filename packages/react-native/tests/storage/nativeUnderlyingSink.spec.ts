@@ -0,0 +1,214 @@
+import { WritableStream } from 'web-streams-polyfill';
+import {
+    CompressedNativeUnderlyingSink,
+    NativeUnderlyingSink,
+    type StreamWriter,
+} from '../../src/storage/StreamWriter';
+
+interface MockedStreamWriter extends StreamWriter {
+    readonly content: string[];
+    create: jest.Mock;
+    append: jest.Mock;
+    appendBatch?: jest.Mock;
+    close: jest.Mock;
+}
+
+function mockStreamWriter(options?: { batch: boolean }): MockedStreamWriter {
+    const content: string[] = [];
+    const writer: MockedStreamWriter = {
+        content,
+        create: jest.fn().mockReturnValue('key'),
+        close: jest.fn().mockReturnValue(true),
+        append: jest.fn().mockImplementation((_, line: string) => {
+            content.push(line);
+            return Promise.resolve(true);
+        }),
+    };
+
+    if (options?.batch !== false) {
+        writer.appendBatch = jest.fn().mockImplementation((_, lines: string[]) => {
+            content.push(...lines);
+            return Promise.resolve(true);
+        });
+    }
+
+    return writer;
+}
+
+/**
+ * Each `append` and `appendBatch` call flushes the native writer once.
+ */
+function flushes(streamWriter: MockedStreamWriter) {
+    return streamWriter.append.mock.calls.length + (streamWriter.appendBatch?.mock.calls.length ?? 0);
+}
+
+function nativeCalls(streamWriter: MockedStreamWriter) {
+    return streamWriter.create.mock.calls.length + flushes(streamWriter) + streamWriter.close.mock.calls.length;
+}
+
+async function writeBreadcrumbs(streamWriter: StreamWriter, count: number) {
+    const stream = new WritableStream<string>(new NativeUnderlyingSink('test', streamWriter));
+    const writer = stream.getWriter();
+    const expected: string[] = [];
+
+    for (let i = 0; i < count; i++) {
+        const line = JSON.stringify({ id: i, message: `breadcrumb ${i}` }) + '\n';
+        expected.push(line);
+        writer.write(line);
+    }
+
+    await writer.close();
+    return expected;
+}
+
+describe('NativeUnderlyingSink', () => {
+    it('should write all chunks in order using batches', async () => {
+        const streamWriter = mockStreamWriter();
+
+        const expected = await writeBreadcrumbs(streamWriter, 100);
+
+        expect(streamWriter.content).toEqual(expected);
+        expect(streamWriter.append).not.toHaveBeenCalled();
+    });
+
+    it('should write chunks one by one if batches are not supported', async () => {
+        const streamWriter = mockStreamWriter({ batch: false });
+
+        const expected = await writeBreadcrumbs(streamWriter, 100);
+
+        expect(streamWriter.content).toEqual(expected);
+        expect(streamWriter.append).toHaveBeenCalledTimes(100);
+    });
+
+    it('should fail next write if batch write failed', async () => {
+        const streamWriter = mockStreamWriter();
+        streamWriter.appendBatch?.mockResolvedValue(false);
+        const sink = new NativeUnderlyingSink('test', streamWriter);
+        await sink.start();
+
+        await sink.write('a');
+        await new Promise((resolve) => setTimeout(resolve, 10));
+
+        await expect(sink.write('b')).rejects.toThrow();
+    });
+
+    it('should fail flush if batch write failed', async () => {
+        const streamWriter = mockStreamWriter();
+        streamWriter.appendBatch?.mockResolvedValue(false);
+        const sink = new NativeUnderlyingSink('test', streamWriter);
+        await sink.start();
+
+        await sink.write('a');
+        await expect(sink.flush()).rejects.toThrow();
+    });
+
+    it('should error the stream if batch write failed', async () => {
+        const streamWriter = mockStreamWriter();
+        streamWriter.appendBatch?.mockResolvedValue(false);
+        const stream = new WritableStream<string>(new NativeUnderlyingSink('test', streamWriter));
+        const writer = stream.getWriter();
+
+        await writer.write('a');
+        await new Promise((resolve) => setTimeout(resolve, 10));
+
+        await expect(writer.write('b')).rejects.toThrow();
+        await expect(writer.closed).rejects.toThrow();
+    });
+
+    it('should drop pending chunks on abort', async () => {
+        const streamWriter = mockStreamWriter();
+        const sink = new NativeUnderlyingSink('test', streamWriter);
+        await sink.start();
+
+        await sink.write('a');
+        sink.abort();
+        await new Promise((resolve) => setTimeout(resolve, 10));
+
+        expect(streamWriter.appendBatch).not.toHaveBeenCalled();
+        expect(streamWriter.close).toHaveBeenCalledTimes(1);
+    });
+
+    it('should write all batched chunks before closing the file', async () => {
+        const streamWriter = mockStreamWriter();
+        const sink = new NativeUnderlyingSink('test', streamWriter);
+        await sink.start();
+
+        await sink.write('a');
+        await sink.write('b');
+        await sink.close();
+
+        expect(streamWriter.content).toEqual(['a', 'b']);
+        expect(streamWriter.close).toHaveBeenCalledTimes(1);
+    });
+
+    it('should write pending batches of open sinks without waiting for the next tick', async () => {
+        jest.useFakeTimers();
+        try {
+            const streamWriter = mockStreamWriter();
+            const sink = new NativeUnderlyingSink('test', streamWriter);
+            await sink.start();
+
+            await sink.write('a');
+            await sink.write('b');
+            await NativeUnderlyingSink.flushAll();
+
+            expect(streamWriter.appendBatch).toHaveBeenCalledWith('key', ['a', 'b']);
+        } finally {
+            jest.useRealTimers();
+        }
+    });
+
+    it('should not write batches of closed sinks', async () => {
+        const streamWriter = mockStreamWriter();
+        const sink = new NativeUnderlyingSink('test', streamWriter);
+        await sink.start();
+        await sink.close();
+
+        streamWriter.appendBatch?.mockClear();
+        await NativeUnderlyingSink.flushAll();
+
+        expect(streamWriter.appendBatch).not.toHaveBeenCalled();
+    });
+
+    it('should open a compressed file with the compression level', async () => {
+        const streamWriter = mockStreamWriter();
+        const createCompressed = jest.fn().mockReturnValue('compressed');
+        streamWriter.createCompressed = createCompressed;
+        const sink = new CompressedNativeUnderlyingSink('test.gz', 9, streamWriter);
+
+        await sink.start();
+        await sink.write('a');
+        await sink.close();
+
+        expect(createCompressed).toHaveBeenCalledWith('test.gz', 9);
+        expect(streamWriter.create).not.toHaveBeenCalled();
+        expect(streamWriter.appendBatch).toHaveBeenCalledWith('compressed', ['a']);
+    });
+
+    it('should fail to open a compressed file if compression is not supported', async () => {
+        const sink = new CompressedNativeUnderlyingSink('test.gz', 9, mockStreamWriter());
+
+        await expect(sink.start()).rejects.toThrow();
+    });
+
+    describe('batching', () => {
+        const breadcrumbs = 1000;
+
+        it(`should reduce native calls and flushes per ${breadcrumbs} breadcrumbs`, async () => {
+            const singleWriter = mockStreamWriter({ batch: false });
+            const batchWriter = mockStreamWriter();
+
+            await writeBreadcrumbs(singleWriter, breadcrumbs);
+            await writeBreadcrumbs(batchWriter, breadcrumbs);
+
+            // create + one append per breadcrumb + close
+            expect(nativeCalls(singleWriter)).toEqual(breadcrumbs + 2);
+            expect(flushes(singleWriter)).toEqual(breadcrumbs);
+
+            // create + one batch per tick + close
+            expect(nativeCalls(batchWriter)).toBeLessThanOrEqual(3);
+            expect(flushes(batchWriter)).toBeLessThanOrEqual(1);
+            expect(batchWriter.content).toEqual(singleWriter.content);
+        });
+    });
+});
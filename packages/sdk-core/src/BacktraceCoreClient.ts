@@ -168,10 +168,9 @@ export abstract class BacktraceCoreClient<
         );
 
         if (this.options?.database?.enable === true && setup.fileSystem) {
-            const provider = BacktraceDatabaseFileStorageProvider.createIfValid(
-                setup.fileSystem,
-                this.options.database,
-            );
+            const provider =
+                setup.databaseStorageProvider ??
+                BacktraceDatabaseFileStorageProvider.createIfValid(setup.fileSystem, this.options.database);
 
             if (this.fileSystem) {
                 const sessionFiles = new SessionFiles(
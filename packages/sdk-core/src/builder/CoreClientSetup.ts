@@ -5,6 +5,7 @@ import { BacktraceModule } from '../modules/BacktraceModule.js';
 import { BacktraceAttributeProvider } from '../modules/attribute/BacktraceAttributeProvider.js';
 import { BreadcrumbsSetup } from '../modules/breadcrumbs/index.js';
 import { BacktraceStackTraceConverter } from '../modules/converter/index.js';
+import { BacktraceDatabaseStorageProvider } from '../modules/database/BacktraceDatabaseStorageProvider.js';
 import { BacktraceSessionProvider } from '../modules/metrics/BacktraceSessionProvider.js';
 import { MetricsQueue } from '../modules/metrics/MetricsQueue.js';
 import { SummedEvent } from '../modules/metrics/model/SummedEvent.js';
@@ -29,6 +30,7 @@ export interface CoreClientSetup<O extends BacktraceConfiguration = BacktraceCon
     readonly breadcrumbsSetup?: BreadcrumbsSetup;
     readonly reportSubmission?: BacktraceReportSubmission;
     readonly fileSystem?: FileSystem;
+    readonly databaseStorageProvider?: BacktraceDatabaseStorageProvider;
     readonly modules?: BacktraceModule[];
     readonly summedMetricsQueue?: MetricsQueue<SummedEvent>;
     readonly uniqueMetricsQueue?: MetricsQueue<UniqueEvent>;
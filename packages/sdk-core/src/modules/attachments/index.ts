@@ -1,2 +1,3 @@
 export * from './AttachmentManager.js';
 export * from './BacktraceAttachmentProvider.js';
+export * from './isFileAttachment.js';
@@ -32,4 +32,11 @@ export interface BacktraceBreadcrumbs {
     warn(message: string, attributes?: Record<string, AttributeType>): void;
     error(message: string, attributes?: Record<string, AttributeType>): void;
     log(message: string, level: BreadcrumbLogLevel, attributes?: Record<string, AttributeType>): void;
+
+    /**
+     * Lowers the number of breadcrumbs kept in memory, for example when the system runs low on memory.
+     * Oldest breadcrumbs are dropped. The limit is never raised.
+     * @param maximumBreadcrumbs new maximum number of breadcrumbs
+     */
+    trim?(maximumBreadcrumbs: number): void;
 }
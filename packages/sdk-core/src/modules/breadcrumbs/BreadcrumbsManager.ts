@@ -143,6 +143,10 @@ export class BreadcrumbsManager implements BacktraceBreadcrumbs, BacktraceModule
         return this.addBreadcrumb(message, level, BreadcrumbType.Manual, attributes);
     }
 
+    public trim(maximumBreadcrumbs: number): void {
+        this._storage.trim?.(maximumBreadcrumbs);
+    }
+
     public logReport(report: BacktraceReport) {
         const level = report.data instanceof Error ? BreadcrumbLogLevel.Error : BreadcrumbLogLevel.Warning;
         return this.addBreadcrumb(report.message, level, BreadcrumbType.System);
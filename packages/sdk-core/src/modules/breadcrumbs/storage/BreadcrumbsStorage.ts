@@ -44,4 +44,11 @@ export interface BreadcrumbsStorage {
      * Gets attachments providers associated with this storage.
      */
     getAttachmentProviders?(): BacktraceAttachmentProvider[];
+
+    /**
+     * Lowers the maximum number of breadcrumbs kept in memory and drops the oldest breadcrumbs over it.
+     * Implemented by storages which keep breadcrumbs in memory.
+     * @param maximumBreadcrumbs new maximum number of breadcrumbs
+     */
+    trim?(maximumBreadcrumbs: number): void;
 }
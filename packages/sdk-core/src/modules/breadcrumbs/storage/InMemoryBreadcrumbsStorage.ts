@@ -87,6 +87,17 @@ export class InMemoryBreadcrumbsStorage implements BreadcrumbsStorage, Backtrace
         return id;
     }
 
+    public trim(maximumBreadcrumbs: number): void {
+        const capacity = Math.max(1, Math.min(maximumBreadcrumbs, this._breadcrumbs.capacity));
+        if (capacity === this._breadcrumbs.capacity) {
+            return;
+        }
+
+        // sizes are stored only with the total size limit, in the order of breadcrumbs
+        this._breadcrumbs = new OverwritingArray<Breadcrumb>(capacity, [...this._breadcrumbs].slice(-capacity));
+        this._breadcrumbSizes = new OverwritingArray<number>(capacity, [...this._breadcrumbSizes].slice(-capacity));
+    }
+
     private totalSize() {
         let sum = 0;
         for (const size of this._breadcrumbSizes) {
@@ -55,15 +55,21 @@ export class BacktraceDatabaseFileStorageProvider implements BacktraceDatabaseSt
     }
 
     public add(record: BacktraceDatabaseRecord): boolean {
+        return this.write(record) !== undefined;
+    }
+
+    /**
+     * Writes the record to the database directory.
+     * @returns length of the stored record JSON, or undefined if the record can't be written
+     */
+    public write(record: BacktraceDatabaseRecord): number | undefined {
         const recordPath = this.getRecordPath(record.id);
         try {
-            this._fileSystem.writeFileSync(
-                recordPath,
-                JSON.stringify(BacktraceDatabaseFileRecord.fromRecord(record), jsonEscaper()),
-            );
-            return true;
+            const recordJson = JSON.stringify(BacktraceDatabaseFileRecord.fromRecord(record), jsonEscaper());
+            this._fileSystem.writeFileSync(recordPath, recordJson);
+            return recordJson.length;
         } catch {
-            return false;
+            return undefined;
         }
     }
 
@@ -74,6 +80,27 @@ export class BacktraceDatabaseFileStorageProvider implements BacktraceDatabaseSt
             .filter((file) => file.endsWith(this.RECORD_SUFFIX))
             .map((f) => this._path + '/' + f);
 
+        return this.readRecords(recordNames);
+    }
+
+    /**
+     * Reads records with the given ids without listing the database directory.
+     * Records which don't exist are skipped.
+     * @param ids record ids
+     */
+    public async getByIds(ids: string[]): Promise<BacktraceDatabaseRecord[]> {
+        const recordNames: string[] = [];
+        for (const id of ids) {
+            const recordPath = this.getRecordPath(id);
+            if (await this._fileSystem.exists(recordPath)) {
+                recordNames.push(recordPath);
+            }
+        }
+
+        return this.readRecords(recordNames);
+    }
+
+    private async readRecords(recordNames: string[]): Promise<BacktraceDatabaseRecord[]> {
         const records: BacktraceDatabaseRecord[] = [];
         for (const recordName of recordNames) {
             try {
@@ -1,3 +1,4 @@
 export { BacktraceDatabase } from './BacktraceDatabase.js';
+export * from './BacktraceDatabaseFileStorageProvider.js';
 export * from './BacktraceDatabaseStorageProvider.js';
 export * from './model/BacktraceDatabaseRecord.js';
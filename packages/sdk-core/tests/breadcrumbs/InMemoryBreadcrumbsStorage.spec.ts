@@ -172,4 +172,35 @@ describe('InMemoryBreadcrumbsStorage', () => {
         const actual = JSON.parse(storage.get());
         expect(actual).toEqual(expected);
     });
+
+    it('should keep only the newest breadcrumbs after trim', () => {
+        const storage = new InMemoryBreadcrumbsStorage({
+            maximumBreadcrumbs: 100,
+            maximumTotalBreadcrumbsSize: 1024 * 1024,
+        });
+
+        for (const message of ['a', 'b', 'c', 'd']) {
+            storage.add({ level: BreadcrumbLogLevel.Info, message, type: BreadcrumbType.Manual });
+        }
+
+        storage.trim(2);
+        storage.add({ level: BreadcrumbLogLevel.Info, message: 'e', type: BreadcrumbType.Manual });
+
+        const actual = (JSON.parse(storage.get()) as Breadcrumb[]).map((breadcrumb) => breadcrumb.message);
+        expect(actual).toEqual(['d', 'e']);
+    });
+
+    it('should not raise the limit on trim', () => {
+        const storage = new InMemoryBreadcrumbsStorage({
+            maximumBreadcrumbs: 2,
+        });
+
+        storage.trim(10);
+        for (const message of ['a', 'b', 'c']) {
+            storage.add({ level: BreadcrumbLogLevel.Info, message, type: BreadcrumbType.Manual });
+        }
+
+        const actual = (JSON.parse(storage.get()) as Breadcrumb[]).map((breadcrumb) => breadcrumb.message);
+        expect(actual).toEqual(['b', 'c']);
+    });
 });